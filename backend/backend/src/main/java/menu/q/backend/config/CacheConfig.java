@@ -0,0 +1,54 @@
+package menu.q.backend.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caches da aplicação, todos no Caffeine: limite de entradas com descarte W-TinyLFU (o que é pouco lido sai
+ * primeiro, mesmo que recente), validade desde a gravação e estatísticas de acertos, faltas e descartes,
+ * publicadas pelo actuator em /actuator/metrics/cache.gets e cache.evictions.
+ * As entradas são invalidadas pelas escritas nas entidades (CacheInvalidationListener); a validade só limita
+ * o que escapa disso, como alterações feitas direto no banco.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Limites padrão de cada cache; app.cache.<nome>.max-entries e app.cache.<nome>.ttl (0 = sem validade) sobrescrevem
+    private static final Map<String, Limits> DEFAULTS = Map.of(
+            CacheNames.RESTAURANT_BY_OWNER, new Limits(10_000, Duration.ofMinutes(1)),
+            CacheNames.EMPLOYEES_BY_RESTAURANT, new Limits(10_000, Duration.ofMinutes(1)),
+            CacheNames.USER_SUMMARIES, new Limits(10_000, Duration.ofMinutes(5)),
+            CacheNames.PRINCIPALS, new Limits(10_000, Duration.ofMinutes(5)),
+            CacheNames.MENU_SNAPSHOTS, new Limits(2_000, Duration.ofMinutes(5)));
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Só os caches registrados abaixo: um nome desconhecido em @Cacheable é erro, não um cache sem limite
+        cacheManager.setCacheNames(List.of());
+        DEFAULTS.forEach((name, defaults) -> {
+            String prefix = "app.cache." + name;
+            long maxEntries = environment.getProperty(prefix + ".max-entries", Long.class, defaults.maxEntries());
+            Duration ttl = environment.getProperty(prefix + ".ttl", Duration.class, defaults.ttl());
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maxEntries).recordStats();
+            if (!ttl.isZero()) {
+                builder.expireAfterWrite(ttl);
+            }
+            cacheManager.registerCustomCache(name, builder.build());
+        });
+        return cacheManager;
+    }
+
+    private record Limits(long maxEntries, Duration ttl) {}
+}
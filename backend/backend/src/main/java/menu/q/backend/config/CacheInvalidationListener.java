@@ -0,0 +1,190 @@
+package menu.q.backend.config;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import menu.q.backend.model.Employee;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.service.MenuSnapshotService;
+import menu.q.backend.service.OrderService;
+import menu.q.backend.service.SearchIndexService;
+
+/**
+ * Invalida os caches a partir das escritas nas entidades (@EntityListeners em Restaurant, Item, Employee e User):
+ * qualquer serviço ou controller que grave pelo JPA invalida o que depende da linha, sem precisar lembrar disso.
+ * O descarte é feito na hora da escrita e de novo depois do commit, porque uma leitura concorrente ainda vê
+ * os dados antigos até lá e poderia guardá-los no cache. Depois do commit a mudança também vai para os outros
+ * nós pelo CacheInvalidationTransport, se houver um. UPDATEs em lote (JPQL) não passam por aqui e chamam
+ * restaurantChanged/itemChanged/userChanged diretamente. O cache de segundo nível do Hibernate acompanha sozinho
+ * as escritas locais; as dos outros nós são descartadas dele em applyRemote, que também relê para o índice de
+ * busca os itens e restaurantes alterados.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+    // Resolvidos na primeira escrita: o Hibernate cria este listener antes dos repositórios que eles usam
+    private final ObjectProvider<MenuSnapshotService> menuSnapshotService;
+    private final ObjectProvider<CacheInvalidationTransport> transport;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final ObjectProvider<OrderService> orderService;
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+
+    public CacheInvalidationListener(CacheManager cacheManager, ObjectProvider<MenuSnapshotService> menuSnapshotService,
+                                     ObjectProvider<CacheInvalidationTransport> transport,
+                                     ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                     ObjectProvider<OrderService> orderService,
+                                     ObjectProvider<SearchIndexService> searchIndexService) {
+        this.cacheManager = cacheManager;
+        this.menuSnapshotService = menuSnapshotService;
+        this.transport = transport;
+        this.entityManagerFactory = entityManagerFactory;
+        this.orderService = orderService;
+        this.searchIndexService = searchIndexService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        transport.ifAvailable(bus -> bus.subscribe(this::applyRemote));
+    }
+
+    @PostPersist
+    public void created(Object entity) {
+        publish(changeOf(entity, true));
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        EntityChange change = changeOf(entity, false);
+        publish(change);
+        // Restaurante que trocou de dono: a entrada do dono anterior também sai
+        if (entity instanceof Restaurant restaurant && restaurant.getStoredOwnerId() != null
+                && !restaurant.getStoredOwnerId().equals(change.parentId())) {
+            restaurantChanged(restaurant.getId(), restaurant.getStoredOwnerId());
+        }
+    }
+
+    public void restaurantChanged(Long restaurantId, Long ownerId) {
+        publish(new EntityChange(EntityChange.Type.RESTAURANT, restaurantId, ownerId));
+    }
+
+    public void itemChanged(Long itemId, Long restaurantId) {
+        publish(new EntityChange(EntityChange.Type.ITEM, itemId, restaurantId));
+    }
+
+    public void userChanged(Long userId) {
+        publish(new EntityChange(EntityChange.Type.USER, userId, null));
+    }
+
+    /**
+     * Descarta o que depende da entidade alterada, neste nó. Chamado para as escritas locais e para as
+     * recebidas dos outros nós.
+     */
+    public void apply(EntityChange change) {
+        switch (change.type()) {
+            case RESTAURANT -> {
+                evict(CacheNames.RESTAURANT_BY_OWNER, change.parentId());
+                menuSnapshotService.getObject().invalidate(change.id());
+            }
+            case ITEM -> menuSnapshotService.getObject().invalidate(change.parentId());
+            case EMPLOYEE -> {
+                evict(CacheNames.EMPLOYEES_BY_RESTAURANT, change.parentId());
+                menuSnapshotService.getObject().invalidate(change.parentId());
+            }
+            case USER -> {
+                // O usuário vai no resumo, no principal dos tokens, no restaurante do qual é dono e nos
+                // cardápios (cada item leva nome e avatar do autor)
+                evict(CacheNames.PRINCIPALS, change.id());
+                evict(CacheNames.USER_SUMMARIES, change.id());
+                evict(CacheNames.RESTAURANT_BY_OWNER, change.id());
+                menuSnapshotService.getObject().invalidateAll();
+            }
+            case NEW_USER -> {
+                evict(CacheNames.PRINCIPALS, change.id());
+                evict(CacheNames.USER_SUMMARIES, change.id());
+            }
+        }
+    }
+
+    /**
+     * Mudança vinda de outro nó: além do que apply descarta, a linha sai do cache de segundo nível, que não vê
+     * escritas feitas por outra instância. Os resultados de consultas em cache são todos descartados, porque o
+     * controle por tabela do Hibernate também só conhece as escritas locais. Item ou restaurante alterado é relido
+     * do banco para o índice de busca (ou sai dele, se foi apagado). Eventos de pedido não tocam nos caches e vão
+     * para o OrderService.
+     */
+    public void applyRemote(EntityChange change) {
+        if (change.type() == EntityChange.Type.ORDER_CREATED || change.type() == EntityChange.Type.ORDER_STATUS) {
+            orderService.getObject().relay(change);
+            return;
+        }
+        apply(change);
+        org.hibernate.Cache entities = entityManagerFactory.getObject().unwrap(SessionFactory.class).getCache();
+        if (change.id() != null) {
+            switch (change.type()) {
+                case RESTAURANT -> {
+                    entities.evictEntityData(Restaurant.class, change.id());
+                    searchIndexService.getObject().refreshRestaurant(change.id());
+                }
+                case ITEM -> {
+                    entities.evictEntityData(Item.class, change.id());
+                    searchIndexService.getObject().refreshItem(change.id());
+                }
+                case EMPLOYEE -> entities.evictEntityData(Employee.class, change.id());
+                case USER, NEW_USER -> entities.evictEntityData(User.class, change.id());
+            }
+        }
+        entities.evictDefaultQueryRegion();
+    }
+
+    // Os ids são lidos agora: depois do commit a entidade pode estar desanexada
+    private static EntityChange changeOf(Object entity, boolean created) {
+        return switch (entity) {
+            case Restaurant restaurant -> new EntityChange(EntityChange.Type.RESTAURANT, restaurant.getId(),
+                    restaurant.getOwner() != null ? restaurant.getOwner().getId() : null);
+            case Item item -> new EntityChange(EntityChange.Type.ITEM, item.getId(),
+                    item.getRestaurant() != null ? item.getRestaurant().getId() : null);
+            case Employee employee -> new EntityChange(EntityChange.Type.EMPLOYEE, employee.getId(),
+                    employee.getRestaurant() != null ? employee.getRestaurant().getId() : null);
+            case User user -> new EntityChange(created ? EntityChange.Type.NEW_USER : EntityChange.Type.USER, user.getId(), null);
+            default -> null;
+        };
+    }
+
+    private void publish(EntityChange change) {
+        if (change == null) {
+            return;
+        }
+        apply(change);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                    transport.ifAvailable(bus -> bus.publish(change));
+                }
+            });
+        } else {
+            transport.ifAvailable(bus -> bus.publish(change));
+        }
+    }
+
+    private void evict(String cacheName, Long key) {
+        if (key != null) {
+            cacheManager.getCache(cacheName).evict(key);
+        }
+    }
+}
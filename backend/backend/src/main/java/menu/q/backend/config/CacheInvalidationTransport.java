@@ -0,0 +1,26 @@
+package menu.q.backend.config;
+
+import java.util.function.Consumer;
+
+/**
+ * Leva as mudanças de entidades de um nó para os outros, para que cada réplica descarte dos próprios caches
+ * o que outra réplica alterou. Escolhido por app.cache.invalidation.transport: "outbox" (tabela
+ * cache_invalidations lida por todos os nós, funciona com o MySQL existente); os testes também têm o "loopback",
+ * entre contextos da mesma JVM. Sem a propriedade, cada nó só invalida os próprios caches.
+ * O mesmo canal leva os eventos de pedido (ORDER_CREATED, ORDER_STATUS) para o OrderEventHub dos outros nós.
+ */
+public interface CacheInvalidationTransport extends AutoCloseable {
+
+    /**
+     * Publica uma mudança já confirmada neste nó. Não entrega de volta para quem publicou.
+     */
+    void publish(EntityChange change);
+
+    /**
+     * Passa a entregar ao handler as mudanças publicadas pelos outros nós.
+     */
+    void subscribe(Consumer<EntityChange> handler);
+
+    @Override
+    void close();
+}
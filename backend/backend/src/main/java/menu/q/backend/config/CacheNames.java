@@ -0,0 +1,21 @@
+package menu.q.backend.config;
+
+/**
+ * Nomes dos caches da aplicação (ver CacheConfig). Cada um tem limite e validade próprios em
+ * app.cache.&lt;nome&gt;.max-entries e app.cache.&lt;nome&gt;.ttl.
+ */
+public final class CacheNames {
+
+    /** Restaurante de cada dono, por id do dono (GET /api/restaurants/owner/{id}). */
+    public static final String RESTAURANT_BY_OWNER = "restaurantByOwner";
+    /** Funcionários de cada restaurante, por id do restaurante. */
+    public static final String EMPLOYEES_BY_RESTAURANT = "employeesByRestaurant";
+    /** Resumo dos usuários de GET /api/users/{id}, por id. */
+    public static final String USER_SUMMARIES = "userSummaries";
+    /** Usuário dos tokens com id, por id (JwtAuthenticationFilter). */
+    public static final String PRINCIPALS = "principals";
+    /** Cardápio público pré-serializado, por id do restaurante (MenuSnapshotService). */
+    public static final String MENU_SNAPSHOTS = "menuSnapshots";
+
+    private CacheNames() {}
+}
@@ -0,0 +1,24 @@
+package menu.q.backend.config;
+
+/**
+ * Escrita numa entidade que os caches acompanham, como vai de um nó para os outros pelo
+ * CacheInvalidationTransport. Cada nó decide o que descartar (CacheInvalidationListener.apply).
+ *
+ * @param id       id da entidade alterada
+ * @param parentId dono do restaurante (RESTAURANT) ou restaurante do item/funcionário/pedido (ITEM, EMPLOYEE, ORDER_*)
+ */
+public record EntityChange(Type type, Long id, Long parentId) {
+
+    public enum Type {
+        RESTAURANT,
+        ITEM,
+        EMPLOYEE,
+        USER,
+        /** Usuário recém-criado: ainda não aparece em cardápio nem é dono de restaurante. */
+        NEW_USER,
+        /** Pedido criado (parentId: restaurante). Não mexe em cache: vai para os assinantes SSE dos outros nós. */
+        ORDER_CREATED,
+        /** Pedido mudou de status (parentId: restaurante). Como ORDER_CREATED. */
+        ORDER_STATUS
+    }
+}
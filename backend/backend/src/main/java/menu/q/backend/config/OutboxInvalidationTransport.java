@@ -0,0 +1,150 @@
+package menu.q.backend.config;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import menu.q.backend.model.CacheInvalidationEvent;
+import menu.q.backend.repository.CacheInvalidationEventRepository;
+
+/**
+ * Transporte pela tabela cache_invalidations: quem escreve grava uma linha depois do commit e cada nó lê
+ * as linhas novas a cada app.cache.invalidation.poll-interval, em ordem de id. Um nó vê a escrita de outro
+ * com no máximo esse atraso, em vez da validade do cache.
+ *
+ * Ids de autoincremento podem ser confirmados fora de ordem: um buraco na sequência pode ser uma linha ainda
+ * não confirmada. A leitura não avança além do buraco até ele ser preenchido ou passar GAP_TIMEOUT_MILLIS
+ * (INSERT desfeito); as linhas depois dele já são aplicadas, uma vez só.
+ *
+ * Uma linha confirmada depois desse prazo, ou que nem chegou a ser gravada, não é mais aplicada: o outro nó fica
+ * com o valor antigo até a validade da entrada, por isso os caches alimentados por aqui têm validade curta.
+ * Esses casos vão para o log e para o contador cache.invalidation.dropped (reason=gap ou publish).
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "outbox")
+public class OutboxInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxInvalidationTransport.class);
+    private static final int BATCH_SIZE = 500;
+    private static final long GAP_TIMEOUT_MILLIS = 10_000;
+    private static final long CLEANUP_INTERVAL_MILLIS = 60_000;
+
+    private final CacheInvalidationEventRepository repository;
+    private final TransactionTemplate tx;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final String node = UUID.randomUUID().toString();
+    private final Counter droppedGaps;
+    private final Counter failedPublishes;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("cache-invalidation-poller").factory());
+
+    // Estado da leitura, só usado pela thread do poller
+    private Consumer<EntityChange> handler;
+    private long after;
+    private final TreeSet<Long> appliedAfterGap = new TreeSet<>();
+    private long gapSince;
+    private long lastCleanup;
+
+    public OutboxInvalidationTransport(CacheInvalidationEventRepository repository, PlatformTransactionManager transactionManager,
+                                       @Value("${app.cache.invalidation.poll-interval:1s}") Duration pollInterval,
+                                       @Value("${app.cache.invalidation.retention:1h}") Duration retention,
+                                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        // Publicado depois do commit da escrita: a linha vai numa transação própria
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.droppedGaps = Counter.builder("cache.invalidation.dropped").tag("reason", "gap")
+                .description("Invalidações puladas por não chegarem dentro do prazo").register(meterRegistry);
+        this.failedPublishes = Counter.builder("cache.invalidation.dropped").tag("reason", "publish")
+                .description("Invalidações que não puderam ser gravadas").register(meterRegistry);
+    }
+
+    @Override
+    public void publish(EntityChange change) {
+        try {
+            tx.executeWithoutResult(status -> repository.save(new CacheInvalidationEvent(node, change)));
+        } catch (RuntimeException e) {
+            // A escrita já foi confirmada; os outros nós ficam com o valor antigo até a validade do cache
+            failedPublishes.increment();
+            log.warn("Falha ao publicar invalidação de cache {}, os outros nós a perdem: {}", change, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChange> handler) {
+        poller.execute(() -> {
+            this.handler = handler;
+            // Caches começam vazios: o que foi publicado antes deste nó subir não importa
+            this.after = tx.execute(status -> repository.findMaxId());
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        try {
+            List<CacheInvalidationEvent> page = tx.execute(status -> repository.findPage(after, Limit.of(BATCH_SIZE)));
+            for (CacheInvalidationEvent event : page) {
+                if (!event.getOrigin().equals(node) && !appliedAfterGap.contains(event.getId())) {
+                    handler.accept(event.toChange());
+                }
+            }
+            advance(page);
+            long now = System.currentTimeMillis();
+            if (now - lastCleanup > CLEANUP_INTERVAL_MILLIS) {
+                lastCleanup = now;
+                tx.executeWithoutResult(status -> repository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao ler invalidações de cache, nova tentativa no próximo ciclo: {}", e.getMessage());
+        }
+    }
+
+    // Avança o cursor pelas linhas contíguas; com um buraco, guarda as aplicadas depois dele
+    private void advance(List<CacheInvalidationEvent> page) {
+        long now = System.currentTimeMillis();
+        for (CacheInvalidationEvent event : page) {
+            long id = event.getId();
+            if (id != after + 1) {
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < GAP_TIMEOUT_MILLIS) {
+                    page.stream().map(CacheInvalidationEvent::getId).filter(applied -> applied > after).forEach(appliedAfterGap::add);
+                    return;
+                }
+                droppedGaps.increment(id - after - 1);
+                log.warn("Invalidações de cache {} a {} não chegaram em {} ms e foram puladas; "
+                        + "se foram gravadas depois, este nó só as vê pela validade do cache", after + 1, id - 1, GAP_TIMEOUT_MILLIS);
+            }
+            after = id;
+            gapSince = 0;
+        }
+        appliedAfterGap.headSet(after, true).clear();
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+}
@@ -0,0 +1,109 @@
+package menu.q.backend.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+
+import javax.cache.Caching;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.model.Employee;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+
+/**
+ * Cache de segundo nível do Hibernate, local em cada instância (JCache sobre Caffeine): Restaurant, Item,
+ * Employee e User lidos por id e as consultas marcadas como cacheáveis.
+ * Cada região tem limite de entradas e validade; as escritas pelo JPA atualizam o cache na hora e as dos outros
+ * nós chegam pelo CacheInvalidationListener. Acertos e faltas por região vão para
+ * /actuator/metrics/hibernate.second.level.cache.requests e hibernate.query.cache.requests
+ * (com hibernate.generate_statistics=true).
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final List<String> ENTITY_REGIONS = List.of(
+            Restaurant.class.getName(), Item.class.getName(), Employee.class.getName(), User.class.getName());
+
+    // Um gerenciador por contexto: duas instâncias na mesma JVM (testes) não dividem o cache
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager entityCacheManager(
+            @Value("${app.cache.entities.max-entries:10000}") long entityMaxEntries,
+            @Value("${app.cache.entities.ttl:1m}") Duration entityTtl,
+            @Value("${app.cache.queries.max-entries:2000}") long queryMaxEntries,
+            @Value("${app.cache.queries.ttl:1m}") Duration queryTtl) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        javax.cache.CacheManager manager = provider.getCacheManager(
+                URI.create("menuq-entities-" + UUID.randomUUID()), getClass().getClassLoader(), new Properties());
+        for (String region : ENTITY_REGIONS) {
+            manager.createCache(region, bounded(entityMaxEntries, entityTtl));
+        }
+        manager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(queryMaxEntries, queryTtl));
+        // Última escrita em cada tabela, para descartar resultados de consulta antigos: uma entrada por tabela,
+        // não pode expirar nem ser descartada antes dos resultados
+        manager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(javax.cache.CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            // Só as regiões criadas acima: uma região nova sem limite é erro na subida
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            if (!statistics.isStatisticsEnabled()) {
+                return;
+            }
+            for (String region : ENTITY_REGIONS) {
+                FunctionCounter.builder("hibernate.second.level.cache.requests", statistics,
+                                s -> s.getDomainDataRegionStatistics(region).getHitCount())
+                        .tags("region", region, "result", "hit").register(registry);
+                FunctionCounter.builder("hibernate.second.level.cache.requests", statistics,
+                                s -> s.getDomainDataRegionStatistics(region).getMissCount())
+                        .tags("region", region, "result", "miss").register(registry);
+            }
+            FunctionCounter.builder("hibernate.query.cache.requests", statistics, Statistics::getQueryCacheHitCount)
+                    .tags("result", "hit").register(registry);
+            FunctionCounter.builder("hibernate.query.cache.requests", statistics, Statistics::getQueryCacheMissCount)
+                    .tags("result", "miss").register(registry);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        if (!ttl.isZero()) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
@@ -3,6 +3,7 @@ package menu.q.backend.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.lang.NonNull;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -11,6 +12,7 @@ import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
@@ -25,13 +27,19 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:uploads/");
         
+        // Originais das imagens padrão (as variantes versionadas ficam no ImageVariantController).
+        // Sem hash na URL: cache curto, revalidado por Last-Modified
+        CacheControl originals = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
         // Serve imagens padrão de capa dos restaurantes
         registry.addResourceHandler("/default-images/covers/**")
-                .addResourceLocations("file:default-images/covers/");
+                .addResourceLocations("file:default-images/covers/")
+                .setCacheControl(originals);
         
         // Serve imagens padrão de itens (produtos)
         registry.addResourceHandler("/default-images/items/**")
-                .addResourceLocations("file:default-images/items/");
+                .addResourceLocations("file:default-images/items/")
+                .setCacheControl(originals);
         
         registry.addResourceHandler("/**") // Fallback para imagens na raiz
                 .addResourceLocations("file:uploads/");
@@ -59,6 +67,11 @@ public class WebConfig implements WebMvcConfigurer {
         
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        // Cursor das listagens paginadas precisa ser legível pelo front
+        config.addExposedHeader("X-Next-Cursor");
+        config.addExposedHeader("Link");
+        // Indica que a resposta de POST /orders é a repetição de uma Idempotency-Key já usada
+        config.addExposedHeader("Idempotent-Replayed");
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
     }
@@ -0,0 +1,58 @@
+package menu.q.backend.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import menu.q.backend.data.dto.SalesReportDto;
+import menu.q.backend.service.OrderService;
+import menu.q.backend.service.SalesRollupService;
+
+@RestController
+@RequestMapping("/api/analytics/restaurants/{restaurantId}")
+public class AnalyticsController {
+
+    private static final int MAX_DAYS = 366;
+
+    private final SalesRollupService salesRollupService;
+    private final OrderService orderService;
+
+    public AnalyticsController(SalesRollupService salesRollupService, OrderService orderService) {
+        this.salesRollupService = salesRollupService;
+        this.orderService = orderService;
+    }
+
+    /**
+     * Vendas por hora e por item no período [from, to). Sem parâmetros, os últimos 7 dias.
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReportDto> sales(@PathVariable Long restaurantId,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime start = from != null ? from : LocalDate.now().minusDays(6).atStartOfDay();
+        if (!start.isBefore(end) || ChronoUnit.DAYS.between(start, end) > MAX_DAYS) {
+            throw new IllegalArgumentException("Período inválido: from deve ser anterior a to, com no máximo " + MAX_DAYS + " dias");
+        }
+        return ResponseEntity.ok(salesRollupService.report(restaurantId, start, end));
+    }
+
+    /**
+     * Recalcula os contadores do restaurante a partir dos pedidos.
+     */
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(@PathVariable Long restaurantId) {
+        orderService.requireRestaurant(restaurantId);
+        return ResponseEntity.ok(Map.of("restaurantId", restaurantId, "rows", salesRollupService.rebuild(restaurantId)));
+    }
+}
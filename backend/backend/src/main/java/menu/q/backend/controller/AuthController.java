@@ -1,36 +1,40 @@
 package menu.q.backend.controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import menu.q.backend.data.dto.UserDTO;
+import menu.q.backend.exception.ServiceBusyException;
 import menu.q.backend.model.User;
 import menu.q.backend.security.JwtUtil;
 import menu.q.backend.service.UserService;
 
+/**
+ * Login e cadastro. Só o BCrypt (matches/encode) roda no executor do BoundedPasswordEncoder; com a fila
+ * cheia a resposta é 503 na hora.
+ */
 @RestController
 @RequestMapping("/api/auth")
-@SuppressWarnings("unused")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final JwtUtil jwtUtil;
-    private final PasswordEncoder passwordEncoder;
 
-    public AuthController(AuthenticationManager authenticationManager, UserService userService, JwtUtil jwtUtil, PasswordEncoder passwordEncoder) {
+    public AuthController(AuthenticationManager authenticationManager, UserService userService, JwtUtil jwtUtil) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
-        this.passwordEncoder = passwordEncoder;
     }
 
     record AuthRequest(String username, String password) {}
@@ -40,7 +44,7 @@ public class AuthController {
     public ResponseEntity<?> register(@RequestBody UserDTO dto) {
         try {
             User created = userService.createUser(dto);
-            String token = jwtUtil.generateToken(created.getUsername());
+            String token = jwtUtil.generateToken(created);
             return ResponseEntity.ok(new AuthResponse(token, created.getId(), created.getUsername(), created.getEmail()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -50,28 +54,22 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthRequest req) {
         try {
-            System.out.println("=== LOGIN ATTEMPT ===");
-            System.out.println("Username/Email: " + req.username());
-            System.out.println("Password: " + req.password());
-            
-            Authentication auth = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(req.username(), req.password())
             );
-            
-            System.out.println("Authentication successful!");
-            
+
             User user = userService.getUserByUsername(req.username());
-            String token = jwtUtil.generateToken(req.username());
-            
+            String token = jwtUtil.generateToken(user);
+
             return ResponseEntity.ok(new AuthResponse(token, user.getId(), user.getUsername(), user.getEmail()));
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(401).body("Usuário ou senha inválidos");
+        } catch (ServiceBusyException e) {
+            // Fila do BCrypt cheia: 503 pelo ApiExceptionHandler
+            throw e;
         } catch (Exception e) {
-            System.err.println("=== LOGIN ERROR ===");
-            System.err.println("Class: " + e.getClass().getName());
-            System.err.println("Message: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(500).body("Erro no servidor: " + e.getMessage());
+            log.error("Erro no login", e);
+            return ResponseEntity.status(500).body("Erro no servidor");
         }
     }
 }
@@ -0,0 +1,62 @@
+package menu.q.backend.controller;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import menu.q.backend.service.BlobStoreService;
+import menu.q.backend.service.BlobStoreService.Blob;
+import menu.q.backend.util.ImageValidator;
+
+/**
+ * Upload e download de imagens do blob store, sem carregar o arquivo inteiro em memória.
+ * O upload recebe o arquivo cru no corpo (Content-Type image/jpeg, image/png ou image/webp)
+ * e devolve o nome do blob, que pode ser usado como imagem de item ou capa de restaurante.
+ */
+@RestController
+@RequestMapping("/api/blobs")
+public class BlobController {
+
+    // O nome do blob é o hash do conteúdo: a URL nunca muda de conteúdo
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final BlobStoreService blobStoreService;
+    private final ImageValidator imageValidator;
+
+    public BlobController(BlobStoreService blobStoreService, ImageValidator imageValidator) {
+        this.blobStoreService = blobStoreService;
+        this.imageValidator = imageValidator;
+    }
+
+    @PostMapping(consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, "image/webp", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<Map<String, String>> upload(InputStream body) {
+        Blob blob = blobStoreService.store(body);
+        String url = imageValidator.blobUrl(blob.name());
+        return ResponseEntity.created(URI.create(url))
+                .body(Map.of("id", blob.name(), "url", url));
+    }
+
+    @GetMapping("/{name:.+}")
+    public ResponseEntity<Resource> download(@PathVariable String name) {
+        return blobStoreService.find(name)
+                .map(blob -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(blob.contentType()))
+                        .contentLength(blob.length())
+                        .eTag(blob.hash())
+                        .cacheControl(IMMUTABLE)
+                        .body((Resource) new FileSystemResource(blob.path())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.persistence.EntityManagerFactory;
+
 import java.util.Map;
 
 @RestController
@@ -24,6 +26,9 @@ public class DebugController {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @PostMapping("/fix-fk-final")
     public ResponseEntity<?> fixFkFinal() {
         try {
@@ -165,6 +170,8 @@ public class DebugController {
             jdbcTemplate.execute("TRUNCATE TABLE restaurants");
             jdbcTemplate.execute("TRUNCATE TABLE users");
             jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 1");
+            // TRUNCATE não passa pelo Hibernate: o cache de segundo nível ainda teria as linhas apagadas
+            entityManagerFactory.getCache().evictAll();
             
             System.out.println("Database cleaned");
             
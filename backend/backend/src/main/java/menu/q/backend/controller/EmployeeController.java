@@ -35,17 +35,19 @@ public class EmployeeController {
                 .orElseThrow(() -> new EntityNotFoundException("Restaurant not found"));
         
         Employee employee = new Employee(dto.getName(), dto.getRole(), dto.getImage(), restaurant);
-        return ResponseEntity.status(HttpStatus.CREATED).body(employeeRepository.save(employee));
+        Employee saved = employeeRepository.save(employee);
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
     @SuppressWarnings("null")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        if (employeeRepository.existsById(id)) {
-            employeeRepository.deleteById(id);
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.notFound().build();
+        return employeeRepository.findById(id)
+                .map(employee -> {
+                    employeeRepository.delete(employee);
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
@@ -60,6 +62,7 @@ public class EmployeeController {
             employee.setImage(dto.getImage());
         }
         
-        return ResponseEntity.ok(employeeRepository.save(employee));
+        Employee saved = employeeRepository.save(employee);
+        return ResponseEntity.ok(saved);
     }
 }
\ No newline at end of file
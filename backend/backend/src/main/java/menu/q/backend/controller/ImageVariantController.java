@@ -0,0 +1,173 @@
+package menu.q.backend.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import menu.q.backend.service.ImageVariantService;
+import menu.q.backend.service.ImageVariantService.Variant;
+import menu.q.backend.service.ImageVariantService.VariantFile;
+import menu.q.backend.util.ImageValidator;
+
+/**
+ * Variantes redimensionadas das imagens padrão.
+ * /default-images/{items|covers}/{largura}/{hash}/{arquivo} é imutável (o hash é do conteúdo) e fica
+ * em cache por um ano; /default-images/{items|covers}/{largura}/{arquivo} é revalidado pelo ETag.
+ * Os originais continuam em /default-images/{items|covers}/{arquivo}.
+ */
+@RestController
+public class ImageVariantController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    // Atributos do conector do Tomcat para enviar o arquivo com sendfile, sem passar pela JVM
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageVariantService imageVariantService;
+    private final ImageValidator imageValidator;
+
+    public ImageVariantController(ImageVariantService imageVariantService, ImageValidator imageValidator) {
+        this.imageVariantService = imageVariantService;
+        this.imageValidator = imageValidator;
+    }
+
+    @GetMapping("/default-images/{folder}/{width}/{hash}/{fileName:.+}")
+    public void getHashedVariant(@PathVariable String folder, @PathVariable int width, @PathVariable String hash,
+                                 @PathVariable String fileName,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        VariantFile file = lookup(folder, width, fileName);
+        if (file == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (!file.hash().equals(hash)) {
+            // URL gravada antes de a imagem mudar: manda para a versão atual, sem cache do redirecionamento
+            response.setStatus(HttpStatus.FOUND.value());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            response.setHeader(HttpHeaders.LOCATION,
+                    imageValidator.variantUrl(folder, Variant.ofWidth(width).orElseThrow(), fileName));
+            return;
+        }
+        serve(file, IMMUTABLE, request, response);
+    }
+
+    @GetMapping("/default-images/{folder}/{width}/{fileName:.+}")
+    public void getVariant(@PathVariable String folder, @PathVariable int width, @PathVariable String fileName,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        VariantFile file = lookup(folder, width, fileName);
+        if (file == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        serve(file, REVALIDATE, request, response);
+    }
+
+    private VariantFile lookup(String folder, int width, String fileName) {
+        return Variant.ofWidth(width)
+                .flatMap(variant -> imageVariantService.resolveFile(folder, fileName, variant))
+                .orElse(null);
+    }
+
+    /**
+     * Responde com ETag forte (hash do conteúdo), 304 para If-None-Match e 206 para um único intervalo em Range.
+     */
+    private void serve(VariantFile file, CacheControl cacheControl,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + file.hash() + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, file.lastModified())) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+
+        long length = file.length();
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = singleRange(request, etag);
+        if (range != null) {
+            if (length == 0 || !isSatisfiable(range, length)) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setContentLengthLong(0);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // Só um intervalo é atendido; vários intervalos (multipart/byteranges) recebem o arquivo inteiro.
+    // Com If-Range diferente do ETag atual, o cliente tem outra versão e também recebe o arquivo inteiro.
+    private static HttpRange singleRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length) <= range.getRangeEnd(length);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
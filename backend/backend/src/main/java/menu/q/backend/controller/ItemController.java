@@ -7,9 +7,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
-import java.util.stream.Collectors;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
@@ -28,7 +25,9 @@ import org.springframework.web.bind.annotation.RestController;
 import menu.q.backend.data.dto.ItemDto;
 import menu.q.backend.model.Item;
 import menu.q.backend.service.ItemService;
+import menu.q.backend.util.CursorPage;
 import menu.q.backend.util.ImageValidator;
+import menu.q.backend.util.LinkTemplates;
 
 @RestController
 @RequestMapping("/api")
@@ -37,10 +36,12 @@ public class ItemController {
     
     private final ItemService itemService;
     private final ImageValidator imageValidator;
+    private final LinkTemplates linkTemplates;
 
-    public ItemController(ItemService itemService, ImageValidator imageValidator) {
+    public ItemController(ItemService itemService, ImageValidator imageValidator, LinkTemplates linkTemplates) {
         this.itemService = itemService;
         this.imageValidator = imageValidator;
+        this.linkTemplates = linkTemplates;
     }
 
     @PostMapping("/items")
@@ -91,51 +92,45 @@ public class ItemController {
     }
 
     @GetMapping(value = "/users/{userId}/items", produces = MediaType.APPLICATION_JSON_VALUE)
-    @Operation(summary = "Lista todos os itens de um usuário", description = "Retorna uma lista de todos os itens do cardápio pertencentes a um usuário específico.")
+    @Operation(summary = "Lista todos os itens de um usuário", description = "Retorna os itens do cardápio pertencentes a um usuário específico, paginados por cursor (after/limit).")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Itens listados com sucesso"),
         @ApiResponse(responseCode = "404", description = "Usuário não encontrado", content = @Content)
     })
-    public ResponseEntity<List<ItemDto>> getItemsByUserId(@PathVariable Long userId, @RequestParam(required = false) String name) {
-        List<Item> items = itemService.getItemsByUserId(userId, name);
-        List<ItemDto> itemDtos = items.stream()
-                                      .map(this::convertToDto)
-                                      .peek(this::addLinks)
-                                      .collect(Collectors.toList());
-        return ResponseEntity.ok(itemDtos);
+    public ResponseEntity<List<ItemDto>> getItemsByUserId(@PathVariable Long userId, @RequestParam(required = false) String name,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer limit) {
+        CursorPage<ItemDto> page = itemService.getItemsByUserId(userId, name, after, CursorPage.clampLimit(limit));
+        linkTemplates.addItemLinks(page.items());
+        return page.toResponse();
     }
 
     @GetMapping(value = "/items/search", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Busca itens por nome", description = "Retorna itens cujo nome contenha o termo informado.")
     public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String name) {
-        List<Item> items = itemService.searchByName(name);
-        List<ItemDto> itemDtos = items.stream()
-                                      .map(this::convertToDto)
-                                      .peek(this::addLinks)
-                                      .collect(Collectors.toList());
+        List<ItemDto> itemDtos = itemService.searchByName(name);
+        linkTemplates.addItemLinks(itemDtos);
         return ResponseEntity.ok(itemDtos);
     }
 
     @GetMapping(value = "/restaurants/{restaurantId}/items", produces = MediaType.APPLICATION_JSON_VALUE)
-    @Operation(summary = "Lista itens por restaurante", description = "Retorna itens pertencentes a um restaurante.")
-    public ResponseEntity<List<ItemDto>> getByRestaurant(@PathVariable Long restaurantId) {
-        List<Item> items = itemService.getByRestaurantId(restaurantId);
-        List<ItemDto> itemDtos = items.stream()
-                                      .map(this::convertToDto)
-                                      .peek(this::addLinks)
-                                      .collect(Collectors.toList());
-        return ResponseEntity.ok(itemDtos);
+    @Operation(summary = "Lista itens por restaurante", description = "Retorna itens pertencentes a um restaurante, paginados por cursor (after/limit).")
+    public ResponseEntity<List<ItemDto>> getByRestaurant(@PathVariable Long restaurantId,
+                                                         @RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer limit) {
+        CursorPage<ItemDto> page = itemService.getByRestaurantId(restaurantId, after, CursorPage.clampLimit(limit));
+        linkTemplates.addItemLinks(page.items());
+        return page.toResponse();
     }
 
     @GetMapping(value = "/restaurants/{restaurantId}/items/featured", produces = MediaType.APPLICATION_JSON_VALUE)
-    @Operation(summary = "Lista itens em destaque por restaurante", description = "Retorna itens marcados como em alta de um restaurante.")
-    public ResponseEntity<List<ItemDto>> getFeaturedByRestaurant(@PathVariable Long restaurantId) {
-        List<Item> items = itemService.getFeaturedByRestaurantId(restaurantId);
-        List<ItemDto> itemDtos = items.stream()
-                                      .map(this::convertToDto)
-                                      .peek(this::addLinks)
-                                      .collect(Collectors.toList());
-        return ResponseEntity.ok(itemDtos);
+    @Operation(summary = "Lista itens em destaque por restaurante", description = "Retorna itens marcados como em alta de um restaurante, paginados por cursor (after/limit).")
+    public ResponseEntity<List<ItemDto>> getFeaturedByRestaurant(@PathVariable Long restaurantId,
+                                                                 @RequestParam(required = false) Long after,
+                                                                 @RequestParam(required = false) Integer limit) {
+        CursorPage<ItemDto> page = itemService.getFeaturedByRestaurantId(restaurantId, after, CursorPage.clampLimit(limit));
+        linkTemplates.addItemLinks(page.items());
+        return page.toResponse();
     }
 
     private ItemDto convertToDto(Item item) {
@@ -155,8 +150,6 @@ public class ItemController {
     }
 
     private void addLinks(ItemDto dto) {
-        dto.add(linkTo(methodOn(ItemController.class).getItemById(dto.getId())).withSelfRel());
-        dto.add(linkTo(methodOn(UserController.class).getUserById(dto.getUserId())).withRel("user"));
-        dto.add(linkTo(methodOn(ItemController.class).getItemsByUserId(dto.getUserId(), null)).withRel("user-items"));
+        linkTemplates.addItemLinks(dto);
     }
 }
\ No newline at end of file
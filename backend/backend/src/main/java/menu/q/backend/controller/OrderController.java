@@ -1,70 +1,256 @@
 package menu.q.backend.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+
+import menu.q.backend.data.dto.OrderDTO;
+import menu.q.backend.data.dto.OrderLineDto;
+import menu.q.backend.data.dto.TableBillDto;
 import menu.q.backend.model.Order;
 import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.OrderOutboxEvent;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.security.AuthenticatedUser;
+import menu.q.backend.security.ClientAddressResolver;
+import menu.q.backend.security.OrderTrackingTokens;
+import menu.q.backend.service.IdempotencyService;
+import menu.q.backend.service.IdempotencyService.StoredResponse;
+import menu.q.backend.service.OrderArchiveService;
+import menu.q.backend.service.OrderEventHub;
 import menu.q.backend.service.OrderService;
+import menu.q.backend.service.TableSessionService;
+import menu.q.backend.util.CursorPage;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderEventHub orderEventHub;
+    private final OrderTrackingTokens trackingTokens;
+    private final IdempotencyService idempotencyService;
+    private final OrderArchiveService orderArchiveService;
+    private final TableSessionService tableSessionService;
+    private final ClientAddressResolver clientAddress;
+    private final ObjectMapper objectMapper;
+    // Sem flush a cada pedido: o buffer da resposta decide quando enviar
+    private final ObjectWriter exportWriter;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderEventHub orderEventHub, OrderTrackingTokens trackingTokens,
+                           IdempotencyService idempotencyService, OrderArchiveService orderArchiveService,
+                           TableSessionService tableSessionService, ClientAddressResolver clientAddress,
+                           ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderEventHub = orderEventHub;
+        this.trackingTokens = trackingTokens;
+        this.idempotencyService = idempotencyService;
+        this.orderArchiveService = orderArchiveService;
+        this.tableSessionService = tableSessionService;
+        this.clientAddress = clientAddress;
+        this.objectMapper = objectMapper;
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     public static record CreateOrderItemDTO(Long itemId, Integer quantity) {}
     public static record CreateOrderDTO(Long userId, Long restaurantId, Integer tableNumber, List<CreateOrderItemDTO> items, String guestName) {}
-    public static record OrderItemDTO(Long id, String name, String price, Integer quantity) {}
-    public static record OrderDTO(Long id, Integer tableNumber, String guestName, String total, String status, List<OrderItemDTO> items, Long createdAt) {
-        public static OrderDTO fromOrder(Order order) {
-            List<OrderItemDTO> itemDTOs = order.getItems().stream()
-                .map(oi -> new OrderItemDTO(oi.getId(), oi.getName(), oi.getPrice().toString(), oi.getQuantity()))
-                .toList();
-            return new OrderDTO(
-                order.getId(),
-                order.getTableNumber(),
-                order.getGuestName(),
-                order.getTotal().toString(),
-                order.getStatus().toString(),
-                itemDTOs,
-                order.getCreatedAt() != null ? order.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L
-            );
+    public static record UpdateStatusDTO(OrderStatus status) {}
+
+    /**
+     * Com o cabeçalho Idempotency-Key, repetições do mesmo pedido (retry do front após timeout ou 5xx)
+     * recebem a resposta original em vez de criar outro pedido. A chave vale só para quem a enviou:
+     * o usuário autenticado ou, no pedido de convidado, o endereço do cliente.
+     */
+    @PostMapping
+    public ResponseEntity<?> createOrder(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                         @RequestBody CreateOrderDTO dto, HttpServletRequest request) throws IOException {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(201).body(create(dto));
         }
+        IdempotencyService.Result result = idempotencyService.execute("orders:" + caller(request), idempotencyKey, objectMapper.writeValueAsBytes(dto),
+                () -> {
+                    try {
+                        return new StoredResponse(201, objectMapper.writeValueAsBytes(create(dto)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.status(result.response().status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.REPLAYED_HEADER, Boolean.toString(result.replayed()))
+                .body(result.response().body());
     }
 
-    @PostMapping
-    public ResponseEntity<Map<String, Object>> createOrder(@RequestBody CreateOrderDTO dto) {
+    private String caller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return "ip:" + clientAddress.resolve(request);
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return "user:" + user.id();
+        }
+        // Token legado sem id: o username também é único
+        return "username:" + authentication.getName();
+    }
+
+    private Map<String, Object> create(CreateOrderDTO dto) {
         Order created = orderService.createOrder(dto.userId, dto.restaurantId, dto.tableNumber, dto.guestName, dto.items.stream().map(i -> new OrderService.OrderItemRequest(i.itemId, i.quantity)).toList());
-        return ResponseEntity.status(201).body(Map.of("order", OrderDTO.fromOrder(created)));
+        // trackingToken permite ao convidado acompanhar o pedido em /api/public/orders/{id}/events
+        return Map.of("order", OrderDTO.fromOrder(created), "trackingToken", trackingTokens.issue(created.getId()));
     }
 
+    // Pedido fora de orders pode ter sido arquivado: só então consulta o arquivo
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getById(@PathVariable Long id) {
-        Order order = orderService.getById(id);
-        return ResponseEntity.ok(OrderDTO.fromOrder(order));
+        try {
+            return ResponseEntity.ok(OrderDTO.fromOrder(orderService.getById(id)));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.ok(orderArchiveService.findById(id).orElseThrow(() -> e));
+        }
+    }
+
+    /**
+     * Muda o status do pedido (PENDING -> CONFIRMED -> COMPLETED, ou CANCELLED antes de concluir).
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<Map<String, Object>> updateStatus(@PathVariable Long id, @RequestBody UpdateStatusDTO dto) {
+        OrderService.StatusChange change = orderService.changeStatus(id, dto.status());
+        return ResponseEntity.ok(Map.of("id", change.orderId(), "status", change.to().toString(), "version", change.version()));
+    }
+
+    /**
+     * Outbox do restaurante: mudanças de status em ordem de id, para consumidores que acompanham
+     * os pedidos sem consultar a tabela orders. Passe em after o último id já processado.
+     * Cada mudança é entregue uma vez e em ordem; as mais recentes podem ficar para a próxima chamada
+     * enquanto uma transação anterior não confirma (até app.orders.outbox.gap-timeout). Linhas mais velhas que
+     * app.orders.outbox.retention são apagadas: um cursor parado há mais tempo deve recarregar a listagem.
+     */
+    @GetMapping("/restaurant/{restaurantId}/changes")
+    public ResponseEntity<List<OrderOutboxEvent>> getChanges(@PathVariable Long restaurantId,
+                                                             @RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer limit) {
+        return orderService.getChanges(restaurantId, after, CursorPage.clampLimit(limit)).toResponse();
     }
 
+    // Listagens do mais novo para o mais antigo: before é o menor id já recebido, e a próxima página
+    // vem no cabeçalho X-Next-Cursor
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderDTO>> getByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(orderService.getByBuyer(userId).stream().map(OrderDTO::fromOrder).toList());
+    public ResponseEntity<List<OrderDTO>> getByUser(@PathVariable Long userId,
+                                                    @RequestParam(required = false) Long before,
+                                                    @RequestParam(required = false) Integer limit) {
+        return orderService.getByBuyer(userId, before, CursorPage.clampLimit(limit)).map(OrderDTO::fromOrder).toResponse(CursorPage.BEFORE);
     }
 
     @GetMapping("/restaurant/{restaurantId}")
-    public ResponseEntity<List<OrderDTO>> getByRestaurant(@PathVariable Long restaurantId) {
-        return ResponseEntity.ok(orderService.getByRestaurant(restaurantId).stream().map(OrderDTO::fromOrder).toList());
+    public ResponseEntity<List<OrderDTO>> getByRestaurant(@PathVariable Long restaurantId,
+                                                          @RequestParam(required = false) Long before,
+                                                          @RequestParam(required = false) Integer limit) {
+        return orderService.getByRestaurant(restaurantId, before, CursorPage.clampLimit(limit)).map(OrderDTO::fromOrder).toResponse(CursorPage.BEFORE);
+    }
+
+    /**
+     * Conta aberta da mesa: total e linhas somados de todos os pedidos desde a abertura.
+     */
+    @GetMapping("/restaurant/{restaurantId}/tables/{tableNumber}/bill")
+    public ResponseEntity<TableBillDto> getTableBill(@PathVariable Long restaurantId, @PathVariable Integer tableNumber) {
+        return ResponseEntity.ok(tableSessionService.currentBill(restaurantId, tableNumber));
+    }
+
+    /**
+     * Fecha a conta da mesa no pagamento e devolve os valores finais.
+     */
+    @PostMapping("/restaurant/{restaurantId}/tables/{tableNumber}/close")
+    public ResponseEntity<TableBillDto> closeTable(@PathVariable Long restaurantId, @PathVariable Integer tableNumber) {
+        return ResponseEntity.ok(tableSessionService.close(restaurantId, tableNumber));
+    }
+
+    /**
+     * Histórico arquivado (pedidos mais velhos que app.orders.archive.max-age), com a mesma paginação das listagens.
+     * Mais lento que as listagens: cada pedido é descomprimido na leitura.
+     */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<List<OrderDTO>> getHistoryByUser(@PathVariable Long userId,
+                                                           @RequestParam(required = false) Long before,
+                                                           @RequestParam(required = false) Integer limit) {
+        return orderArchiveService.getByBuyer(userId, before, CursorPage.clampLimit(limit)).toResponse(CursorPage.BEFORE);
+    }
+
+    @GetMapping("/restaurant/{restaurantId}/history")
+    public ResponseEntity<List<OrderDTO>> getHistoryByRestaurant(@PathVariable Long restaurantId,
+                                                                 @RequestParam(required = false) Long before,
+                                                                 @RequestParam(required = false) Integer limit) {
+        return orderArchiveService.getByRestaurant(restaurantId, before, CursorPage.clampLimit(limit)).toResponse(CursorPage.BEFORE);
+    }
+
+    /**
+     * Pedidos novos e mudanças de status do restaurante via Server-Sent Events, no lugar de recarregar a listagem.
+     * Ao reconectar, o navegador manda Last-Event-ID e recebe o que perdeu; "reset" pede uma recarga completa.
+     */
+    @GetMapping(value = "/restaurant/{restaurantId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamByRestaurant(@PathVariable Long restaurantId,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        orderService.requireRestaurant(restaurantId);
+        return orderEventHub.subscribeRestaurant(restaurantId, lastEventId);
+    }
+
+    /**
+     * Todos os pedidos do restaurante em um único array JSON, escrito pedido a pedido enquanto as linhas
+     * chegam do banco. A memória usada não cresce com o número de pedidos.
+     * Os arquivados vêm no fim (são os mais antigos); archived=false exporta só os de orders.
+     */
+    @GetMapping(value = "/restaurant/{restaurantId}/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByRestaurant(@PathVariable Long restaurantId,
+                                                                    @RequestParam(defaultValue = "true") boolean archived) {
+        // Validado antes do stream: depois do primeiro byte não dá mais para responder com erro
+        orderService.requireRestaurant(restaurantId);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = exportWriter.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                Consumer<OrderDTO> write = order -> {
+                    try {
+                        exportWriter.writeValue(json, order);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+                OrderLineGrouper grouper = new OrderLineGrouper(write);
+                orderService.forEachLineByRestaurant(restaurantId, grouper);
+                grouper.finish();
+                if (archived) {
+                    orderArchiveService.forEachByRestaurant(restaurantId, write);
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -72,4 +258,31 @@ public class OrderController {
         orderService.deleteOrder(id);
         return ResponseEntity.ok(Map.of("message", "Pedido removido com sucesso"));
     }
+
+    /**
+     * Junta as linhas consecutivas de um mesmo pedido e entrega um OrderDTO por vez.
+     */
+    private static final class OrderLineGrouper implements Consumer<OrderLineDto> {
+        private final Consumer<OrderDTO> downstream;
+        private final List<OrderLineDto> current = new ArrayList<>();
+
+        OrderLineGrouper(Consumer<OrderDTO> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void accept(OrderLineDto line) {
+            if (!current.isEmpty() && !current.get(0).orderId().equals(line.orderId())) {
+                finish();
+            }
+            current.add(line);
+        }
+
+        void finish() {
+            if (!current.isEmpty()) {
+                downstream.accept(OrderDTO.fromLines(current));
+                current.clear();
+            }
+        }
+    }
 }
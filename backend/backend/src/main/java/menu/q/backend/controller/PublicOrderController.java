@@ -0,0 +1,47 @@
+package menu.q.backend.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import menu.q.backend.model.Order;
+import menu.q.backend.security.OrderTrackingTokens;
+import menu.q.backend.service.OrderEventHub;
+import menu.q.backend.service.OrderEventHub.OrderStatusEvent;
+import menu.q.backend.service.OrderService;
+
+@RestController
+@RequestMapping("/api/public/orders")
+public class PublicOrderController {
+
+    private final OrderService orderService;
+    private final OrderEventHub orderEventHub;
+    private final OrderTrackingTokens trackingTokens;
+
+    public PublicOrderController(OrderService orderService, OrderEventHub orderEventHub, OrderTrackingTokens trackingTokens) {
+        this.orderService = orderService;
+        this.orderEventHub = orderEventHub;
+        this.trackingTokens = trackingTokens;
+    }
+
+    /**
+     * Status do pedido do convidado, sem login: o token é o trackingToken devolvido na criação do pedido.
+     * O primeiro evento traz o status atual; os seguintes, cada mudança.
+     */
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrder(@PathVariable Long orderId,
+                                  @RequestParam String token,
+                                  @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (!trackingTokens.verify(orderId, token)) {
+            throw new IllegalArgumentException("Token de acompanhamento inválido");
+        }
+        Order order = orderService.getById(orderId);
+        return orderEventHub.subscribeOrder(order.getRestaurant().getId(), orderId, lastEventId,
+                new OrderStatusEvent(orderId, order.getStatus().toString()));
+    }
+}
@@ -1,10 +1,12 @@
 package menu.q.backend.controller;
 
 import jakarta.persistence.EntityNotFoundException;
+import menu.q.backend.data.dto.EmployeeSummaryDto;
 import menu.q.backend.data.dto.RestaurantDto;
-import menu.q.backend.model.Employee;
+import menu.q.backend.data.dto.RestaurantSummaryDto;
 import menu.q.backend.model.Restaurant;
 import menu.q.backend.service.RestaurantService;
+import menu.q.backend.util.CursorPage;
 import menu.q.backend.util.ImageValidator;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
@@ -25,8 +27,9 @@ public class RestaurantController {
     }
 
     @GetMapping
-    public List<Restaurant> getAll() {
-        return restaurantService.getAllRestaurants();
+    public ResponseEntity<List<RestaurantSummaryDto>> getAll(@RequestParam(required = false) Long after,
+                                                   @RequestParam(required = false) Integer limit) {
+        return restaurantService.getRestaurantsPage(after, CursorPage.clampLimit(limit)).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -39,7 +42,7 @@ public class RestaurantController {
     }
 
     @GetMapping("/owner/{ownerId}")
-    public ResponseEntity<Restaurant> getByOwnerId(@PathVariable Long ownerId) {
+    public ResponseEntity<RestaurantSummaryDto> getByOwnerId(@PathVariable Long ownerId) {
         try {
             return ResponseEntity.ok(restaurantService.getRestaurantByOwner(ownerId));
         } catch (EntityNotFoundException e) {
@@ -60,7 +63,7 @@ public class RestaurantController {
     }
 
     @GetMapping("/{id}/employees")
-    public ResponseEntity<List<Employee>> getEmployees(@PathVariable Long id) {
+    public ResponseEntity<List<EmployeeSummaryDto>> getEmployees(@PathVariable Long id) {
         return ResponseEntity.ok(restaurantService.getEmployeesByRestaurant(id));
     }
 }
\ No newline at end of file
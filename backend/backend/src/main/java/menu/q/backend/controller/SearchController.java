@@ -0,0 +1,48 @@
+package menu.q.backend.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.service.SearchIndexService;
+import menu.q.backend.util.LinkTemplates;
+
+@RestController
+@RequestMapping("/api/search")
+@Tag(name = "Busca", description = "Busca de itens e restaurantes")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final SearchIndexService searchIndexService;
+    private final LinkTemplates linkTemplates;
+
+    public SearchController(SearchIndexService searchIndexService, LinkTemplates linkTemplates) {
+        this.searchIndexService = searchIndexService;
+        this.linkTemplates = linkTemplates;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Busca itens e restaurantes", description = "Ignora acentos e maiúsculas; os termos casam como prefixo (busca enquanto digita).")
+    public ResponseEntity<Map<String, Object>> search(@RequestParam("q") String query,
+                                                      @RequestParam(required = false) Long restaurantId,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        int bounded = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<ItemDto> items = searchIndexService.searchItems(query, restaurantId, bounded);
+        linkTemplates.addItemLinks(items);
+        // Busca dentro de um cardápio não retorna restaurantes
+        List<SearchIndexService.RestaurantMatch> restaurants = restaurantId == null
+                ? searchIndexService.searchRestaurants(query, bounded)
+                : List.of();
+        return ResponseEntity.ok(Map.of("items", items, "restaurants", restaurants));
+    }
+}
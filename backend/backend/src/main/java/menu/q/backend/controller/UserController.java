@@ -5,16 +5,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import menu.q.backend.data.dto.UserDTO;
 import menu.q.backend.model.User;
 import menu.q.backend.service.UserService;
+import menu.q.backend.util.CursorPage;
+import menu.q.backend.util.LinkTemplates;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 import java.util.Optional;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,30 +21,39 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserService userService;
+    private final LinkTemplates linkTemplates;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, LinkTemplates linkTemplates) {
         this.userService = userService;
+        this.linkTemplates = linkTemplates;
     }
 
     @GetMapping
-    @Operation(summary = "Lista todos os usuários")
-    public ResponseEntity<List<EntityModel<UserDTO>>> getAllUsers() {
-        List<User> users = userService.getAllUsers(null);
-        List<EntityModel<UserDTO>> usersDtos = users.stream()
-                .map(user -> addLinks(convertToDto(user)))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(usersDtos);
+    @Operation(summary = "Lista os usuários", description = "Paginado por cursor: use o cabeçalho X-Next-Cursor como parâmetro after da próxima página. "
+            + "Com username, só os usuários cujo nome começa com o texto (match=contains: que contém), em ordem de nome.")
+    public ResponseEntity<List<EntityModel<UserDTO>>> getAllUsers(@RequestParam(required = false) Long after,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) String username,
+                                                                  @RequestParam(defaultValue = "prefix") String match) {
+        String base = linkTemplates.currentBaseUri();
+        int pageSize = CursorPage.clampLimit(limit);
+        CursorPage<UserDTO> page;
+        if (username != null) {
+            if (!match.equals("prefix") && !match.equals("contains")) {
+                throw new IllegalArgumentException("match deve ser prefix ou contains");
+            }
+            page = userService.searchUsers(username, match.equals("contains"), after, pageSize);
+        } else {
+            page = userService.getUsersPage(after, pageSize);
+        }
+        return page.map(dto -> addLinks(dto, base)).toResponse();
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Busca um usuário pelo ID")
     public ResponseEntity<EntityModel<UserDTO>> getUserById(@PathVariable Long id) {
-        return Optional.ofNullable(userService.getUserById(id))
-                .map(user -> {
-                    UserDTO dto = convertToDto(user);
-                    EntityModel<UserDTO> model = addLinks(dto);
-                    return ResponseEntity.ok(model);
-                })
+        return Optional.ofNullable(userService.getUserSummary(id))
+                .map(dto -> ResponseEntity.ok(addLinks(dto)))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -76,10 +84,14 @@ public class UserController {
         return dto;
     }
 
-    @SuppressWarnings("null")
     private EntityModel<UserDTO> addLinks(UserDTO dto) {
+        return addLinks(dto, linkTemplates.currentBaseUri());
+    }
+
+    @SuppressWarnings("null")
+    private EntityModel<UserDTO> addLinks(UserDTO dto, String base) {
         EntityModel<UserDTO> model = EntityModel.of(dto);
-        model.add(linkTo(methodOn(UserController.class).getUserById(dto.getId())).withSelfRel());
+        linkTemplates.addUserLinks(model, dto.getId(), base);
         return model;
     }
 
@@ -0,0 +1,13 @@
+package menu.q.backend.data.dto;
+
+import menu.q.backend.model.Employee;
+
+/**
+ * Funcionário na listagem do restaurante: mesmos campos do JSON da entidade.
+ */
+public record EmployeeSummaryDto(Long id, String name, String role, String image) {
+
+    public static EmployeeSummaryDto of(Employee employee) {
+        return new EmployeeSummaryDto(employee.getId(), employee.getName(), employee.getRole(), employee.getImage());
+    }
+}
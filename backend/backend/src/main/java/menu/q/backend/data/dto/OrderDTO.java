@@ -0,0 +1,52 @@
+package menu.q.backend.data.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import menu.q.backend.model.Order;
+
+/**
+ * Pedido como sai da API, dos eventos SSE e do arquivo de pedidos antigos. Valores em texto, data em epoch millis.
+ */
+public record OrderDTO(Long id, Integer tableNumber, String guestName, String total, String status, List<OrderItemDTO> items, Long createdAt) {
+
+    public record OrderItemDTO(Long id, String name, String price, Integer quantity) {}
+
+    public static OrderDTO fromOrder(Order order) {
+        List<OrderItemDTO> itemDTOs = order.getItems().stream()
+            .map(oi -> new OrderItemDTO(oi.getId(), oi.getName(), oi.getPrice().toString(), oi.getQuantity()))
+            .toList();
+        return new OrderDTO(
+            order.getId(),
+            order.getTableNumber(),
+            order.getGuestName(),
+            order.getTotal().toString(),
+            order.getStatus().toString(),
+            itemDTOs,
+            epochMillis(order.getCreatedAt())
+        );
+    }
+
+    // Linhas de um mesmo pedido, como devolvidas pela exportação
+    public static OrderDTO fromLines(List<OrderLineDto> lines) {
+        OrderLineDto first = lines.get(0);
+        List<OrderItemDTO> itemDTOs = lines.stream()
+            .filter(line -> line.itemId() != null)
+            .map(line -> new OrderItemDTO(line.itemId(), line.itemName(), line.itemPrice().toString(), line.quantity()))
+            .toList();
+        return new OrderDTO(
+            first.orderId(),
+            first.tableNumber(),
+            first.guestName(),
+            first.total().toString(),
+            first.status().toString(),
+            itemDTOs,
+            epochMillis(first.createdAt())
+        );
+    }
+
+    private static Long epochMillis(LocalDateTime createdAt) {
+        return createdAt != null ? createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+}
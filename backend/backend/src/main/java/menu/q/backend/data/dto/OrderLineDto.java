@@ -0,0 +1,13 @@
+package menu.q.backend.data.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import menu.q.backend.model.OrderStatus;
+
+/**
+ * Uma linha da exportação de pedidos: os dados do pedido repetidos em cada um dos seus itens.
+ * Os campos do item são nulos para pedidos sem itens.
+ */
+public record OrderLineDto(Long orderId, Integer tableNumber, String guestName, BigDecimal total, OrderStatus status,
+                           LocalDateTime createdAt, Long itemId, String itemName, BigDecimal itemPrice, Integer quantity) {}
@@ -0,0 +1,29 @@
+package menu.q.backend.data.dto;
+
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+
+/**
+ * Restaurante na listagem: mesmos campos do JSON da entidade, montados por projeção.
+ */
+public record RestaurantSummaryDto(Long id, String name, String description, String cover,
+                                   String visibleCategories, Integer tableCount, Owner owner) {
+
+    public record Owner(Long id, String username, String email, String avatar) {}
+
+    // Construtor usado pela consulta JPQL (o dono vem achatado no mesmo SELECT)
+    public RestaurantSummaryDto(Long id, String name, String description, String cover,
+                                String visibleCategories, Integer tableCount,
+                                Long ownerId, String ownerUsername, String ownerEmail, String ownerAvatar) {
+        this(id, name, description, cover, visibleCategories, tableCount,
+                ownerId != null ? new Owner(ownerId, ownerUsername, ownerEmail, ownerAvatar) : null);
+    }
+
+    // Cópia da entidade já carregada, para guardar em cache sem prender a entidade gerenciada
+    public static RestaurantSummaryDto of(Restaurant restaurant) {
+        User owner = restaurant.getOwner();
+        return new RestaurantSummaryDto(restaurant.getId(), restaurant.getName(), restaurant.getDescription(),
+                restaurant.getCover(), restaurant.getVisibleCategories(), restaurant.getTableCount(),
+                owner != null ? new Owner(owner.getId(), owner.getUsername(), owner.getEmail(), owner.getAvatar()) : null);
+    }
+}
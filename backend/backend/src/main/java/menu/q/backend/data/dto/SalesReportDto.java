@@ -0,0 +1,19 @@
+package menu.q.backend.data.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Vendas do restaurante no período, lidas dos contadores por hora (sem consultar os pedidos).
+ * Itens ordenados pela receita, do maior para o menor.
+ */
+public record SalesReportDto(Long restaurantId, LocalDateTime from, LocalDateTime to, Totals totals,
+                             List<HourSales> hours, List<ItemSales> items) {
+
+    public record Totals(long quantity, BigDecimal revenue, long orders) {}
+
+    public record HourSales(LocalDateTime hour, long quantity, BigDecimal revenue, long orders) {}
+
+    public record ItemSales(Long itemId, String name, long quantity, BigDecimal revenue, long orders) {}
+}
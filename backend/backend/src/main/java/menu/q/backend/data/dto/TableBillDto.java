@@ -0,0 +1,24 @@
+package menu.q.backend.data.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import menu.q.backend.model.TableSession;
+
+/**
+ * Conta da mesa como mantida pela sessão: total e linhas já somados, sem consultar os pedidos.
+ */
+public record TableBillDto(Long sessionId, Long restaurantId, Integer tableNumber, LocalDateTime openedAt,
+                           LocalDateTime closedAt, BigDecimal total, int orderCount, List<Line> lines) {
+
+    public record Line(Long itemId, String name, BigDecimal price, int quantity, BigDecimal amount) {}
+
+    public static TableBillDto from(TableSession session) {
+        List<Line> lines = session.getLines().stream()
+                .map(line -> new Line(line.getItemId(), line.getName(), line.getPrice(), line.getQuantity(), line.getAmount()))
+                .toList();
+        return new TableBillDto(session.getId(), session.getRestaurantId(), session.getTableNumber(), session.getOpenedAt(),
+                session.getClosedAt(), session.getTotal(), session.getOrderCount(), lines);
+    }
+}
@@ -0,0 +1,11 @@
+package menu.q.backend.exception;
+
+/**
+ * Trabalho recusado porque a fila do executor está cheia; o cliente deve tentar de novo em instantes (503).
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
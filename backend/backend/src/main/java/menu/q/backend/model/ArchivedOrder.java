@@ -0,0 +1,78 @@
+package menu.q.backend.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * Pedido antigo fora das tabelas orders/order_items. Só é inserido, nunca alterado: os itens e o resto
+ * do pedido ficam em payload, como JSON comprimido com gzip. As colunas soltas são as usadas nos filtros.
+ */
+@Entity
+@Table(name = "archived_orders", indexes = {
+        @Index(name = "idx_archived_orders_restaurant", columnList = "restaurant_id, id"),
+        @Index(name = "idx_archived_orders_buyer", columnList = "user_id, id")
+})
+public class ArchivedOrder {
+    // Mesmo id do pedido original
+    @Id
+    private Long id;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Column(name = "user_id")
+    private Long buyerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private OrderStatus status;
+
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Lob
+    @Column(nullable = false, length = 1_000_000)
+    private byte[] payload;
+
+    // Com id atribuído, a versão nula é o que faz o save() inserir sem consultar antes
+    @Version
+    private Long version;
+
+    public ArchivedOrder() {}
+
+    public ArchivedOrder(Long id, Long restaurantId, Long buyerId, OrderStatus status, BigDecimal total,
+                         LocalDateTime createdAt, LocalDateTime archivedAt, byte[] payload) {
+        this.id = id;
+        this.restaurantId = restaurantId;
+        this.buyerId = buyerId;
+        this.status = status;
+        this.total = total;
+        this.createdAt = createdAt;
+        this.archivedAt = archivedAt;
+        this.payload = payload;
+    }
+
+    public Long getId() { return id; }
+    public Long getRestaurantId() { return restaurantId; }
+    public Long getBuyerId() { return buyerId; }
+    public OrderStatus getStatus() { return status; }
+    public BigDecimal getTotal() { return total; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public byte[] getPayload() { return payload; }
+}
@@ -0,0 +1,57 @@
+package menu.q.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import menu.q.backend.config.EntityChange;
+
+/**
+ * Mudança de entidade publicada por um nó (OutboxInvalidationTransport). Os outros nós leem a tabela
+ * em ordem de id e descartam dos próprios caches; as linhas são apagadas depois de app.cache.invalidation.retention.
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = @Index(name = "idx_cache_invalidations_created", columnList = "created_at"))
+public class CacheInvalidationEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Nó que publicou: ele mesmo ignora a linha
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityChange.Type type;
+
+    private Long entityId;
+
+    private Long parentId;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public CacheInvalidationEvent() {}
+
+    public CacheInvalidationEvent(String origin, EntityChange change) {
+        this.origin = origin;
+        this.type = change.type();
+        this.entityId = change.id();
+        this.parentId = change.parentId();
+    }
+
+    public Long getId() { return id; }
+    public String getOrigin() { return origin; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public EntityChange toChange() {
+        return new EntityChange(type, entityId, parentId);
+    }
+}
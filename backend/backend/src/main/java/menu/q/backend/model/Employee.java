@@ -1,9 +1,17 @@
 package menu.q.backend.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import menu.q.backend.config.CacheInvalidationListener;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@Cacheable
+// Só exibido no cardápio: uma leitura antiga durante a escrita não faz mal, e sem trava a escrita é mais barata
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Table(name = "employees")
 public class Employee {
     @Id
@@ -0,0 +1,58 @@
+package menu.q.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * Resposta guardada para uma Idempotency-Key, compartilhada entre instâncias (app.idempotency.shared).
+ * Sem status, a chave está reservada por uma requisição ainda em andamento.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+    // Escopo do chamador + ":" + a chave do cliente (até 200 caracteres)
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private Integer status;
+
+    @Lob
+    @Column(length = 1_000_000)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Com id atribuído, a versão nula é o que faz o save() inserir (e falhar se a chave já existe)
+    @Version
+    private Long version;
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String key, String fingerprint, LocalDateTime expiresAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getKey() { return key; }
+    public String getFingerprint() { return fingerprint; }
+    public Integer getStatus() { return status; }
+    public byte[] getBody() { return body; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+
+    public void complete(int status, byte[] body) {
+        this.status = status;
+        this.body = body;
+    }
+}
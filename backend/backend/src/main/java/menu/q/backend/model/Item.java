@@ -2,9 +2,14 @@ package menu.q.backend.model;
 
 import java.math.BigDecimal;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -12,9 +17,13 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import jakarta.persistence.Lob;
+import menu.q.backend.config.CacheInvalidationListener;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@Cacheable
+// O preço vai para os pedidos: READ_WRITE trava a entrada durante a escrita e nunca serve o valor anterior ao commit
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "items")
 public class Item {
 
@@ -30,8 +39,8 @@ public class Item {
     @Column(nullable = false)
     private BigDecimal price;
 
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
+    // Só a URL da imagem; o conteúdo enviado fica no blob store
+    @Column(length = 512)
     private String image;
 
     private String category;
@@ -12,13 +12,15 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at", columnList = "created_at"))
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -48,6 +50,15 @@ public class Order {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Conta da mesa em que o pedido foi somado (nulo sem mesa)
+    @Column(name = "table_session_id")
+    private Long tableSessionId;
+
+    // Controle otimista: mudanças de status concorrentes não travam a linha, a perdedora refaz
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public Order() {}
 
     public Long getId() { return id; }
@@ -67,6 +78,9 @@ public class Order {
     public void setGuestName(String guestName) { this.guestName = guestName; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public Long getTableSessionId() { return tableSessionId; }
+    public void setTableSessionId(Long tableSessionId) { this.tableSessionId = tableSessionId; }
+    public long getVersion() { return version; }
 
     public void addItem(OrderItem item) {
         items.add(item);
@@ -4,8 +4,6 @@ import java.math.BigDecimal;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -14,8 +12,9 @@ import jakarta.persistence.Table;
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
+    // Gerado na aplicação para que os itens de um pedido sejam inseridos num único lote JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Tsid
     private Long id;
 
     private Long itemId;
@@ -0,0 +1,72 @@
+package menu.q.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Linha do outbox de pedidos: gravada na mesma transação que muda o status do pedido,
+ * para que painéis e caches acompanhem as mudanças lendo só esta tabela, em ordem de id.
+ * createdAt é a hora do INSERT, usada para decidir se um buraco nos ids ainda pode ser preenchido e para
+ * apagar as linhas que passaram da retenção (OrderOutboxCleanupService).
+ */
+@Entity
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_restaurant", columnList = "restaurant_id, id"),
+        @Index(name = "idx_order_outbox_created", columnList = "created_at")
+})
+public class OrderOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OrderStatus toStatus;
+
+    // Versão do pedido depois da mudança
+    private Long orderVersion;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public OrderOutboxEvent() {}
+
+    public OrderOutboxEvent(Long orderId, Long restaurantId, String type, OrderStatus fromStatus, OrderStatus toStatus, Long orderVersion) {
+        this.orderId = orderId;
+        this.restaurantId = restaurantId;
+        this.type = type;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.orderVersion = orderVersion;
+    }
+
+    public Long getId() { return id; }
+    public Long getOrderId() { return orderId; }
+    public Long getRestaurantId() { return restaurantId; }
+    public String getType() { return type; }
+    public OrderStatus getFromStatus() { return fromStatus; }
+    public OrderStatus getToStatus() { return toStatus; }
+    public Long getOrderVersion() { return orderVersion; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
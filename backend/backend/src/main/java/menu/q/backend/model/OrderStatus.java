@@ -1,8 +1,21 @@
 package menu.q.backend.model;
 
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
     COMPLETED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Transições permitidas: PENDING -> CONFIRMED -> COMPLETED, e cancelamento enquanto não concluído.
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return switch (this) {
+            case PENDING -> Set.of(CONFIRMED, CANCELLED).contains(target);
+            case CONFIRMED -> Set.of(COMPLETED, CANCELLED).contains(target);
+            case COMPLETED, CANCELLED -> false;
+        };
+    }
 }
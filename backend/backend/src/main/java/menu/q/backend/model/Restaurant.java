@@ -3,19 +3,31 @@ package menu.q.backend.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import menu.q.backend.config.CacheInvalidationListener;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "restaurants")
 public class Restaurant {
     @Id
@@ -27,8 +39,8 @@ public class Restaurant {
 
     private String description;
 
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
+    // Só a URL da imagem; o conteúdo enviado fica no blob store
+    @Column(length = 512)
     private String cover;
 
     private String visibleCategories;
@@ -36,6 +48,7 @@ public class Restaurant {
     @Column(nullable = false)
     private Integer tableCount = 10; // Número de mesas do restaurante (padrão: 10)
 
+    // Fora do cache de segundo nível: o Hibernate não invalida a coleção quando um Item é criado ou apagado
     @OneToMany(mappedBy = "restaurant")
     @JsonIgnore
     private List<Item> items = new ArrayList<>();
@@ -44,8 +57,21 @@ public class Restaurant {
     @JoinColumn(name = "owner_id")
     private User owner;
 
+    // Dono gravado no banco, para a troca de dono invalidar também o cache do anterior (CacheInvalidationListener)
+    @Transient
+    @JsonIgnore
+    private Long storedOwnerId;
+
     public Restaurant() {}
 
+    // Chamado depois dos @EntityListeners: no @PostUpdate deles ainda vale o dono anterior
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberStoredOwner() {
+        storedOwnerId = owner != null ? owner.getId() : null;
+    }
+
     public Restaurant(Long id, String name, String description) {
         this.id = id;
         this.name = name;
@@ -115,4 +141,8 @@ public class Restaurant {
     public void setOwner(User owner) {
         this.owner = owner;
     }
+
+    public Long getStoredOwnerId() {
+        return storedOwnerId;
+    }
 }
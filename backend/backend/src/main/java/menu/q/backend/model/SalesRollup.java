@@ -0,0 +1,57 @@
+package menu.q.backend.model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * Vendas agregadas por restaurante, item e hora. Mantido incrementalmente pelo SalesRollupService;
+ * pedidos cancelados não entram.
+ */
+@Entity
+@Table(name = "sales_rollups")
+public class SalesRollup {
+    @EmbeddedId
+    private SalesRollupId id;
+
+    // Nome do item como estava no pedido mais recente (o painel não consulta a tabela items)
+    private String itemName;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long orders;
+
+    // Com id atribuído, a versão nula faz o save() inserir; também protege flushes concorrentes
+    @Version
+    private Long version;
+
+    public SalesRollup() {}
+
+    public SalesRollup(SalesRollupId id) {
+        this.id = id;
+    }
+
+    public SalesRollupId getId() { return id; }
+    public String getItemName() { return itemName; }
+    public long getQuantity() { return quantity; }
+    public BigDecimal getRevenue() { return revenue; }
+    public long getOrders() { return orders; }
+
+    public void add(String itemName, long quantity, BigDecimal revenue, long orders) {
+        if (itemName != null) {
+            this.itemName = itemName;
+        }
+        this.quantity += quantity;
+        this.revenue = this.revenue.add(revenue);
+        this.orders += orders;
+    }
+}
@@ -0,0 +1,51 @@
+package menu.q.backend.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Chave de um contador de vendas: restaurante, item do cardápio e hora (createdAt truncado na hora).
+ * itemId = 0 guarda os totais do pedido inteiro naquela hora.
+ */
+@Embeddable
+public class SalesRollupId implements Serializable {
+
+    public static final long ORDER_TOTALS = 0L;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "bucket", nullable = false)
+    private LocalDateTime bucket;
+
+    public SalesRollupId() {}
+
+    public SalesRollupId(Long restaurantId, Long itemId, LocalDateTime bucket) {
+        this.restaurantId = restaurantId;
+        this.itemId = itemId;
+        this.bucket = bucket;
+    }
+
+    public Long getRestaurantId() { return restaurantId; }
+    public Long getItemId() { return itemId; }
+    public LocalDateTime getBucket() { return bucket; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SalesRollupId other)) return false;
+        return Objects.equals(restaurantId, other.restaurantId) && Objects.equals(itemId, other.itemId) && Objects.equals(bucket, other.bucket);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(restaurantId, itemId, bucket);
+    }
+}
@@ -0,0 +1,113 @@
+package menu.q.backend.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+
+/**
+ * Conta de uma mesa: aberta no primeiro pedido da mesa e fechada no pagamento.
+ * Total e linhas (por item e preço) são atualizados a cada pedido, sem somar os pedidos de novo.
+ */
+@Entity
+@Table(name = "table_sessions",
+        uniqueConstraints = @UniqueConstraint(name = TableSession.OPEN_TABLE_CONSTRAINT, columnNames = {"restaurant_id", "open_table"}))
+public class TableSession {
+
+    public static final String OPEN_TABLE_CONSTRAINT = "uk_table_sessions_open";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Column(nullable = false)
+    private Integer tableNumber;
+
+    // Número da mesa enquanto a conta está aberta, nulo depois de fechada: a chave única
+    // (restaurant_id, open_table) garante uma só conta aberta por mesa
+    @Column(name = "open_table")
+    private Integer openTable;
+
+    @Column(nullable = false)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private int orderCount;
+
+    @Column(nullable = false)
+    private LocalDateTime openedAt = LocalDateTime.now();
+
+    private LocalDateTime closedAt;
+
+    // Pedidos simultâneos na mesma mesa: o UPDATE confere a versão e o perdedor refaz o pedido
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    private List<TableSessionLine> lines = new ArrayList<>();
+
+    public TableSession() {}
+
+    public TableSession(Long restaurantId, Integer tableNumber) {
+        this.restaurantId = restaurantId;
+        this.tableNumber = tableNumber;
+        this.openTable = tableNumber;
+    }
+
+    public Long getId() { return id; }
+    public Long getRestaurantId() { return restaurantId; }
+    public Integer getTableNumber() { return tableNumber; }
+    public BigDecimal getTotal() { return total; }
+    public int getOrderCount() { return orderCount; }
+    public LocalDateTime getOpenedAt() { return openedAt; }
+    public LocalDateTime getClosedAt() { return closedAt; }
+    public List<TableSessionLine> getLines() { return lines; }
+
+    public boolean isOpen() {
+        return closedAt == null;
+    }
+
+    /**
+     * Soma o pedido à conta (sign = 1) ou o retira (sign = -1, pedido cancelado ou removido).
+     */
+    public void apply(Order order, int sign) {
+        for (OrderItem oi : order.getItems()) {
+            TableSessionLine line = lines.stream()
+                    .filter(l -> l.matches(oi.getItemId(), oi.getPrice()))
+                    .findFirst()
+                    .orElse(null);
+            if (line == null) {
+                line = new TableSessionLine(this, oi.getItemId(), oi.getName(), oi.getPrice());
+                lines.add(line);
+            }
+            line.add(sign * oi.getQuantity());
+            if (line.getQuantity() <= 0) {
+                lines.remove(line);
+            }
+        }
+        total = total.add(order.getTotal().multiply(BigDecimal.valueOf(sign)));
+        orderCount += sign;
+    }
+
+    public void close() {
+        closedAt = LocalDateTime.now();
+        openTable = null;
+    }
+}
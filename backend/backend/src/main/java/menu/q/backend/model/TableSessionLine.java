@@ -0,0 +1,62 @@
+package menu.q.backend.model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Linha da conta da mesa: um item a um preço, com a quantidade somada de todos os pedidos.
+ */
+@Entity
+@Table(name = "table_session_lines")
+public class TableSessionLine {
+    // Gerado na aplicação para que as linhas novas de um pedido entrem num único lote JDBC
+    @Id
+    @Tsid
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private TableSession session;
+
+    private Long itemId;
+    private String name;
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    public TableSessionLine() {}
+
+    TableSessionLine(TableSession session, Long itemId, String name, BigDecimal price) {
+        this.session = session;
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+    }
+
+    public Long getId() { return id; }
+    public Long getItemId() { return itemId; }
+    public String getName() { return name; }
+    public BigDecimal getPrice() { return price; }
+    public int getQuantity() { return quantity; }
+    public BigDecimal getAmount() { return amount; }
+
+    boolean matches(Long itemId, BigDecimal price) {
+        return this.itemId.equals(itemId) && this.price.compareTo(price) == 0;
+    }
+
+    void add(int quantity) {
+        this.quantity += quantity;
+        this.amount = price.multiply(BigDecimal.valueOf(this.quantity));
+    }
+}
@@ -0,0 +1,18 @@
+package menu.q.backend.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Id gerado na aplicação, ordenado pelo tempo (ver TsidGenerator). Diferente de IDENTITY,
+ * não depende do INSERT para conhecer o id, então o Hibernate consegue agrupar os INSERTs em lote.
+ */
+@IdGeneratorType(TsidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Tsid {
+}
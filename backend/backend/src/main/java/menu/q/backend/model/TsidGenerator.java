@@ -0,0 +1,56 @@
+package menu.q.backend.model;
+
+import java.lang.reflect.Member;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+/**
+ * Ids de 53 bits (cabem num number do JavaScript): 41 bits de milissegundos desde 2024-01-01,
+ * 4 bits de nó e 8 bits de sequência. Crescem com o tempo dentro de cada nó; acima de 256 ids
+ * no mesmo milissegundo o relógio lógico avança um milissegundo em vez de repetir.
+ * O nó vem de menuq.tsid.node (spring.jpa.properties.menuq.tsid.node) e deve ser único por instância.
+ * Os ids antigos gerados por IDENTITY são pequenos e não colidem com estes.
+ */
+public class TsidGenerator implements IdentifierGenerator {
+
+    static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 4;
+    static final int SEQUENCE_BITS = 8;
+    static final String NODE_SETTING = "menuq.tsid.node";
+
+    // Relógio lógico compartilhado: (milissegundo << SEQUENCE_BITS) | sequência
+    private static final AtomicLong clock = new AtomicLong();
+
+    private final long node;
+
+    public TsidGenerator(Tsid config, Member idMember, CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(NODE_SETTING);
+        if (setting != null && setting.toString().isBlank()) {
+            // Perfil de produção: sem NODE_ID, duas réplicas no nó 0 gerariam ids repetidos no mesmo milissegundo
+            throw new IllegalStateException(NODE_SETTING + " vazio: defina NODE_ID (0 a " + ((1L << NODE_BITS) - 1)
+                    + ") com um valor diferente em cada instância");
+        }
+        this.node = setting != null ? Long.parseLong(setting.toString().trim()) : 0L;
+        if (node < 0 || node >= (1L << NODE_BITS)) {
+            throw new IllegalArgumentException(NODE_SETTING + " deve estar entre 0 e " + ((1L << NODE_BITS) - 1));
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next(node);
+    }
+
+    static long next(long node) {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long tick = clock.updateAndGet(previous -> Math.max(now, previous + 1));
+        long millis = tick >>> SEQUENCE_BITS;
+        long sequence = tick & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
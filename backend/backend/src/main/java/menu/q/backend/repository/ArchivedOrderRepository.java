@@ -0,0 +1,39 @@
+package menu.q.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import menu.q.backend.model.ArchivedOrder;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    // Só o payload: o histórico é montado a partir do JSON comprimido
+    @Query("SELECT a.id, a.payload FROM ArchivedOrder a WHERE a.restaurantId = :restaurantId AND a.id < :before ORDER BY a.id DESC")
+    List<Object[]> findPageByRestaurantId(@Param("restaurantId") Long restaurantId, @Param("before") Long before, Limit limit);
+
+    @Query("SELECT a.id, a.payload FROM ArchivedOrder a WHERE a.buyerId = :buyerId AND a.id < :before ORDER BY a.id DESC")
+    List<Object[]> findPageByBuyerId(@Param("buyerId") Long buyerId, @Param("before") Long before, Limit limit);
+
+    @Query("SELECT a.payload FROM ArchivedOrder a WHERE a.id = :id")
+    Optional<byte[]> findPayloadById(@Param("id") Long id);
+
+    // Exportação: lidos do cursor JDBC em lotes de 100, mais novos primeiro
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT a.payload FROM ArchivedOrder a WHERE a.restaurantId = :restaurantId ORDER BY a.id DESC")
+    Stream<byte[]> streamPayloadsByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    // Pedido arquivado mais recente do restaurante: as horas até ele não existem mais em orders
+    @Query("SELECT max(a.createdAt) FROM ArchivedOrder a WHERE a.restaurantId = :restaurantId")
+    Optional<LocalDateTime> findLatestCreatedAt(@Param("restaurantId") Long restaurantId);
+}
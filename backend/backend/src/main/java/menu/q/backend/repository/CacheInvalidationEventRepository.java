@@ -0,0 +1,26 @@
+package menu.q.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import menu.q.backend.model.CacheInvalidationEvent;
+
+public interface CacheInvalidationEventRepository extends JpaRepository<CacheInvalidationEvent, Long> {
+
+    // Leitura incremental: tudo depois do último id já aplicado, em ordem
+    @Query("SELECT e FROM CacheInvalidationEvent e WHERE e.id > :after ORDER BY e.id")
+    List<CacheInvalidationEvent> findPage(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM CacheInvalidationEvent e")
+    long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM CacheInvalidationEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
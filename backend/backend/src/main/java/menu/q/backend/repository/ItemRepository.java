@@ -1,18 +1,67 @@
 package menu.q.backend.repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import menu.q.backend.data.dto.ItemDto;
 import menu.q.backend.model.Item;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByUserId(Long userId);
     List<Item> findByNameContainingIgnoreCase(String name);
     List<Item> findByRestaurantId(Long restaurantId);
+
+    // Carrega o usuário junto para serializar o cardápio público fora da sessão
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT i FROM Item i WHERE i.restaurant.id = :restaurantId")
+    List<Item> findWithUserByRestaurantId(@Param("restaurantId") Long restaurantId);
     
+    // Destaques no cache de consultas: o resultado é descartado a cada escrita na tabela items
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT i FROM Item i WHERE i.restaurant.id = :restaurantId AND i.featured = true")
     List<Item> findFeaturedByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    // Projeções para listagens: lêem as FKs direto da tabela items, sem carregar User/Restaurant.
+    // Imagem ainda em base64 (antes da migração para o blob store) não trafega: vem nula
+    String ITEM_DTO_SELECT = "SELECT new menu.q.backend.data.dto.ItemDto(i.id, i.name, i.description, i.price, i.category, "
+            + "CASE WHEN i.image LIKE 'data:%' THEN NULL ELSE i.image END, i.user.id, i.restaurant.id, i.featured) FROM Item i ";
+
+    @Query(ITEM_DTO_SELECT)
+    List<ItemDto> findAllDto();
+
+    @Query(ITEM_DTO_SELECT + "WHERE i.id = :id")
+    Optional<ItemDto> findDtoById(@Param("id") Long id);
+
+    // Páginas por keyset: "id > :after ORDER BY id" percorre o índice a partir do cursor,
+    // com o mesmo custo na primeira página e na milésima (sem OFFSET)
+    @Query(ITEM_DTO_SELECT + "WHERE i.restaurant.id = :restaurantId AND i.id > :after ORDER BY i.id")
+    List<ItemDto> findDtoPageByRestaurantId(@Param("restaurantId") Long restaurantId, @Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(ITEM_DTO_SELECT + "WHERE i.restaurant.id = :restaurantId AND i.featured = true AND i.id > :after ORDER BY i.id")
+    List<ItemDto> findFeaturedDtoPageByRestaurantId(@Param("restaurantId") Long restaurantId, @Param("after") Long after, Limit limit);
+
+    @Query(ITEM_DTO_SELECT + "WHERE i.user.id = :userId AND i.id > :after ORDER BY i.id")
+    List<ItemDto> findDtoPageByUserId(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    // Migração das imagens base64 para o blob store: ids (e restaurante) das linhas ainda em base64
+    @Query("SELECT i.id, r.id FROM Item i LEFT JOIN i.restaurant r WHERE i.id > :after AND i.image LIKE 'data:image/%' ORDER BY i.id")
+    List<Object[]> findInlineImagePage(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT i.image FROM Item i WHERE i.id = :id")
+    String findImageById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.image = :image WHERE i.id = :id")
+    int updateImage(@Param("id") Long id, @Param("image") String image);
 }
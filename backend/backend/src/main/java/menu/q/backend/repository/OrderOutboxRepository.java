@@ -0,0 +1,33 @@
+package menu.q.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import menu.q.backend.model.OrderOutboxEvent;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // Leitura incremental do outbox: tudo depois do último id já processado e até upTo, em ordem
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.restaurantId = :restaurantId AND e.id > :after AND e.id <= :upTo ORDER BY e.id")
+    List<OrderOutboxEvent> findPageByRestaurantId(@Param("restaurantId") Long restaurantId, @Param("after") Long after,
+                                                  @Param("upTo") Long upTo, Limit limit);
+
+    // Menor id gravado depois de since cujo antecessor não está visível: o buraco pode ser uma linha ainda não confirmada
+    @Query("SELECT min(e.id) FROM OrderOutboxEvent e WHERE e.createdAt >= :since "
+            + "AND e.id > (SELECT min(first.id) FROM OrderOutboxEvent first) "
+            + "AND NOT EXISTS (SELECT 1 FROM OrderOutboxEvent previous WHERE previous.id = e.id - 1)")
+    Long findFirstAfterRecentGap(@Param("since") LocalDateTime since);
+
+    long countByOrderId(Long orderId);
+
+    // Retenção (OrderOutboxCleanupService), pelo índice de created_at
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,12 +1,60 @@
 package menu.q.backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
 import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderStatus;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByBuyerId(Long buyerId);
     List<Order> findByRestaurantId(Long restaurantId);
+
+    // Pedidos mais recentes primeiro, paginados por keyset no id (que cresce junto com createdAt).
+    // Só os ids: paginar com JOIN FETCH de coleção faria o Hibernate paginar em memória
+    @Query("SELECT o.id FROM Order o WHERE o.restaurant.id = :restaurantId AND o.id < :before ORDER BY o.id DESC")
+    List<Long> findIdPageByRestaurantId(@Param("restaurantId") Long restaurantId, @Param("before") Long before, Limit limit);
+
+    @Query("SELECT o.id FROM Order o WHERE o.buyer.id = :buyerId AND o.id < :before ORDER BY o.id DESC")
+    List<Long> findIdPageByBuyerId(@Param("buyerId") Long buyerId, @Param("before") Long before, Limit limit);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids ORDER BY o.id DESC")
+    List<Order> findWithItemsByIdIn(@Param("ids") List<Long> ids);
+
+    // Exportação: uma linha por item, consecutivas por pedido. Executada por OrderService.forEachLineByRestaurant,
+    // que define o fetch size só neste comando (app.orders.export.fetch-size).
+    // Projeção em DTO: nada fica no contexto de persistência enquanto o stream é consumido
+    String LINES_BY_RESTAURANT = "SELECT new menu.q.backend.data.dto.OrderLineDto(o.id, o.tableNumber, o.guestName, o.total, o.status, o.createdAt, "
+            + "oi.id, oi.name, oi.price, oi.quantity) "
+            + "FROM Order o LEFT JOIN o.items oi WHERE o.restaurant.id = :restaurantId ORDER BY o.id DESC, oi.id";
+
+    // Reconstrução dos contadores de vendas: [itemId, nome, data, hora, quantidade, receita, pedidos]
+    @Query("SELECT oi.itemId, max(oi.name), cast(o.createdAt as LocalDate), extract(hour from o.createdAt), "
+            + "sum(oi.quantity), sum(oi.price * oi.quantity), count(distinct o.id) "
+            + "FROM Order o JOIN o.items oi WHERE o.restaurant.id = :restaurantId AND o.status <> :excluded AND o.createdAt >= :since "
+            + "GROUP BY oi.itemId, cast(o.createdAt as LocalDate), extract(hour from o.createdAt)")
+    List<Object[]> sumSalesByItemAndHour(@Param("restaurantId") Long restaurantId, @Param("excluded") OrderStatus excluded,
+                                         @Param("since") LocalDateTime since);
+
+    // Totais por hora do pedido inteiro: [data, hora, receita, pedidos]
+    @Query("SELECT cast(o.createdAt as LocalDate), extract(hour from o.createdAt), sum(o.total), count(o) "
+            + "FROM Order o WHERE o.restaurant.id = :restaurantId AND o.status <> :excluded AND o.createdAt >= :since "
+            + "GROUP BY cast(o.createdAt as LocalDate), extract(hour from o.createdAt)")
+    List<Object[]> sumSalesByHour(@Param("restaurantId") Long restaurantId, @Param("excluded") OrderStatus excluded,
+                                  @Param("since") LocalDateTime since);
+
+    @Query("SELECT DISTINCT o.restaurant.id FROM Order o")
+    List<Long> findRestaurantIdsWithOrders();
+
+    // Próximo lote do arquivamento. O lock impede que uma mudança de status grave no meio da cópia
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id FROM Order o WHERE o.createdAt < :cutoff ORDER BY o.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
 }
@@ -3,9 +3,13 @@ package menu.q.backend.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import menu.q.backend.data.dto.RestaurantSummaryDto;
 import menu.q.backend.model.Restaurant;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
@@ -13,4 +17,30 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
 	
 	@Query("SELECT r FROM Restaurant r WHERE r.owner.id = :ownerId ORDER BY r.id ASC LIMIT 1")
 	Optional<Restaurant> findFirstByOwnerId(Long ownerId);
+
+	// Página por keyset no id, sem OFFSET. Projeção: o dono vem no mesmo SELECT e
+	// capa/avatar ainda em base64 (antes da migração para o blob store) vêm nulos
+	@Query("SELECT new menu.q.backend.data.dto.RestaurantSummaryDto(r.id, r.name, r.description, "
+			+ "CASE WHEN r.cover LIKE 'data:%' THEN NULL ELSE r.cover END, r.visibleCategories, r.tableCount, "
+			+ "o.id, o.username, o.email, CASE WHEN o.avatar LIKE 'data:%' THEN NULL ELSE o.avatar END) "
+			+ "FROM Restaurant r LEFT JOIN r.owner o WHERE r.id > :after ORDER BY r.id")
+	List<RestaurantSummaryDto> findSummaryPage(@Param("after") Long after, Limit limit);
+
+	// Só id e nome, sem a capa, para carregar o índice de busca
+	@Query("SELECT r.id, r.name FROM Restaurant r")
+	List<Object[]> findAllIdAndName();
+
+	@Query("SELECT r.name FROM Restaurant r WHERE r.id = :id")
+	Optional<String> findNameById(@Param("id") Long id);
+
+	// Migração das capas base64 para o blob store: id e dono de cada restaurante
+	@Query("SELECT r.id, o.id FROM Restaurant r LEFT JOIN r.owner o WHERE r.id > :after AND r.cover LIKE 'data:image/%' ORDER BY r.id")
+	List<Object[]> findInlineCoverPage(@Param("after") Long after, Limit limit);
+
+	@Query("SELECT r.cover FROM Restaurant r WHERE r.id = :id")
+	String findCoverById(@Param("id") Long id);
+
+	@Modifying
+	@Query("UPDATE Restaurant r SET r.cover = :cover WHERE r.id = :id")
+	int updateCover(@Param("id") Long id, @Param("cover") String cover);
 }
@@ -0,0 +1,29 @@
+package menu.q.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import menu.q.backend.model.SalesRollup;
+import menu.q.backend.model.SalesRollupId;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollupId> {
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.id.restaurantId = :restaurantId AND r.id.bucket >= :from AND r.id.bucket < :to ORDER BY r.id.bucket")
+    List<SalesRollup> findByRestaurantIdAndBucketBetween(@Param("restaurantId") Long restaurantId,
+                                                         @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Linhas candidatas de um lote de deltas numa consulta só (o findAllById com chave composta faz uma por id)
+    @Query("SELECT r FROM SalesRollup r WHERE r.id.restaurantId IN :restaurantIds AND r.id.bucket IN :buckets")
+    List<SalesRollup> findByRestaurantIdInAndBucketIn(@Param("restaurantIds") Collection<Long> restaurantIds,
+                                                      @Param("buckets") Collection<LocalDateTime> buckets);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup r WHERE r.id.restaurantId = :restaurantId AND r.id.bucket >= :since")
+    int deleteByRestaurantIdSince(@Param("restaurantId") Long restaurantId, @Param("since") LocalDateTime since);
+}
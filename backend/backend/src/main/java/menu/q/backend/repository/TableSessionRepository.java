@@ -0,0 +1,19 @@
+package menu.q.backend.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import menu.q.backend.model.TableSession;
+
+public interface TableSessionRepository extends JpaRepository<TableSession, Long> {
+
+    // Conta aberta da mesa com as linhas, numa consulta pela chave única (restaurant_id, open_table)
+    @Query("SELECT s FROM TableSession s LEFT JOIN FETCH s.lines WHERE s.restaurantId = :restaurantId AND s.openTable = :tableNumber")
+    Optional<TableSession> findOpen(@Param("restaurantId") Long restaurantId, @Param("tableNumber") Integer tableNumber);
+
+    @Query("SELECT s FROM TableSession s LEFT JOIN FETCH s.lines WHERE s.id = :id")
+    Optional<TableSession> findWithLinesById(@Param("id") Long id);
+}
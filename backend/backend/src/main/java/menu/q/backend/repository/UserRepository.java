@@ -1,8 +1,15 @@
 package menu.q.backend.repository;
 
+import java.util.List;
 import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import menu.q.backend.data.dto.UserDTO;
 import menu.q.backend.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -11,4 +18,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByEmail(String email);
 	boolean existsByEmail(String email);
 
+	// Página por keyset no id, sem OFFSET. Avatar ainda em base64 não trafega: vem nulo
+	@Query("SELECT new menu.q.backend.data.dto.UserDTO(u.id, u.username, u.email, "
+			+ "CASE WHEN u.avatar LIKE 'data:%' THEN NULL ELSE u.avatar END) "
+			+ "FROM User u WHERE u.id > :after ORDER BY u.id")
+	List<UserDTO> findDtoPage(@Param("after") Long after, Limit limit);
+
+	// Busca por nome em ordem de username, usando o índice único: o cursor é o id do último usuário
+	// da página e a próxima começa depois do nome dele. O padrão já vem escapado com '!'
+	@Query("SELECT new menu.q.backend.data.dto.UserDTO(u.id, u.username, u.email, "
+			+ "CASE WHEN u.avatar LIKE 'data:%' THEN NULL ELSE u.avatar END) "
+			+ "FROM User u WHERE u.username LIKE :pattern ESCAPE '!' "
+			+ "AND u.username > COALESCE((SELECT a.username FROM User a WHERE a.id = :after), '') "
+			+ "ORDER BY u.username")
+	List<UserDTO> searchDtoPage(@Param("pattern") String pattern, @Param("after") Long after, Limit limit);
+
+	// Um usuário pela chave primária, sem carregar a entidade
+	@Query("SELECT new menu.q.backend.data.dto.UserDTO(u.id, u.username, u.email, "
+			+ "CASE WHEN u.avatar LIKE 'data:%' THEN NULL ELSE u.avatar END) FROM User u WHERE u.id = :id")
+	Optional<UserDTO> findDtoById(@Param("id") Long id);
+
+	// Migração dos avatares base64 para o blob store
+	@Query("SELECT u.id FROM User u WHERE u.id > :after AND u.avatar LIKE 'data:image/%' ORDER BY u.id")
+	List<Long> findInlineAvatarIdPage(@Param("after") Long after, Limit limit);
+
+	// Autenticação por token com id: só o nome, sem carregar a entidade
+	@Query("SELECT u.username FROM User u WHERE u.id = :id")
+	Optional<String> findUsernameById(@Param("id") Long id);
+
+	@Query("SELECT u.avatar FROM User u WHERE u.id = :id")
+	String findAvatarById(@Param("id") Long id);
+
+	@Modifying
+	@Query("UPDATE User u SET u.avatar = :avatar WHERE u.id = :id")
+	int updateAvatar(@Param("id") Long id, @Param("avatar") String avatar);
+
 }
@@ -0,0 +1,14 @@
+package menu.q.backend.security;
+
+import java.security.Principal;
+
+/**
+ * Usuário autenticado por um token com id: montado a partir das claims e do PrincipalCache, sem consultar o banco.
+ */
+public record AuthenticatedUser(Long id, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,99 @@
+package menu.q.backend.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import menu.q.backend.exception.ServiceBusyException;
+
+/**
+ * BCrypt num executor próprio: no máximo app.auth.hashing.threads hashes ao mesmo tempo, com até
+ * app.auth.hashing.queue esperando. Com a fila cheia a requisição é recusada na hora (503) em vez de
+ * esperar, e uma rajada de logins não ocupa as CPUs que servem o cardápio.
+ *
+ * encode/matches chamados da thread da requisição esperam a vez no executor; das threads do executor
+ * rodam direto.
+ * Hashes com custo diferente de app.auth.bcrypt-strength são refeitos no próximo login (upgradeEncoding).
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String THREAD_NAME = "password-hash";
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queue) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                Thread.ofPlatform().daemon().name(THREAD_NAME + "-", 1).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Roda o trabalho numa thread de hash.
+     *
+     * @throws ServiceBusyException fila cheia
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Muitas autenticações em andamento, tente novamente em instantes");
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // $2a$10$...: custo nas posições 4 e 5; refaz também quando o custo configurado baixou
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Supplier<T> work) {
+        if (Thread.currentThread().getName().startsWith(THREAD_NAME + "-")) {
+            return work.get();
+        }
+        try {
+            return submit(work).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrompido esperando o hash da senha");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
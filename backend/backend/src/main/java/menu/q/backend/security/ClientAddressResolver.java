@@ -0,0 +1,71 @@
+package menu.q.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Endereço do cliente para limites e chaves por cliente. É o endereço da conexão; X-Forwarded-For só é
+ * considerado quando a conexão vem de um proxy listado em app.rate-limit.trusted-proxies (IPs ou CIDRs),
+ * senão qualquer um escolheria o próprio endereço.
+ */
+@Component
+public class ClientAddressResolver {
+
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientAddressResolver(@Value("${app.rate-limit.trusted-proxies:}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * Percorre X-Forwarded-For da direita para a esquerda (o que cada proxy confiável acrescentou)
+     * e para no primeiro endereço que não é de proxy confiável.
+     */
+    public String resolve(HttpServletRequest request) {
+        String client = request.getRemoteAddr();
+        String xfHeader = request.getHeader("X-Forwarded-For");
+        if (xfHeader == null || !isTrustedProxy(client)) {
+            return client;
+        }
+        String[] hops = xfHeader.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                continue;
+            }
+            client = hop;
+            if (!isTrustedProxy(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        // Só literais de IP: IpAddressMatcher resolveria um nome vindo do cabeçalho via DNS
+        if (!IP_LITERAL.matcher(address).matches()) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
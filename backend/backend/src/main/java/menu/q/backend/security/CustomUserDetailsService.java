@@ -4,6 +4,7 @@ import java.util.Collections;
 
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,7 @@ import menu.q.backend.model.User;
 import menu.q.backend.repository.UserRepository;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -26,19 +27,29 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
             .or(() -> userRepository.findByEmail(username))
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        
-        System.out.println("=== CustomUserDetailsService ===");
-        System.out.println("Input: " + username);
-        System.out.println("Found user: " + user.getUsername() + " / " + user.getEmail());
-        System.out.println("Password hash: " + (user.getPassword() != null ? user.getPassword().substring(0, 20) + "..." : "null"));
-        System.out.println("===============================");
-            
+
         // IMPORTANTE: Retornar o username/email que foi usado para buscar, não o username do banco
         // Isso garante que o AuthenticationManager compare corretamente
         return new org.springframework.security.core.userdetails.User(
             username, // Usar o que foi enviado (pode ser username ou email)
             user.getPassword() == null ? "" : user.getPassword(),
-            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+            Collections.singletonList(new SimpleGrantedAuthority(JwtUtil.ROLE_USER))
         );
     }
+
+    /**
+     * Chamado no login quando o hash guardado tem custo diferente do configurado: grava o hash novo,
+     * calculado com a senha que acabou de ser conferida.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+            .or(() -> userRepository.findByEmail(userDetails.getUsername()))
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+            .password(newPassword)
+            .build();
+    }
 }
@@ -0,0 +1,55 @@
+package menu.q.backend.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * Buckets em memória, por instância, num Caffeine limitado a app.rate-limit.max-entries chaves; chaves
+ * sem uso por app.rate-limit.idle-timeout saem antes disso. O prazo nunca é menor que o de recarga dos
+ * limites (1 minuto): um bucket parado esse tempo já estaria cheio de novo, então descartá-lo não devolve
+ * cota a ninguém.
+ */
+@Component
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final Duration MIN_IDLE = Duration.ofMinutes(1);
+
+    private final Cache<String, Bucket> buckets;
+
+    public InMemoryRateLimitStore(@Value("${app.rate-limit.max-entries:100000}") int maxEntries,
+                                  @Value("${app.rate-limit.idle-timeout:5m}") Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(idleTimeout.compareTo(MIN_IDLE) < 0 ? MIN_IDLE : idleTimeout)
+                .build();
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(String key, BucketConfiguration configuration) {
+        // Só a criação do bucket é por chave; o consumo é thread-safe no próprio bucket
+        return buckets.get(key, k -> newBucket(configuration)).tryConsumeAndReturnRemaining(1);
+    }
+
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private static Bucket newBucket(BucketConfiguration configuration) {
+        var builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+}
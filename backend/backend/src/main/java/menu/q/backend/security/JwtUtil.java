@@ -1,59 +1,123 @@
 package menu.q.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
+import menu.q.backend.model.User;
+
+/**
+ * Emissão e verificação dos JWTs de login. A chave vem de jwt.secret (no mínimo 32 bytes para HS256).
+ * Cada token é conferido uma vez por verify(); tokens já conferidos ficam num Caffeine pelo SHA-256 do token
+ * (app.auth.verified-tokens.max-entries) até o exp de cada um, sem refazer o HMAC nem o parse a cada requisição.
+ */
 @Component
 public class JwtUtil {
 
-    // Chave segura com pelo menos 256 bits (32 bytes) para o algoritmo HS256
-    // A chave anterior era muito curta, causando o erro WeakKeyException
-    private static final String SECRET_STRING = "menuq_secret_key_secure_and_long_enough_for_hs256_algorithm_2026";
-    private final Key key = Keys.hmacShaKeyFor(SECRET_STRING.getBytes());
+    // Claims dos tokens emitidos no login e no cadastro: com elas o filtro não consulta o usuário
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String ROLE_USER = "ROLE_USER";
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    private final Key key;
+    // Parser imutável e thread-safe, montado uma vez
+    private final JwtParser parser;
+    private final long expirationMillis;
+    private final Cache<String, VerifiedToken> verified;
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration:36000000}") long expirationMillis,
+                   @Value("${app.auth.verified-tokens.max-entries:10000}") int maxVerified) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.expirationMillis = expirationMillis;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxVerified)
+                .expireAfter(new UntilTokenExpires())
+                .build();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+    // Cada entrada vive até o exp do próprio token; leituras não renovam
+    private static final class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Confere assinatura e validade com um único parse.
+     *
+     * @throws JwtException token inválido, adulterado ou expirado
+     */
+    public VerifiedToken verify(String token) {
+        // Entrada vencida some junto com o token: o parse seguinte lança ExpiredJwtException
+        return verified.get(digest(token), digest -> toVerified(parser.parseClaimsJws(token).getBody()));
     }
 
-    public String generateToken(String username) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLES, List.of(ROLE_USER));
+        return createToken(claims, user.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder().setClaims(claims).setSubject(subject).setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 horas
+        long now = System.currentTimeMillis();
+        return Jwts.builder().setClaims(claims).setSubject(subject).setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMillis))
                 .signWith(key, SignatureAlgorithm.HS256).compact();
     }
 
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+    private static VerifiedToken toVerified(Claims claims) {
+        Number id = claims.get(CLAIM_USER_ID, Number.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of()
+                : roles.stream().<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString())).toList();
+        return new VerifiedToken(claims.getSubject(), id != null ? id.longValue() : null, authorities,
+                claims.getExpiration().toInstant());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
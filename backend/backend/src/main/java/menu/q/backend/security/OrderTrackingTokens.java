@@ -0,0 +1,62 @@
+package menu.q.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token que deixa o convidado acompanhar o próprio pedido sem login: HMAC do id do pedido.
+ * Sem ele, qualquer um poderia seguir pedidos alheios trocando o id na URL.
+ * Em mais de uma instância, app.orders.tracking-secret precisa ser o mesmo em todas;
+ * sem a propriedade a chave é sorteada no boot e os tokens antigos deixam de valer. Com
+ * app.orders.tracking-secret-required=true (produção) a aplicação não sobe sem a chave.
+ */
+@Component
+public class OrderTrackingTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public OrderTrackingTokens(@Value("${app.orders.tracking-secret:}") String secret,
+                               @Value("${app.orders.tracking-secret-required:false}") boolean required) {
+        if (secret.isBlank() && required) {
+            throw new IllegalStateException("app.orders.tracking-secret vazio: defina ORDER_TRACKING_SECRET, o mesmo em todas as instâncias");
+        }
+        byte[] bytes;
+        if (secret.isBlank()) {
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+        } else {
+            bytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    public String issue(Long orderId) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal(Long.toString(orderId).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponível", e);
+        }
+    }
+
+    public boolean verify(Long orderId, String token) {
+        if (orderId == null || token == null) {
+            return false;
+        }
+        // Comparação em tempo constante
+        return MessageDigest.isEqual(issue(orderId).getBytes(StandardCharsets.US_ASCII), token.getBytes(StandardCharsets.US_ASCII));
+    }
+}
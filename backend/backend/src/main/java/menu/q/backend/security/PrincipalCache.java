@@ -0,0 +1,36 @@
+package menu.q.backend.security;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import menu.q.backend.config.CacheNames;
+import menu.q.backend.repository.UserRepository;
+
+/**
+ * Usuários dos tokens com id, por id, no cache "principals" (limites em app.cache.principals.*).
+ * Escritas no usuário invalidam a entrada na hora (CacheInvalidationListener); usuário removido deixa de autenticar.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+
+    public PrincipalCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Usuário atual do id, ou null se ele não existe mais. Requisições simultâneas do mesmo id fazem uma consulta só.
+     */
+    @Cacheable(cacheNames = CacheNames.PRINCIPALS, sync = true)
+    public AuthenticatedUser get(Long userId) {
+        return userRepository.findUsernameById(userId)
+                .map(username -> new AuthenticatedUser(userId, username))
+                .orElse(null);
+    }
+
+    @CacheEvict(CacheNames.PRINCIPALS)
+    public void invalidate(Long userId) {
+    }
+}
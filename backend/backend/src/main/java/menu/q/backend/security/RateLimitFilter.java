@@ -1,7 +1,8 @@
 package menu.q.backend.security;
 
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -14,24 +15,34 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Limite de requisições por cliente e por política (RateLimitPolicy), com os buckets no RateLimitStore.
+ * O cliente é o endereço resolvido pelo ClientAddressResolver (proxies confiáveis em app.rate-limit.trusted-proxies).
+ */
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    // Cache de buckets por IP
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    private final RateLimitStore store;
+    private final boolean rateLimitEnabled;
+    private final Map<RateLimitPolicy, BucketConfiguration> configurations = new EnumMap<>(RateLimitPolicy.class);
+    private final ClientAddressResolver clientAddress;
 
-    // Configurações de rate limit via properties
-    @Value("${app.rate-limit.enabled:true}")
-    private boolean rateLimitEnabled;
-    
-    @Value("${app.rate-limit.general:60}")
-    private int requestsPerMinute;
-    
-    @Value("${app.rate-limit.auth:5}")
-    private int authRequestsPerMinute;
+    public RateLimitFilter(RateLimitStore store, ClientAddressResolver clientAddress,
+                           @Value("${app.rate-limit.enabled:true}") boolean rateLimitEnabled,
+                           @Value("${app.rate-limit.general:60}") int requestsPerMinute,
+                           @Value("${app.rate-limit.auth:5}") int authRequestsPerMinute,
+                           @Value("${app.rate-limit.orders:10}") int orderRequestsPerMinute) {
+        this.store = store;
+        this.clientAddress = clientAddress;
+        this.rateLimitEnabled = rateLimitEnabled;
+        configurations.put(RateLimitPolicy.AUTH, perMinute(authRequestsPerMinute));
+        configurations.put(RateLimitPolicy.ORDER_CREATE, perMinute(orderRequestsPerMinute));
+        configurations.put(RateLimitPolicy.GENERAL, perMinute(requestsPerMinute));
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -44,44 +55,24 @@ public class RateLimitFilter extends OncePerRequestFilter {
             return;
         }
         
-        String clientIp = getClientIP(request);
-        String path = request.getRequestURI();
-        
-        // Rate limit mais restritivo para rotas de autenticação
-        int limit = isAuthEndpoint(path) ? authRequestsPerMinute : requestsPerMinute;
-        
-        Bucket bucket = resolveBucket(clientIp, limit);
-        
-        if (bucket.tryConsume(1)) {
+        RateLimitPolicy policy = RateLimitPolicy.of(request);
+        String key = policy.name() + ":" + clientAddress.resolve(request);
+
+        ConsumptionProbe probe = store.tryConsume(key, configurations.get(policy));
+        if (probe.isConsumed()) {
             filterChain.doFilter(request, response);
         } else {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()));
             response.setStatus(429); // Too Many Requests
+            response.setHeader("Retry-After", Long.toString(retryAfter));
             response.setContentType("application/json");
             response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
         }
     }
 
-    private Bucket resolveBucket(String key, int requestsPerMinute) {
-        return cache.computeIfAbsent(key, k -> createNewBucket(requestsPerMinute));
-    }
-
-    private Bucket createNewBucket(int requestsPerMinute) {
-        Bandwidth limit = Bandwidth.classic(requestsPerMinute, Refill.intervally(requestsPerMinute, Duration.ofMinutes(1)));
-        return Bucket.builder()
-                .addLimit(limit)
+    private static BucketConfiguration perMinute(int requestsPerMinute) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(requestsPerMinute, Refill.intervally(requestsPerMinute, Duration.ofMinutes(1))))
                 .build();
     }
-
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0];
-    }
-
-    private boolean isAuthEndpoint(String path) {
-        return path.contains("/api/auth/") || 
-               path.contains("/api/orders") && path.endsWith("/api/orders");
-    }
 }
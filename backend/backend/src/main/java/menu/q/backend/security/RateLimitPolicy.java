@@ -0,0 +1,24 @@
+package menu.q.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Grupos de rotas com limites separados: cada cliente tem um bucket por política, então o login
+ * não divide cota com a navegação do cardápio.
+ */
+public enum RateLimitPolicy {
+    AUTH,
+    ORDER_CREATE,
+    GENERAL;
+
+    public static RateLimitPolicy of(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        if ("POST".equals(request.getMethod()) && (path.equals("/orders") || path.equals("/api/orders"))) {
+            return ORDER_CREATE;
+        }
+        return GENERAL;
+    }
+}
@@ -0,0 +1,17 @@
+package menu.q.backend.security;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * Onde ficam os buckets do RateLimitFilter. InMemoryRateLimitStore conta por instância; um store
+ * compartilhado (por exemplo um ProxyManager do Bucket4j sobre Redis ou JDBC) aplica o limite somado
+ * de todas as instâncias. Basta registrar outro bean deste tipo com @Primary.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Consome um token do bucket da chave, criando-o com a configuração se ele ainda não existe.
+     */
+    ConsumptionProbe tryConsume(String key, BucketConfiguration configuration);
+}
@@ -1,5 +1,8 @@
 package menu.q.backend.security;
 
+import jakarta.servlet.DispatcherType;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,7 +11,6 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -28,9 +30,13 @@ public class SecurityConfig {
         this.rateLimitFilter = rateLimitFilter;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // Hash de senha limitado a poucas threads (ver BoundedPasswordEncoder); por padrão metade das CPUs
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt-strength:10}") int strength,
+                                                 @Value("${app.auth.hashing.threads:0}") int threads,
+                                                 @Value("${app.auth.hashing.queue:64}") int queue) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(strength, poolSize, queue);
     }
 
     @Bean
@@ -41,6 +47,8 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Permitir OPTIONS para CORS preflight
                 .requestMatchers("OPTIONS", "/**").permitAll()
+                // Fim de respostas assíncronas (SSE, exportação): a requisição original já foi autorizada
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 
                 // Endpoints públicos (sem autenticação)
                 .requestMatchers("/api/auth/**").permitAll()
@@ -50,6 +58,9 @@ public class SecurityConfig {
                 // Endpoints de visualização pública (GET apenas)
                 .requestMatchers("GET", "/api/restaurants/**").permitAll()
                 .requestMatchers("GET", "/api/items/search").permitAll()
+                .requestMatchers("GET", "/api/search").permitAll()
+                .requestMatchers("GET", "/default-images/**").permitAll()  // Imagens do cardápio público
+                .requestMatchers("GET", "/api/blobs/**").permitAll()  // Imagens enviadas (itens e capas)
                 
                 // Pedidos: POST público (guest), GET/DELETE requer auth
                 .requestMatchers("POST", "/api/orders").permitAll()  // Guest pode criar pedido
@@ -66,9 +77,10 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder builder = http.getSharedObject(AuthenticationManagerBuilder.class);
-        builder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        // CustomUserDetailsService também é UserDetailsPasswordService: o provider regrava hashes de custo antigo
+        builder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
         return builder.build();
     }
 }
@@ -0,0 +1,12 @@
+package menu.q.backend.security;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Conteúdo de um JWT com assinatura já conferida. userId é null em tokens emitidos antes das claims de id e papéis.
+ */
+public record VerifiedToken(String username, Long userId, List<GrantedAuthority> authorities, Instant expiresAt) {
+}
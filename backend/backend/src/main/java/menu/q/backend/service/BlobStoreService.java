@@ -0,0 +1,160 @@
+package menu.q.backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import menu.q.backend.util.ImageValidator;
+
+/**
+ * Armazenamento de imagens enviadas pelos usuários, endereçado pelo conteúdo.
+ * Cada arquivo fica em {dir}/{2 primeiros hex}/{sha256}.{ext}; o mesmo conteúdo enviado duas vezes
+ * ocupa um único arquivo. O nome "{sha256}.{ext}" é a referência gravada no banco.
+ */
+@Service
+public class BlobStoreService {
+
+    private static final Pattern NAME = Pattern.compile("^([0-9a-f]{64})\\.(jpg|png|webp)$");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Blob em disco. O tipo vem dos bytes iniciais do arquivo, não do que o cliente declarou.
+     */
+    public record Blob(String name, Path path, long length) {
+
+        public String hash() {
+            return name.substring(0, name.indexOf('.'));
+        }
+
+        public String contentType() {
+            return switch (name.substring(name.indexOf('.') + 1)) {
+                case "png" -> "image/png";
+                case "webp" -> "image/webp";
+                default -> "image/jpeg";
+            };
+        }
+    }
+
+    private final Path root;
+
+    public BlobStoreService(@Value("${app.blobs.dir:blobs}") String dir) {
+        this.root = Paths.get(dir);
+    }
+
+    public static boolean isValidName(String name) {
+        return name != null && NAME.matcher(name).matches();
+    }
+
+    /**
+     * Grava o conteúdo lido do stream, calculando o hash enquanto copia para um arquivo temporário.
+     * Nada é mantido em memória além do buffer de cópia.
+     */
+    public Blob store(InputStream in) {
+        try {
+            Path tmpDir = Files.createDirectories(root.resolve("tmp"));
+            Path tmp = Files.createTempFile(tmpDir, "upload", ".tmp");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] buffer = new byte[BUFFER_SIZE];
+                byte[] head = new byte[12];
+                long length = 0;
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        if (length < head.length) {
+                            System.arraycopy(buffer, 0, head, (int) length, (int) Math.min(read, head.length - length));
+                        }
+                        length += read;
+                        if (length > ImageValidator.getMaxImageSizeBytes()) {
+                            throw new IllegalArgumentException("Imagem muito grande. Tamanho máximo: 5MB");
+                        }
+                        digest.update(buffer, 0, read);
+                        out.write(buffer, 0, read);
+                    }
+                }
+                String extension = sniffExtension(head, length);
+                String name = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+                Path target = pathOf(name);
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    try {
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (FileAlreadyExistsException e) {
+                        // Outro upload do mesmo conteúdo chegou antes
+                    }
+                }
+                return new Blob(name, target, length);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao salvar imagem", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Grava uma imagem no formato data:image/...;base64,... (legado das colunas de imagem).
+     */
+    public Blob storeDataUri(String dataUri) {
+        int comma = dataUri.indexOf(',');
+        if (!dataUri.startsWith("data:image/") || comma < 0) {
+            throw new IllegalArgumentException("Formato base64 inválido");
+        }
+        byte[] encoded = dataUri.substring(comma + 1).getBytes(StandardCharsets.US_ASCII);
+        try (InputStream in = Base64.getMimeDecoder().wrap(new ByteArrayInputStream(encoded))) {
+            return store(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Dados base64 inválidos");
+        }
+    }
+
+    public Optional<Blob> find(String name) {
+        if (!isValidName(name)) {
+            return Optional.empty();
+        }
+        Path path = pathOf(name);
+        try {
+            return Optional.of(new Blob(name, path, Files.size(path)));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path pathOf(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    // JPEG: FF D8 FF; PNG: 89 'PNG'; WebP: 'RIFF' .... 'WEBP'
+    private static String sniffExtension(byte[] head, long length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (length >= 4 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "png";
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "webp";
+        }
+        throw new IllegalArgumentException("Tipo de imagem não permitido. Use: JPEG, PNG ou WebP");
+    }
+}
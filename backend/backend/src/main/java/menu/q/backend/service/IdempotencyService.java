@@ -0,0 +1,231 @@
+package menu.q.backend.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import menu.q.backend.model.IdempotencyRecord;
+import menu.q.backend.repository.IdempotencyRecordRepository;
+
+/**
+ * Idempotency-Key: a primeira requisição com a chave executa, as repetições recebem a mesma resposta
+ * guardada em memória, sem passar pelo banco. Duplicatas simultâneas esperam a primeira terminar em vez
+ * de executar de novo. Falhas não são guardadas: a próxima tentativa executa normalmente.
+ *
+ * A memória é limitada em quantidade (app.idempotency.max-entries) e tempo (app.idempotency.ttl).
+ * Com app.idempotency.shared=true a chave também é reservada na tabela idempotency_keys, para
+ * que a repetição caia em outra instância sem duplicar o pedido.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 200;
+    private static final long POLL_MILLIS = 50;
+    private static final long CLEANUP_INTERVAL_MILLIS = 60_000;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate tx;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long waitMillis;
+    private final boolean shared;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Ordem de chegada, para expirar e despejar as chaves mais antigas primeiro
+    private final ConcurrentLinkedQueue<Entry> arrival = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong lastCleanup = new AtomicLong();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository, PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl:1h}") Duration ttl,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${app.idempotency.wait:30s}") Duration wait,
+                              @Value("${app.idempotency.shared:false}") boolean shared) {
+        this.recordRepository = recordRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.waitMillis = wait.toMillis();
+        this.shared = shared;
+    }
+
+    /**
+     * Executa a ação uma única vez por chave dentro do escopo, que deve identificar quem chamou:
+     * clientes diferentes não compartilham chaves. O corpo da requisição entra na impressão digital:
+     * reaproveitar a chave com outro corpo é rejeitado.
+     */
+    public Result execute(String scope, String key, byte[] request, Supplier<StoredResponse> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String id = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        long now = System.currentTimeMillis();
+
+        Entry mine = new Entry(id, fingerprint, now + ttlMillis);
+        Entry existing;
+        while ((existing = entries.putIfAbsent(id, mine)) != null && existing.expiresAt <= now) {
+            entries.remove(id, existing);
+        }
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException(HEADER + " já usada com outro conteúdo");
+            }
+            return new Result(await(existing.response), true);
+        }
+        arrival.add(mine);
+        queued.incrementAndGet();
+        evict(now);
+
+        try {
+            Result result = shared ? executeShared(id, fingerprint, action) : new Result(action.get(), false);
+            mine.response.complete(result.response());
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(id, mine);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Result executeShared(String id, String fingerprint, Supplier<StoredResponse> action) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (!claim(id, fingerprint)) {
+            IdempotencyRecord record = recordRepository.findById(id).orElse(null);
+            // Sem a linha, quem reservou falhou e liberou a chave: nova reserva depois da mesma espera,
+            // para não disputar a chave sem pausa com outras instâncias
+            if (record != null) {
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    throw new IllegalArgumentException(HEADER + " já usada com outro conteúdo");
+                }
+                if (record.getStatus() != null) {
+                    return new Result(new StoredResponse(record.getStatus(), record.getBody()), true);
+                }
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Requisição com a mesma " + HEADER + " ainda em andamento");
+            }
+            sleep(POLL_MILLIS);
+        }
+        StoredResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            tx.executeWithoutResult(status -> recordRepository.releaseClaim(id));
+            throw e;
+        }
+        tx.executeWithoutResult(status -> recordRepository.findById(id).ifPresent(record -> record.complete(response.status(), response.body())));
+        return new Result(response, false);
+    }
+
+    // Reserva a chave com um INSERT; a chave primária barra a segunda instância
+    private boolean claim(String id, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            tx.executeWithoutResult(status -> {
+                recordRepository.findById(id)
+                        .filter(record -> record.getExpiresAt().isBefore(now))
+                        .ifPresent(record -> {
+                            recordRepository.delete(record);
+                            recordRepository.flush();
+                        });
+                recordRepository.saveAndFlush(new IdempotencyRecord(id, fingerprint, now.plus(Duration.ofMillis(ttlMillis))));
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> response) {
+        try {
+            return response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // A primeira requisição falhou: a repetição recebe o mesmo erro
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Requisição com a mesma " + HEADER + " ainda em andamento");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = arrival.peek()) != null && (head.expiresAt <= now || queued.get() > maxEntries)) {
+            if (arrival.remove(head)) {
+                queued.decrementAndGet();
+                entries.remove(head.id, head);
+            }
+        }
+        long last = lastCleanup.get();
+        if (shared && now - last > CLEANUP_INTERVAL_MILLIS && lastCleanup.compareAndSet(last, now)) {
+            tx.executeWithoutResult(status -> recordRepository.deleteExpired(LocalDateTime.now()));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String fingerprint(byte[] request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Status e corpo já serializado da resposta original.
+     */
+    public static record StoredResponse(int status, byte[] body) {}
+
+    public static record Result(StoredResponse response, boolean replayed) {}
+
+    private static final class Entry {
+        private final String id;
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        Entry(String id, String fingerprint, long expiresAt) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package menu.q.backend.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import menu.q.backend.config.CacheInvalidationListener;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.util.ImageValidator;
+
+/**
+ * Migra as imagens base64 antigas (items.image, restaurants.cover e users.avatar) para o blob store,
+ * deixando na linha só a URL do blob. Roda em segundo plano na inicialização, em lotes,
+ * com uma transação curta por linha; rodar de novo só pega o que ainda estiver em base64.
+ */
+@Service
+public class ImageBlobMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageBlobMigrationService.class);
+    private static final int BATCH_SIZE = 50;
+    private static final String DATA_URI_PREFIX = "data:image/";
+
+    private final ItemRepository itemRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final UserRepository userRepository;
+    private final ImageValidator imageValidator;
+    private final CacheInvalidationListener cacheInvalidation;
+    private final SearchIndexService searchIndexService;
+    private final TransactionTemplate tx;
+    private final boolean migrateOnStartup;
+
+    public ImageBlobMigrationService(ItemRepository itemRepository, RestaurantRepository restaurantRepository,
+                                     UserRepository userRepository, ImageValidator imageValidator,
+                                     CacheInvalidationListener cacheInvalidation, SearchIndexService searchIndexService, PlatformTransactionManager transactionManager,
+                                     @Value("${app.blobs.migrate-on-startup:true}") boolean migrateOnStartup) {
+        this.itemRepository = itemRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.userRepository = userRepository;
+        this.imageValidator = imageValidator;
+        this.cacheInvalidation = cacheInvalidation;
+        this.searchIndexService = searchIndexService;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            Thread.ofPlatform().daemon().name("blob-migration").start(this::migrate);
+        }
+    }
+
+    /**
+     * Executa a migração e retorna quantas linhas passaram a apontar para o blob store.
+     */
+    public int migrate() {
+        int items = migrateItems();
+        int covers = migrateCovers();
+        int avatars = migrateAvatars();
+        if (items + covers + avatars > 0) {
+            log.info("Imagens base64 migradas para o blob store: {} itens, {} capas, {} avatares", items, covers, avatars);
+        }
+        return items + covers + avatars;
+    }
+
+    private int migrateItems() {
+        int migrated = 0;
+        long after = 0;
+        List<Object[]> page;
+        do {
+            long cursor = after;
+            page = tx.execute(status -> itemRepository.findInlineImagePage(cursor, Limit.of(BATCH_SIZE)));
+            for (Object[] row : page) {
+                Long id = (Long) row[0];
+                if (Boolean.TRUE.equals(tx.execute(status -> migrateItem(id)))) {
+                    migrated++;
+                    cacheInvalidation.itemChanged(id, (Long) row[1]);
+                }
+                after = id;
+            }
+        } while (page.size() == BATCH_SIZE);
+        if (migrated > 0) {
+            // O índice de busca guarda a imagem de cada item
+            searchIndexService.rebuild();
+        }
+        return migrated;
+    }
+
+    private int migrateCovers() {
+        int migrated = 0;
+        long after = 0;
+        List<Object[]> page;
+        do {
+            long cursor = after;
+            page = tx.execute(status -> restaurantRepository.findInlineCoverPage(cursor, Limit.of(BATCH_SIZE)));
+            for (Object[] row : page) {
+                Long id = (Long) row[0];
+                if (Boolean.TRUE.equals(tx.execute(status -> migrateCover(id)))) {
+                    migrated++;
+                    cacheInvalidation.restaurantChanged(id, (Long) row[1]);
+                }
+                after = id;
+            }
+        } while (page.size() == BATCH_SIZE);
+        return migrated;
+    }
+
+    private int migrateAvatars() {
+        int migrated = 0;
+        long after = 0;
+        List<Long> page;
+        do {
+            long cursor = after;
+            page = tx.execute(status -> userRepository.findInlineAvatarIdPage(cursor, Limit.of(BATCH_SIZE)));
+            for (Long id : page) {
+                if (Boolean.TRUE.equals(tx.execute(status -> migrateAvatar(id)))) {
+                    migrated++;
+                    cacheInvalidation.userChanged(id);
+                }
+                after = id;
+            }
+        } while (page.size() == BATCH_SIZE);
+        return migrated;
+    }
+
+    private boolean migrateItem(Long id) {
+        String image = itemRepository.findImageById(id);
+        if (image == null || !image.startsWith(DATA_URI_PREFIX)) {
+            return false;
+        }
+        try {
+            return itemRepository.updateImage(id, imageValidator.toReference(image)) == 1;
+        } catch (IllegalArgumentException e) {
+            log.warn("Imagem base64 inválida no item {}: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean migrateCover(Long id) {
+        String cover = restaurantRepository.findCoverById(id);
+        if (cover == null || !cover.startsWith(DATA_URI_PREFIX)) {
+            return false;
+        }
+        try {
+            return restaurantRepository.updateCover(id, imageValidator.toReference(cover)) == 1;
+        } catch (IllegalArgumentException e) {
+            log.warn("Capa base64 inválida no restaurante {}: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean migrateAvatar(Long id) {
+        String avatar = userRepository.findAvatarById(id);
+        if (avatar == null || !avatar.startsWith(DATA_URI_PREFIX)) {
+            return false;
+        }
+        try {
+            return userRepository.updateAvatar(id, imageValidator.toReference(avatar)) == 1;
+        } catch (IllegalArgumentException e) {
+            log.warn("Avatar base64 inválido no usuário {}: {}", id, e.getMessage());
+            return false;
+        }
+    }
+}
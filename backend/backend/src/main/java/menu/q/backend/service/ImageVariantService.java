@@ -0,0 +1,257 @@
+package menu.q.backend.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Versões reduzidas das imagens padrão (default-images/items e default-images/covers).
+ * Os originais têm até 3 MB; cada imagem ganha variantes JPEG em larguras fixas, gravadas em disco.
+ * As variantes são geradas na inicialização e, se alguma for pedida antes, sob demanda.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public static final List<String> FOLDERS = List.of("items", "covers");
+    private static final Pattern FILE_NAME = Pattern.compile("^[a-z0-9_]+\\.jpg$");
+    private static final float JPEG_QUALITY = 0.82f;
+
+    /**
+     * Larguras disponíveis: miniatura, card do cardápio e tela cheia.
+     */
+    public enum Variant {
+        THUMB(160), CARD(480), FULL(1280);
+
+        private final int width;
+
+        Variant(int width) {
+            this.width = width;
+        }
+
+        public int getWidth() { return width; }
+
+        public static Optional<Variant> ofWidth(int width) {
+            return Stream.of(values()).filter(v -> v.width == width).findFirst();
+        }
+    }
+
+    private final Path sourceRoot;
+    private final Path cacheRoot;
+    private final boolean warmUp;
+    // Um lock por variante: duas requisições simultâneas não geram o mesmo arquivo duas vezes
+    private final ConcurrentHashMap<Path, Object> locks = new ConcurrentHashMap<>();
+    // Hash do conteúdo de cada variante; vale enquanto data de modificação e tamanho não mudarem
+    private final ConcurrentHashMap<Path, VariantFile> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Variante em disco com o hash do seu conteúdo, usado na URL versionada e como ETag.
+     */
+    public record VariantFile(Path path, long length, long lastModified, String hash) {}
+
+    public ImageVariantService(@Value("${app.images.source-dir:default-images}") String sourceDir,
+                               @Value("${app.images.variant-dir:image-cache}") String variantDir,
+                               @Value("${app.images.warm-up:true}") boolean warmUp) {
+        this.sourceRoot = Paths.get(sourceDir);
+        this.cacheRoot = Paths.get(variantDir);
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Gera em segundo plano as variantes que ainda não existem ou estão desatualizadas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUp) {
+            Thread.ofPlatform().daemon().name("image-variants").start(this::generateAll);
+        }
+    }
+
+    void generateAll() {
+        for (String folder : FOLDERS) {
+            Path dir = sourceRoot.resolve(folder);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : files.filter(f -> isValidName(f.getFileName().toString())).toList()) {
+                    for (Variant variant : Variant.values()) {
+                        resolve(folder, file.getFileName().toString(), variant);
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Falha ao gerar variantes de {}: {}", dir, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Caminho da variante em disco, gerada se necessário. Vazio se a imagem original não existe.
+     */
+    public Optional<Path> resolve(String folder, String fileName, Variant variant) {
+        if (!FOLDERS.contains(folder) || !isValidName(fileName)) {
+            return Optional.empty();
+        }
+        Path source = sourceRoot.resolve(folder).resolve(fileName);
+        if (!Files.isRegularFile(source)) {
+            return Optional.empty();
+        }
+        Path target = cacheRoot.resolve(folder).resolve(Integer.toString(variant.getWidth())).resolve(fileName);
+        if (isFresh(target, source)) {
+            return Optional.of(target);
+        }
+        synchronized (locks.computeIfAbsent(target, t -> new Object())) {
+            if (!isFresh(target, source)) {
+                generate(source, target, variant.getWidth());
+            }
+        }
+        return Optional.of(target);
+    }
+
+    /**
+     * Como resolve(), mas com tamanho e hash do conteúdo da variante.
+     */
+    public Optional<VariantFile> resolveFile(String folder, String fileName, Variant variant) {
+        return resolve(folder, fileName, variant).map(this::fingerprint);
+    }
+
+    private VariantFile fingerprint(Path file) {
+        try {
+            long length = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            VariantFile known = fingerprints.get(file);
+            if (known != null && known.length() == length && known.lastModified() == lastModified) {
+                return known;
+            }
+            VariantFile computed = new VariantFile(file, length, lastModified, sha256(file));
+            fingerprints.put(file, computed);
+            return computed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler variante " + file, e);
+        }
+    }
+
+    // 64 bits do SHA-256 bastam para versionar algumas dezenas de arquivos
+    private static String sha256(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static boolean isValidName(String fileName) {
+        return fileName != null && FILE_NAME.matcher(fileName).matches();
+    }
+
+    private static boolean isFresh(Path target, Path source) {
+        try {
+            return Files.isRegularFile(target)
+                    && !Files.getLastModifiedTime(target).toInstant().isBefore(Files.getLastModifiedTime(source).toInstant());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void generate(Path source, Path target, int width) {
+        try {
+            BufferedImage scaled = scale(read(source, width), width);
+            Files.createDirectories(target.getParent());
+            // Grava em arquivo temporário e renomeia: quem lê nunca vê uma variante pela metade
+            Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                writeJpeg(scaled, tmp);
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gerar variante " + width + "px de " + source, e);
+        }
+    }
+
+    // Decodifica com subamostragem quando o original é muito maior que o alvo: evita montar 12 MP na memória
+    private static BufferedImage read(Path source, int width) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Formato de imagem não suportado: " + source);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int factor = Math.max(1, reader.getWidth(0) / (width * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width) {
+        int targetWidth = Math.min(width, image.getWidth());
+        int targetHeight = Math.max(1, Math.round(image.getHeight() * (targetWidth / (float) image.getWidth())));
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
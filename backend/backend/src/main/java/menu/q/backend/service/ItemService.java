@@ -1,10 +1,11 @@
 package menu.q.backend.service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -18,35 +19,46 @@ import menu.q.backend.repository.RestaurantRepository;
 import menu.q.backend.repository.OrderItemRepository;
 import menu.q.backend.util.ImageValidator;
 import menu.q.backend.util.CategoryImageMapper;
+import menu.q.backend.util.CursorPage;
+import menu.q.backend.util.TextNormalizer;
 
 @Service
 public class ItemService {
     
     private final ItemRepository itemRepository;
     
-    public List<Item> searchByName(String name) {
-        return itemRepository.findByNameContainingIgnoreCase(name);
+    // Limite da busca por nome, servida pelo índice em memória
+    private static final int SEARCH_LIMIT = 200;
+    // Lote lido por vez quando a listagem de um usuário é filtrada por nome
+    private static final int FILTER_BATCH = 500;
+
+    public List<ItemDto> searchByName(String name) {
+        return searchIndexService.searchItems(name, null, SEARCH_LIMIT);
     }
 
-    public List<Item> getByRestaurantId(Long restaurantId) {
-        return itemRepository.findByRestaurantId(restaurantId);
+    public CursorPage<ItemDto> getByRestaurantId(Long restaurantId, Long after, int limit) {
+        List<ItemDto> rows = itemRepository.findDtoPageByRestaurantId(restaurantId, after != null ? after : 0L, CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, ItemDto::getId);
     }
 
-    public List<Item> getFeaturedByRestaurantId(Long restaurantId) {
-        return itemRepository.findFeaturedByRestaurantId(restaurantId);
+    public CursorPage<ItemDto> getFeaturedByRestaurantId(Long restaurantId, Long after, int limit) {
+        List<ItemDto> rows = itemRepository.findFeaturedDtoPageByRestaurantId(restaurantId, after != null ? after : 0L, CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, ItemDto::getId);
     }
 
     private final UserRepository userRepository;
     private final RestaurantRepository restaurantRepository;
     private final OrderItemRepository orderItemRepository;
     private final ImageValidator imageValidator;
+    private final SearchIndexService searchIndexService;
 
-    public ItemService(ItemRepository itemRepository, UserRepository userRepository, RestaurantRepository restaurantRepository, OrderItemRepository orderItemRepository, ImageValidator imageValidator) {
+    public ItemService(ItemRepository itemRepository, UserRepository userRepository, RestaurantRepository restaurantRepository, OrderItemRepository orderItemRepository, ImageValidator imageValidator, SearchIndexService searchIndexService) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.restaurantRepository = restaurantRepository;
         this.orderItemRepository = orderItemRepository;
         this.imageValidator = imageValidator;
+        this.searchIndexService = searchIndexService;
     }
 
     public Item createItem(ItemDto itemDto) {
@@ -91,7 +103,9 @@ public class ItemService {
                     .orElseThrow(() -> new EntityNotFoundException("Restaurant not found with id: " + itemDto.getRestaurantId()));
             item.setRestaurant(restaurant);
         }
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        searchIndexService.indexItem(saved);
+        return saved;
     }
 
     public Optional<Item> getItemById(Long itemId) {
@@ -99,14 +113,14 @@ public class ItemService {
     }
 
     public void deleteItem(Long itemId) {
-        if (!itemRepository.existsById(itemId)) {
-            throw new EntityNotFoundException("Item not found with id: " + itemId);
-        }
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new EntityNotFoundException("Item not found with id: " + itemId));
         List<menu.q.backend.model.OrderItem> orderItems = orderItemRepository.findByItemId(itemId);
         if (!orderItems.isEmpty()) {
             throw new IllegalStateException("Cannot delete item with id " + itemId + " because it is referenced in " + orderItems.size() + " order(s)");
         }
         itemRepository.deleteById(itemId);
+        searchIndexService.removeItem(itemId);
     }
 
     public Item updateItem(Long itemId, ItemDto itemDto) {
@@ -121,23 +135,37 @@ public class ItemService {
             item.setImage(imageValidator.resolveImageUrl(imageId));
         }
         if (itemDto.getPrice() != null) item.setPrice(itemDto.getPrice());
-        if (itemDto.getImage() != null) item.setImage(itemDto.getImage());
+        if (itemDto.getImage() != null) item.setImage(imageValidator.resolveImageUrl(itemDto.getImage()));
         if (itemDto.getCategory() != null) item.setCategory(itemDto.getCategory());
         if (itemDto.getFeatured() != null) item.setFeatured(itemDto.getFeatured());
 
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        searchIndexService.indexItem(saved);
+        return saved;
     }
 
-    public List<Item> getItemsByUserId(Long userId, String name) {
+    public CursorPage<ItemDto> getItemsByUserId(Long userId, String name, Long after, int limit) {
         if (!userRepository.existsById(userId)) {
             throw new EntityNotFoundException("Usuário não encontrado com o id: " + userId);
         }
-        List<Item> items = itemRepository.findByUserId(userId);
-        if (name != null && !name.isEmpty()) {
-            return items.stream()
-                    .filter(item -> item.getName().toLowerCase().contains(name.toLowerCase()))
-                    .collect(Collectors.toList());
+        long cursor = after != null ? after : 0L;
+        if (name == null || name.isEmpty()) {
+            return CursorPage.of(itemRepository.findDtoPageByUserId(userId, cursor, CursorPage.fetchLimit(limit)), limit, ItemDto::getId);
+        }
+        // O filtro ignora acentos e roda em memória: lê lotes pelo cursor até completar a página
+        List<ItemDto> matches = new ArrayList<>();
+        while (matches.size() <= limit) {
+            List<ItemDto> batch = itemRepository.findDtoPageByUserId(userId, cursor, Limit.of(FILTER_BATCH));
+            for (ItemDto item : batch) {
+                if (TextNormalizer.containsFolded(item.getName(), name)) {
+                    matches.add(item);
+                }
+            }
+            if (batch.size() < FILTER_BATCH) {
+                break;
+            }
+            cursor = batch.get(batch.size() - 1).getId();
         }
-        return items;
+        return CursorPage.of(matches, limit, ItemDto::getId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+package menu.q.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import jakarta.persistence.EntityNotFoundException;
+import menu.q.backend.config.CacheNames;
+import menu.q.backend.model.Employee;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.repository.EmployeeRepository;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+
+/**
+ * Snapshot pré-serializado do cardápio público de cada restaurante.
+ * O JSON é montado uma única vez e reaproveitado em todas as leituras por QR Code;
+ * só é reconstruído depois que itens, funcionários ou o próprio restaurante mudam (CacheInvalidationListener).
+ * Os snapshots ficam no cache "menuSnapshots", limitado por app.cache.menuSnapshots.*.
+ */
+@Service
+public class MenuSnapshotService {
+
+    private static final byte[] TABLE_NUMBER_FIELD = ",\"tableNumber\":".getBytes(StandardCharsets.UTF_8);
+
+    private final RestaurantRepository restaurantRepository;
+    private final ItemRepository itemRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+
+    private final Cache<Long, MenuSnapshot> snapshots;
+    // Geração por restaurante: impede que um rebuild iniciado antes de uma escrita publique dados velhos
+    private final ConcurrentHashMap<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public MenuSnapshotService(RestaurantRepository restaurantRepository, ItemRepository itemRepository,
+                               EmployeeRepository employeeRepository, ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager, CacheManager cacheManager) {
+        this.restaurantRepository = restaurantRepository;
+        this.itemRepository = itemRepository;
+        this.employeeRepository = employeeRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.snapshots = nativeCache(cacheManager);
+    }
+
+    /**
+     * Retorna o snapshot atual do restaurante, montando-o se ainda não existir.
+     */
+    public MenuSnapshot getSnapshot(Long restaurantId) {
+        MenuSnapshot cached = snapshots.getIfPresent(restaurantId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generations.getOrDefault(restaurantId, 0L);
+        MenuSnapshot fresh = readOnlyTx.execute(status -> build(restaurantId));
+        // Se houve escrita durante o rebuild, responde com o que foi lido mas não publica no cache
+        MenuSnapshot published = snapshots.asMap().compute(restaurantId, (id, current) ->
+                generations.getOrDefault(id, 0L) == generation ? fresh : current);
+        return published != null ? published : fresh;
+    }
+
+    /**
+     * Descarta o snapshot do restaurante. Chamado nas escritas em itens, funcionários e restaurante.
+     */
+    public void invalidate(Long restaurantId) {
+        if (restaurantId == null) {
+            return;
+        }
+        generations.merge(restaurantId, 1L, Long::sum);
+        snapshots.invalidate(restaurantId);
+    }
+
+    /**
+     * Descarta todos os snapshots. Usado quando muda algo embutido em vários cardápios (avatar dos usuários).
+     */
+    public void invalidateAll() {
+        snapshots.asMap().keySet().forEach(this::invalidate);
+    }
+
+    // O snapshot é publicado com compute no mapa do Caffeine, que a interface Cache do Spring não oferece
+    @SuppressWarnings("unchecked")
+    private static Cache<Long, MenuSnapshot> nativeCache(CacheManager cacheManager) {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheNames.MENU_SNAPSHOTS);
+        return (Cache<Long, MenuSnapshot>) (Cache<?, ?>) cache.getNativeCache();
+    }
+
+    private MenuSnapshot build(Long restaurantId) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new EntityNotFoundException("Restaurante não encontrado"));
+        List<Item> items = itemRepository.findWithUserByRestaurantId(restaurantId);
+        List<Employee> employees = employeeRepository.findByRestaurantId(restaurantId);
+
+        Map<String, Object> restaurantJson = new LinkedHashMap<>();
+        restaurantJson.put("id", restaurant.getId());
+        restaurantJson.put("name", restaurant.getName());
+        restaurantJson.put("description", restaurant.getDescription() != null ? restaurant.getDescription() : "");
+        restaurantJson.put("cover", restaurant.getCover() != null ? restaurant.getCover() : "");
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("restaurant", restaurantJson);
+        body.put("items", items);
+        body.put("employees", employees);
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            // Remove o "}" final para que o número da mesa seja anexado por requisição
+            byte[] prefix = Arrays.copyOf(json, json.length - 1);
+            return new MenuSnapshot(restaurant.getId(), restaurant.getTableCount(), prefix);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar cardápio do restaurante " + restaurantId, e);
+        }
+    }
+
+    /**
+     * Cardápio imutável de um restaurante. Apenas o número da mesa varia entre requisições.
+     */
+    public static final class MenuSnapshot {
+        private final Long restaurantId;
+        private final int tableCount;
+        private final byte[] prefix;
+
+        MenuSnapshot(Long restaurantId, int tableCount, byte[] prefix) {
+            this.restaurantId = restaurantId;
+            this.tableCount = tableCount;
+            this.prefix = prefix;
+        }
+
+        public Long getRestaurantId() { return restaurantId; }
+        public int getTableCount() { return tableCount; }
+
+        /**
+         * Monta o corpo da resposta com o número da mesa informado.
+         */
+        public byte[] render(int tableNumber) {
+            byte[] table = Integer.toString(tableNumber).getBytes(StandardCharsets.US_ASCII);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + TABLE_NUMBER_FIELD.length + table.length + 1);
+            out.writeBytes(prefix);
+            out.writeBytes(TABLE_NUMBER_FIELD);
+            out.writeBytes(table);
+            out.write('}');
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package menu.q.backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import menu.q.backend.data.dto.OrderDTO;
+import menu.q.backend.model.ArchivedOrder;
+import menu.q.backend.model.Order;
+import menu.q.backend.repository.ArchivedOrderRepository;
+import menu.q.backend.repository.OrderItemRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.util.CursorPage;
+
+/**
+ * Arquivamento de pedidos antigos: pedidos criados antes de app.orders.archive.max-age saem de orders e
+ * order_items e vão para archived_orders, um por linha, com o conteúdo em JSON comprimido.
+ *
+ * O trabalho roda em segundo plano a cada app.orders.archive.interval, em lotes de
+ * app.orders.archive.batch-size pedidos, cada lote na sua transação e com uma pausa entre eles.
+ * O corte é sempre no começo de uma hora: uma hora de vendas fica inteira em orders ou inteira no arquivo.
+ * Os contadores de vendas não mudam ao arquivar. O histórico arquivado é lido por aqui, descomprimindo cada pedido.
+ * O JSON guardado é o OrderDTO da API (data.dto): um campo novo nele precisa aceitar ficar nulo, porque os
+ * pedidos já arquivados não o têm.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration maxAge;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final ScheduledExecutorService archiver;
+
+    public OrderArchiveService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                               ArchivedOrderRepository archivedOrderRepository, ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.orders.archive.enabled:true}") boolean enabled,
+                               @Value("${app.orders.archive.max-age:180d}") Duration maxAge,
+                               @Value("${app.orders.archive.batch-size:500}") int batchSize,
+                               @Value("${app.orders.archive.interval:1h}") Duration interval,
+                               @Value("${app.orders.archive.pause:200ms}") Duration pause) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.orders.archive.batch-size deve ser maior que zero");
+        }
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+        this.pauseMillis = pause.toMillis();
+        if (enabled) {
+            archiver = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("order-archiver").factory());
+            archiver.scheduleWithFixedDelay(this::scheduledArchive, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            archiver = null;
+        }
+    }
+
+    /**
+     * Arquiva os pedidos mais velhos que app.orders.archive.max-age e retorna quantos foram movidos.
+     */
+    public int archiveExpired() {
+        return archiveBefore(LocalDateTime.now().minus(maxAge));
+    }
+
+    /**
+     * Arquiva, em lotes, os pedidos criados antes do corte (arredondado para o começo da hora).
+     */
+    public synchronized int archiveBefore(LocalDateTime cutoff) {
+        LocalDateTime hour = cutoff.truncatedTo(ChronoUnit.HOURS);
+        int archived = 0;
+        while (true) {
+            int moved = tx.execute(status -> archiveBatch(hour));
+            archived += moved;
+            if (moved < batchSize) {
+                return archived;
+            }
+            // Deixa espaço para o tráfego normal entre um lote e outro
+            sleep(pauseMillis);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findIdsCreatedBefore(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> rows = orderRepository.findWithItemsByIdIn(ids).stream()
+                .map(order -> toArchive(order, now))
+                .toList();
+        archivedOrderRepository.saveAll(rows);
+        archivedOrderRepository.flush();
+        orderItemRepository.deleteByOrderIdIn(ids);
+        orderRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    public Optional<OrderDTO> findById(Long orderId) {
+        return readOnlyTx.execute(status -> archivedOrderRepository.findPayloadById(orderId)).map(this::decompress);
+    }
+
+    public CursorPage<OrderDTO> getByRestaurant(Long restaurantId, Long before, int limit) {
+        return page(readOnlyTx.execute(status ->
+                archivedOrderRepository.findPageByRestaurantId(restaurantId, newest(before), CursorPage.fetchLimit(limit))), limit);
+    }
+
+    public CursorPage<OrderDTO> getByBuyer(Long buyerId, Long before, int limit) {
+        return page(readOnlyTx.execute(status ->
+                archivedOrderRepository.findPageByBuyerId(buyerId, newest(before), CursorPage.fetchLimit(limit))), limit);
+    }
+
+    /**
+     * Percorre os pedidos arquivados do restaurante, do mais novo para o mais antigo, um por vez.
+     */
+    public void forEachByRestaurant(Long restaurantId, Consumer<OrderDTO> action) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<byte[]> payloads = archivedOrderRepository.streamPayloadsByRestaurantId(restaurantId)) {
+                payloads.map(this::decompress).forEach(action);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (archiver != null) {
+            archiver.shutdownNow();
+        }
+    }
+
+    private void scheduledArchive() {
+        try {
+            int archived = archiveExpired();
+            if (archived > 0) {
+                log.info("Pedidos arquivados: {}", archived);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao arquivar pedidos, nova tentativa no próximo ciclo: {}", e.getMessage());
+        }
+    }
+
+    // Descomprime só os pedidos da página, depois de descartar a linha extra
+    private CursorPage<OrderDTO> page(List<Object[]> rows, int limit) {
+        return CursorPage.of(rows, limit, row -> (Long) row[0]).map(row -> decompress((byte[]) row[1]));
+    }
+
+    private ArchivedOrder toArchive(Order order, LocalDateTime now) {
+        Long buyerId = order.getBuyer() != null ? order.getBuyer().getId() : null;
+        return new ArchivedOrder(order.getId(), order.getRestaurant().getId(), buyerId, order.getStatus(), order.getTotal(),
+                order.getCreatedAt(), now, compress(OrderDTO.fromOrder(order)));
+    }
+
+    private byte[] compress(OrderDTO order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes, BUFFER_SIZE)) {
+            objectMapper.writeValue(out, order);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private OrderDTO decompress(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload), BUFFER_SIZE)) {
+            return objectMapper.readValue(in, OrderDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Mesma ordem das listagens de pedidos: o cursor é o menor id já entregue
+    private static Long newest(Long before) {
+        return before != null ? before : Long.MAX_VALUE;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
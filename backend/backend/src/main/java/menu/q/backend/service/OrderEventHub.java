@@ -0,0 +1,272 @@
+package menu.q.backend.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publica eventos de pedidos (criação e mudança de status) via Server-Sent Events para o painel
+ * do restaurante e para o convidado que acompanha o próprio pedido.
+ *
+ * Conexões ociosas não prendem threads: o SseEmitter roda em modo assíncrono e o envio acontece
+ * em virtual threads, só quando há algo na fila do assinante. Cada assinante tem uma fila limitada;
+ * quem não acompanha o ritmo é desconectado e retoma pelo Last-Event-ID. Cada restaurante guarda
+ * os últimos eventos para essa retomada; se o id pedido já saiu do histórico o cliente recebe
+ * "reset" e deve recarregar a listagem.
+ *
+ * Cada nó tem o próprio hub: os eventos publicados em outra instância chegam pelo CacheInvalidationTransport
+ * (OrderService.relay). Os ids dos eventos são de cada nó; quem reconecta em outra instância pode receber "reset".
+ */
+@Service
+public class OrderEventHub {
+
+    public static final String ORDER_CREATED = "order-created";
+    public static final String STATUS_CHANGED = "status-changed";
+    public static final String RESET = "reset";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventHub.class);
+    private static final int HISTORY_SIZE = 128;
+    private static final int BUFFER_SIZE = 64;
+    private static final Object HEARTBEAT = new Object();
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final ConcurrentHashMap<Long, Topic> topics = new ConcurrentHashMap<>();
+    // Ids crescem entre reinícios, então um Last-Event-ID de antes do boot nunca parece recente
+    private final long bootSequence = System.currentTimeMillis() * 1000;
+    private final AtomicLong sequence = new AtomicLong(bootSequence);
+    private final ExecutorService delivery = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("sse-heartbeat").factory());
+
+    public OrderEventHub(ObjectMapper objectMapper,
+                         @Value("${app.events.timeout:30m}") Duration timeout,
+                         @Value("${app.events.heartbeat:15s}") Duration heartbeat) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Todos os eventos do restaurante (painel da cozinha).
+     */
+    public SseEmitter subscribeRestaurant(Long restaurantId, Long lastEventId) {
+        return subscribe(restaurantId, null, lastEventId, null);
+    }
+
+    /**
+     * Só os eventos de um pedido (acompanhamento pelo convidado). O estado atual é enviado logo na conexão.
+     */
+    public SseEmitter subscribeOrder(Long restaurantId, Long orderId, Long lastEventId, Object current) {
+        return subscribe(restaurantId, orderId, lastEventId, current);
+    }
+
+    public void publish(String type, Long restaurantId, Long orderId, Object payload) {
+        String json = toJson(payload);
+        Topic topic = topic(restaurantId);
+        synchronized (topic) {
+            OrderEvent event = new OrderEvent(sequence.incrementAndGet(), type, orderId, json);
+            if (topic.history.size() == HISTORY_SIZE) {
+                topic.floor = topic.history.removeFirst().id();
+            }
+            topic.history.addLast(event);
+            for (Subscriber subscriber : topic.subscribers) {
+                if (subscriber.accepts(event)) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    public boolean hasSubscribers(Long restaurantId) {
+        Topic topic = topics.get(restaurantId);
+        return topic != null && !topic.subscribers.isEmpty();
+    }
+
+    public int subscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.subscribers.size()).sum();
+    }
+
+    private SseEmitter subscribe(Long restaurantId, Long orderId, Long lastEventId, Object current) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Topic topic = topic(restaurantId);
+        Subscriber subscriber = new Subscriber(emitter, orderId);
+        emitter.onCompletion(() -> remove(topic, subscriber));
+        emitter.onTimeout(() -> remove(topic, subscriber));
+        emitter.onError(error -> remove(topic, subscriber));
+        if (current != null) {
+            subscriber.offer(new OrderEvent(0, STATUS_CHANGED, orderId, toJson(current)));
+        }
+        // Histórico e inscrição sob o mesmo lock: nenhum evento fica entre a retomada e os novos
+        synchronized (topic) {
+            if (lastEventId != null) {
+                replay(topic, subscriber, lastEventId);
+            }
+            topic.subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    private void replay(Topic topic, Subscriber subscriber, long lastEventId) {
+        List<OrderEvent> missed = new ArrayList<>();
+        if (lastEventId >= topic.floor && lastEventId <= sequence.get()) {
+            for (OrderEvent event : topic.history) {
+                if (event.id() > lastEventId && subscriber.accepts(event)) {
+                    missed.add(event);
+                }
+            }
+        }
+        // Fora do histórico (ou mais do que cabe na fila): o cliente recarrega pela listagem
+        if (missed.size() >= BUFFER_SIZE || lastEventId < topic.floor || lastEventId > sequence.get()) {
+            subscriber.offer(new OrderEvent(sequence.get(), RESET, null, "{}"));
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+
+    private Topic topic(Long restaurantId) {
+        return topics.computeIfAbsent(restaurantId, id -> new Topic(bootSequence));
+    }
+
+    private void remove(Topic topic, Subscriber subscriber) {
+        subscriber.closed = true;
+        topic.subscribers.remove(subscriber);
+    }
+
+    private void heartbeat() {
+        for (Topic topic : topics.values()) {
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar evento de pedido", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        for (Topic topic : topics.values()) {
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        delivery.shutdown();
+    }
+
+    /**
+     * Corpo dos eventos de status (e do estado inicial enviado a quem acompanha um pedido).
+     */
+    public static record OrderStatusEvent(Long orderId, String status) {}
+
+    /**
+     * Evento já serializado: o JSON é montado uma vez e enviado a todos os assinantes.
+     */
+    record OrderEvent(long id, String type, Long orderId, String json) {}
+
+    private static final class Topic {
+        private final ArrayDeque<OrderEvent> history = new ArrayDeque<>(HISTORY_SIZE);
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // Último id que já saiu do histórico: retomadas a partir dele ainda são completas
+        private long floor;
+
+        Topic(long floor) {
+            this.floor = floor;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long orderId;
+        private final ArrayBlockingQueue<Object> queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Long orderId) {
+            this.emitter = emitter;
+            this.orderId = orderId;
+        }
+
+        boolean accepts(OrderEvent event) {
+            return orderId == null || orderId.equals(event.orderId()) || RESET.equals(event.type());
+        }
+
+        // Nunca bloqueia quem publica: fila cheia significa cliente lento, que é desconectado
+        void offer(Object item) {
+            if (closed) {
+                return;
+            }
+            if (item == HEARTBEAT) {
+                // Heartbeat só vale para conexão parada; com eventos na fila ele é dispensável
+                if (!queue.isEmpty() || !queue.offer(item)) {
+                    return;
+                }
+            } else if (!queue.offer(item)) {
+                log.debug("Assinante de eventos de pedidos desconectado: fila cheia");
+                closed = true;
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                delivery.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Object item;
+                while (!closed && (item = queue.poll()) != null) {
+                    try {
+                        send(item);
+                    } catch (IOException | IllegalStateException e) {
+                        closed = true;
+                        emitter.completeWithError(e);
+                    }
+                }
+                draining.set(false);
+            } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void send(Object item) throws IOException {
+            if (item == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            OrderEvent event = (OrderEvent) item;
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.type()).data(event.json());
+            // O estado inicial do pedido não tem id, para não mexer no Last-Event-ID do cliente
+            if (event.id() > 0) {
+                builder.id(Long.toString(event.id()));
+            }
+            emitter.send(builder);
+        }
+    }
+}
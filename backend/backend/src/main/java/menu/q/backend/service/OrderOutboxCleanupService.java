@@ -0,0 +1,67 @@
+package menu.q.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import menu.q.backend.repository.OrderOutboxRepository;
+
+/**
+ * Retenção do outbox de pedidos: linhas mais velhas que app.orders.outbox.retention são apagadas a cada
+ * app.orders.outbox.cleanup-interval, como o transporte de invalidação faz com cache_invalidations.
+ * O feed /changes serve para acompanhar mudanças recentes; quem ficou parado mais que a retenção perde as
+ * linhas apagadas e deve recarregar a listagem.
+ */
+@Service
+public class OrderOutboxCleanupService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxCleanupService.class);
+
+    private final OrderOutboxRepository outboxRepository;
+    private final TransactionTemplate tx;
+    private final Duration retention;
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("order-outbox-cleanup").factory());
+
+    public OrderOutboxCleanupService(OrderOutboxRepository outboxRepository, PlatformTransactionManager transactionManager,
+                                     @Value("${app.orders.outbox.retention:7d}") Duration retention,
+                                     @Value("${app.orders.outbox.cleanup-interval:1h}") Duration interval) {
+        this.outboxRepository = outboxRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        cleaner.scheduleWithFixedDelay(this::scheduledPurge, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Apaga as linhas gravadas antes de app.orders.outbox.retention e retorna quantas foram.
+     */
+    public int purgeExpired() {
+        return tx.execute(status -> outboxRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+    }
+
+    private void scheduledPurge() {
+        try {
+            int purged = purgeExpired();
+            if (purged > 0) {
+                log.info("Linhas antigas do outbox de pedidos apagadas: {}", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao limpar o outbox de pedidos, nova tentativa no próximo ciclo: {}", e.getMessage());
+        }
+    }
+}
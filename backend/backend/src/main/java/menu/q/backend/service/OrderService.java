@@ -1,20 +1,50 @@
 package menu.q.backend.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import menu.q.backend.config.CacheInvalidationTransport;
+import menu.q.backend.config.EntityChange;
+import menu.q.backend.data.dto.OrderDTO;
+import menu.q.backend.data.dto.OrderLineDto;
 import menu.q.backend.model.Item;
 import menu.q.backend.model.Order;
 import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.OrderOutboxEvent;
+import menu.q.backend.model.OrderStatus;
 import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.TableSession;
 import menu.q.backend.model.User;
 import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.OrderOutboxRepository;
 import menu.q.backend.repository.OrderRepository;
 import menu.q.backend.repository.RestaurantRepository;
 import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.OrderEventHub.OrderStatusEvent;
+import menu.q.backend.util.CursorPage;
 
 @Service
 public class OrderService {
@@ -22,20 +52,88 @@ public class OrderService {
     // Limites de segurança para pedidos
     private static final int MAX_ITEMS_PER_ORDER = 100;
     private static final int MAX_QUANTITY_PER_ITEM = 50;
+    // Tentativas de uma mudança de status que perdeu para outra mudança concorrente
+    private static final int MAX_STATUS_ATTEMPTS = 5;
+    // Pedidos simultâneos na mesma mesa disputam a conta da mesa: o perdedor refaz a transação
+    private static final int MAX_CREATE_ATTEMPTS = 10;
 
     private final OrderRepository orderRepository;
+    private final OrderOutboxRepository outboxRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final RestaurantRepository restaurantRepository;
+    private final OrderEventHub orderEventHub;
+    private final SalesRollupService salesRollupService;
+    private final TableSessionService tableSessionService;
+    private final EntityManager entityManager;
+    private final ObjectProvider<CacheInvalidationTransport> transport;
+    private final int exportFetchSize;
+    private final Duration outboxGapTimeout;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
 
-    public OrderService(OrderRepository orderRepository, UserRepository userRepository, ItemRepository itemRepository, RestaurantRepository restaurantRepository) {
+    public OrderService(OrderRepository orderRepository, OrderOutboxRepository outboxRepository, UserRepository userRepository, ItemRepository itemRepository, RestaurantRepository restaurantRepository, OrderEventHub orderEventHub, SalesRollupService salesRollupService, TableSessionService tableSessionService, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                        ObjectProvider<CacheInvalidationTransport> transport,
+                        @Value("${app.orders.export.fetch-size:500}") int exportFetchSize,
+                        @Value("${app.orders.outbox.gap-timeout:10s}") Duration outboxGapTimeout) {
         this.orderRepository = orderRepository;
+        this.outboxRepository = outboxRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
         this.restaurantRepository = restaurantRepository;
+        this.orderEventHub = orderEventHub;
+        this.salesRollupService = salesRollupService;
+        this.tableSessionService = tableSessionService;
+        this.entityManager = entityManager;
+        this.transport = transport;
+        this.exportFetchSize = exportFetchSize;
+        this.outboxGapTimeout = outboxGapTimeout;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
+    /**
+     * Cria o pedido numa única transação: os itens do cardápio são lidos com uma consulta só
+     * e as linhas do pedido vão para o banco num lote JDBC no commit.
+     * Pedidos com mesa entram na conta aberta da mesa na mesma transação.
+     * Depois do commit o pedido é publicado para quem acompanha o restaurante, neste nó e nos outros.
+     */
     public Order createOrder(Long userId, Long restaurantId, Integer tableNumber, String guestName, List<OrderItemRequest> itemsReq) {
+        Order created = null;
+        for (int attempt = 1; created == null; attempt++) {
+            try {
+                created = tx.execute(status -> doCreateOrder(userId, restaurantId, tableNumber, guestName, itemsReq));
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (tableNumber == null || !isTableSessionConflict(e)) {
+                    throw e;
+                }
+                if (attempt == MAX_CREATE_ATTEMPTS) {
+                    throw new IllegalStateException("Conta da mesa alterada por outro pedido, tente novamente", e);
+                }
+            }
+        }
+        orderEventHub.publish(OrderEventHub.ORDER_CREATED, restaurantId, created.getId(), OrderDTO.fromOrder(created));
+        broadcast(new EntityChange(EntityChange.Type.ORDER_CREATED, created.getId(), restaurantId));
+        return created;
+    }
+
+    // Só a disputa pela conta da mesa vale nova tentativa: versão da conta alterada ou outra conta aberta
+    // na mesma mesa (chave única de table_sessions). Qualquer outra violação sobe na hora.
+    private static boolean isTableSessionConflict(RuntimeException e) {
+        if (e instanceof OptimisticLockingFailureException) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase(Locale.ROOT).contains(TableSession.OPEN_TABLE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private Order doCreateOrder(Long userId, Long restaurantId, Integer tableNumber, String guestName, List<OrderItemRequest> itemsReq) {
         User user = null;
         if (userId != null) {
             user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
@@ -63,7 +161,6 @@ public class OrderService {
             throw new IllegalArgumentException("Pedido excede o limite máximo de " + MAX_ITEMS_PER_ORDER + " items");
         }
         
-        BigDecimal total = BigDecimal.ZERO;
         for (OrderItemRequest ir : itemsReq) {
             // Validação: quantidade deve ser positiva
             if (ir.quantity == null || ir.quantity <= 0) {
@@ -74,8 +171,27 @@ public class OrderService {
             if (ir.quantity > MAX_QUANTITY_PER_ITEM) {
                 throw new IllegalArgumentException("Quantidade por item não pode exceder " + MAX_QUANTITY_PER_ITEM + " unidades");
             }
-            
-            Item item = itemRepository.findById(ir.itemId).orElseThrow(() -> new EntityNotFoundException("Item not found: " + ir.itemId));
+            if (ir.itemId == null) {
+                throw new IllegalArgumentException("Item do pedido sem id");
+            }
+        }
+
+        // Itens do cardápio numa consulta só (WHERE id IN ...), sempre do banco: o preço cobrado não pode vir do
+        // cache de segundo nível desta réplica, que fica com o valor antigo até a invalidação de outro nó chegar.
+        // O cache continua servindo o cardápio exibido
+        Map<Long, Item> itemsById = entityManager.unwrap(Session.class).byMultipleIds(Item.class)
+                .with(CacheMode.IGNORE)
+                .multiLoad(itemsReq.stream().map(ir -> ir.itemId).distinct().toList())
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItemRequest ir : itemsReq) {
+            Item item = itemsById.get(ir.itemId);
+            if (item == null) {
+                throw new EntityNotFoundException("Item not found: " + ir.itemId);
+            }
             
             // Validação: item deve pertencer ao restaurante do pedido
             if (item.getRestaurant() != null && !item.getRestaurant().getId().equals(restaurantId)) {
@@ -87,26 +203,161 @@ public class OrderService {
             total = total.add(item.getPrice().multiply(BigDecimal.valueOf(ir.quantity)));
         }
         order.setTotal(total);
-        order.setStatus(menu.q.backend.model.OrderStatus.PENDING);
+        order.setStatus(OrderStatus.PENDING);
+        tableSessionService.addOrder(order);
+
+        Order saved = orderRepository.save(order);
+        salesRollupService.recordAfterCommit(saved, 1);
+        return saved;
+    }
 
-        return orderRepository.save(order);
+    /**
+     * Move o pedido para outro status. Não trava a linha: o UPDATE confere a versão do pedido e,
+     * se outra mudança chegou antes, o pedido é relido e a transição validada de novo.
+     * A linha do outbox é gravada na mesma transação; repetir o status atual não grava nada.
+     */
+    public StatusChange changeStatus(Long orderId, OrderStatus target) {
+        if (target == null) {
+            throw new IllegalArgumentException("Status é obrigatório");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                StatusChange change = tx.execute(status -> doChangeStatus(orderId, target));
+                if (change.changed()) {
+                    orderEventHub.publish(OrderEventHub.STATUS_CHANGED, change.restaurantId(), orderId,
+                            new OrderStatusEvent(orderId, target.toString()));
+                    broadcast(new EntityChange(EntityChange.Type.ORDER_STATUS, orderId, change.restaurantId()));
+                }
+                return change;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_STATUS_ATTEMPTS) {
+                    throw new IllegalStateException("Pedido alterado por outra requisição, tente novamente", e);
+                }
+            }
+        }
+    }
+
+    private StatusChange doChangeStatus(Long orderId, OrderStatus target) {
+        Order order = orderRepository.findById(orderId).orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        OrderStatus current = order.getStatus();
+        Long restaurantId = order.getRestaurant() != null ? order.getRestaurant().getId() : null;
+        if (current == target) {
+            return new StatusChange(orderId, restaurantId, current, target, order.getVersion(), false);
+        }
+        if (!current.canTransitionTo(target)) {
+            throw new IllegalArgumentException("Pedido não pode passar de " + current + " para " + target);
+        }
+        order.setStatus(target);
+        if (target == OrderStatus.CANCELLED) {
+            salesRollupService.recordAfterCommit(order, -1);
+        }
+        // Flush aqui para o conflito de versão aparecer antes de gravar o outbox
+        orderRepository.saveAndFlush(order);
+        if (target == OrderStatus.CANCELLED) {
+            tableSessionService.removeOrder(order);
+        }
+        outboxRepository.save(new OrderOutboxEvent(orderId, restaurantId, OrderEventHub.STATUS_CHANGED, current, target, order.getVersion()));
+        return new StatusChange(orderId, restaurantId, current, target, order.getVersion(), true);
+    }
+
+    /**
+     * Mudanças registradas no outbox do restaurante depois do id informado, em ordem.
+     *
+     * Ids de autoincremento são confirmados fora de ordem: uma linha com id menor pode aparecer depois de uma
+     * maior, e quem já passou dela com o cursor a perderia. Por isso a página para antes do primeiro buraco
+     * recente na sequência (linha ainda não confirmada ou INSERT desfeito); passado app.orders.outbox.gap-timeout
+     * do INSERT seguinte, o buraco é dado como desfeito. Garantia: cada mudança aparece uma vez, em ordem de id,
+     * desde que sua transação confirme dentro desse prazo (changeStatus grava o outbox logo antes do commit).
+     */
+    public CursorPage<OrderOutboxEvent> getChanges(Long restaurantId, Long after, int limit) {
+        Long afterGap = outboxRepository.findFirstAfterRecentGap(LocalDateTime.now().minus(outboxGapTimeout));
+        long upTo = afterGap != null ? afterGap - 1 : Long.MAX_VALUE;
+        List<OrderOutboxEvent> rows = outboxRepository.findPageByRestaurantId(restaurantId, after != null ? after : 0L, upTo, CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, OrderOutboxEvent::getId);
+    }
+
+    /**
+     * Evento de pedido publicado por outro nó: o pedido é relido do banco e entregue aos assinantes deste nó.
+     * Sem assinantes do restaurante aqui, não há leitura nem histórico para retomada.
+     */
+    public void relay(EntityChange change) {
+        Long restaurantId = change.parentId();
+        if (restaurantId == null || !orderEventHub.hasSubscribers(restaurantId)) {
+            return;
+        }
+        readOnlyTx.executeWithoutResult(status -> orderRepository.findById(change.id()).ifPresent(order -> {
+            if (change.type() == EntityChange.Type.ORDER_CREATED) {
+                orderEventHub.publish(OrderEventHub.ORDER_CREATED, restaurantId, order.getId(), OrderDTO.fromOrder(order));
+            } else {
+                orderEventHub.publish(OrderEventHub.STATUS_CHANGED, restaurantId, order.getId(),
+                        new OrderStatusEvent(order.getId(), order.getStatus().toString()));
+            }
+        }));
+    }
+
+    // Leva o evento já publicado aqui para os assinantes dos outros nós
+    private void broadcast(EntityChange change) {
+        transport.ifAvailable(bus -> bus.publish(change));
     }
 
     public Order getById(Long id) {
         return orderRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Order not found"));
     }
 
-    public List<Order> getByBuyer(Long buyerId) {
-        return orderRepository.findByBuyerId(buyerId);
+    public CursorPage<Order> getByBuyer(Long buyerId, Long before, int limit) {
+        return withItems(orderRepository.findIdPageByBuyerId(buyerId, newest(before), CursorPage.fetchLimit(limit)), limit);
     }
 
-    public List<Order> getByRestaurant(Long restaurantId) {
-        return orderRepository.findByRestaurantId(restaurantId);
+    public CursorPage<Order> getByRestaurant(Long restaurantId, Long before, int limit) {
+        return withItems(orderRepository.findIdPageByRestaurantId(restaurantId, newest(before), CursorPage.fetchLimit(limit)), limit);
+    }
+
+    public void requireRestaurant(Long restaurantId) {
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new EntityNotFoundException("Restaurant not found");
+        }
+    }
+
+    /**
+     * Percorre todos os pedidos do restaurante, do mais novo para o mais antigo, sem carregá-los de uma vez.
+     * A conexão fica aberta enquanto o consumidor processa as linhas. O fetch size vale só para este comando:
+     * no MySQL, Integer.MIN_VALUE faz o driver entregar linha a linha, sem cursor no servidor para o resto da aplicação.
+     */
+    public void forEachLineByRestaurant(Long restaurantId, Consumer<OrderLineDto> action) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<OrderLineDto> lines = entityManager.createQuery(OrderRepository.LINES_BY_RESTAURANT, OrderLineDto.class)
+                    .setParameter("restaurantId", restaurantId)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                    .getResultStream()) {
+                lines.forEach(action);
+            }
+        });
+    }
+
+    // Pedidos são listados do mais novo para o mais antigo: o cursor é o menor id já entregue
+    private static Long newest(Long before) {
+        return before != null ? before : Long.MAX_VALUE;
+    }
+
+    // Segunda consulta carrega os pedidos da página já com os itens, evitando uma consulta por pedido
+    private CursorPage<Order> withItems(List<Long> ids, int limit) {
+        CursorPage<Long> page = CursorPage.of(ids, limit, id -> id);
+        List<Order> orders = page.items().isEmpty() ? List.of() : orderRepository.findWithItemsByIdIn(page.items());
+        return new CursorPage<>(orders, page.nextCursor());
     }
 
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        tx.executeWithoutResult(status -> orderRepository.findById(id).ifPresent(order -> {
+            // Pedido removido sai das vendas (os cancelados já saíram)
+            if (order.getStatus() != OrderStatus.CANCELLED) {
+                salesRollupService.recordAfterCommit(order, -1);
+                tableSessionService.removeOrder(order);
+            }
+            orderRepository.delete(order);
+        }));
     }
 
     public static record OrderItemRequest(Long itemId, Integer quantity) {}
+
+    public static record StatusChange(Long orderId, Long restaurantId, OrderStatus from, OrderStatus to, long version, boolean changed) {}
 }
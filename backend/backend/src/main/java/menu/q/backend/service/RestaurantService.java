@@ -1,18 +1,21 @@
 package menu.q.backend.service;
 
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import jakarta.persistence.EntityNotFoundException;
+import menu.q.backend.config.CacheNames;
+import menu.q.backend.data.dto.EmployeeSummaryDto;
 import menu.q.backend.data.dto.RestaurantDto;
-import menu.q.backend.model.Employee;
+import menu.q.backend.data.dto.RestaurantSummaryDto;
 import menu.q.backend.model.Restaurant;
 import menu.q.backend.model.User;
 import menu.q.backend.repository.EmployeeRepository;
 import menu.q.backend.repository.RestaurantRepository;
 import menu.q.backend.repository.UserRepository;
+import menu.q.backend.util.CursorPage;
 import menu.q.backend.util.ImageValidator;
 
 @Service
@@ -22,23 +25,19 @@ public class RestaurantService {
     private final UserRepository userRepository;
     private final EmployeeRepository employeeRepository;
     private final ImageValidator imageValidator;
-    // simple in-memory caches to reduce DB hits for common read paths
-    private volatile List<Restaurant> cachedList = null;
-    private volatile long cachedListAt = 0L;
-    private final ConcurrentHashMap<Long, Restaurant> ownerCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Long, Long> ownerCacheAt = new ConcurrentHashMap<>();
-    private static final long CACHE_TTL_MS = 5000L; // 5 seconds
+    private final SearchIndexService searchIndexService;
 
-    public RestaurantService(RestaurantRepository restaurantRepository, UserRepository userRepository, EmployeeRepository employeeRepository, ImageValidator imageValidator) {
+    public RestaurantService(RestaurantRepository restaurantRepository, UserRepository userRepository, EmployeeRepository employeeRepository, ImageValidator imageValidator, SearchIndexService searchIndexService) {
         this.restaurantRepository = restaurantRepository;
         this.userRepository = userRepository;
         this.employeeRepository = employeeRepository;
         this.imageValidator = imageValidator;
+        this.searchIndexService = searchIndexService;
     }
 
     public Restaurant createRestaurant(Restaurant restaurant) {
         Restaurant saved = restaurantRepository.save(restaurant);
-        invalidateCaches(saved);
+        searchIndexService.indexRestaurant(saved);
         return saved;
     }
 
@@ -65,7 +64,7 @@ public class RestaurantService {
         restaurant.setOwner(owner);
         
         Restaurant saved = restaurantRepository.save(restaurant);
-        invalidateCaches(saved);
+        searchIndexService.indexRestaurant(saved);
         return saved;
     }
 
@@ -73,29 +72,18 @@ public class RestaurantService {
         return restaurantRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Restaurant not found"));
     }
 
-    public List<Restaurant> getAllRestaurants() {
-        long now = System.currentTimeMillis();
-        if (cachedList != null && (now - cachedListAt) < CACHE_TTL_MS) {
-            return cachedList;
-        }
-        List<Restaurant> fresh = restaurantRepository.findAll();
-        cachedList = fresh;
-        cachedListAt = now;
-        return fresh;
+    public CursorPage<RestaurantSummaryDto> getRestaurantsPage(Long after, int limit) {
+        List<RestaurantSummaryDto> rows = restaurantRepository.findSummaryPage(after != null ? after : 0L, CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, RestaurantSummaryDto::id);
     }
 
-    public Restaurant getRestaurantByOwner(Long ownerId) {
-        long now = System.currentTimeMillis();
-        Long at = ownerCacheAt.get(ownerId);
-        Restaurant cached = ownerCache.get(ownerId);
-        if (cached != null && at != null && (now - at) < CACHE_TTL_MS) {
-            return cached;
-        }
-        Restaurant fresh = restaurantRepository.findFirstByOwnerId(ownerId)
+    // Escritas no restaurante ou no dono invalidam a entrada (CacheInvalidationListener). O cache guarda uma
+    // cópia: a entidade gerenciada, compartilhada entre requisições, poderia ser alterada por quem a recebesse
+    @Cacheable(cacheNames = CacheNames.RESTAURANT_BY_OWNER, sync = true)
+    public RestaurantSummaryDto getRestaurantByOwner(Long ownerId) {
+        return restaurantRepository.findFirstByOwnerId(ownerId)
+                .map(RestaurantSummaryDto::of)
                 .orElseThrow(() -> new EntityNotFoundException("Restaurant not found for owner: " + ownerId));
-        ownerCache.put(ownerId, fresh);
-        ownerCacheAt.put(ownerId, now);
-        return fresh;
     }
 
     public Restaurant updateRestaurant(Long id, RestaurantDto dto) {
@@ -121,19 +109,12 @@ public class RestaurantService {
         }
         
         Restaurant saved = restaurantRepository.save(existing);
-        invalidateCaches(saved);
+        searchIndexService.indexRestaurant(saved);
         return saved;
     }
 
-    public List<Employee> getEmployeesByRestaurant(Long restaurantId) {
-        return employeeRepository.findByRestaurantId(restaurantId);
-    }
-
-    private void invalidateCaches(Restaurant saved) {
-        cachedListAt = 0L;
-        if (saved.getOwner() != null && saved.getOwner().getId() != null) {
-            ownerCache.put(saved.getOwner().getId(), saved);
-            ownerCacheAt.put(saved.getOwner().getId(), System.currentTimeMillis());
-        }
+    @Cacheable(cacheNames = CacheNames.EMPLOYEES_BY_RESTAURANT, sync = true)
+    public List<EmployeeSummaryDto> getEmployeesByRestaurant(Long restaurantId) {
+        return employeeRepository.findByRestaurantId(restaurantId).stream().map(EmployeeSummaryDto::of).toList();
     }
 }
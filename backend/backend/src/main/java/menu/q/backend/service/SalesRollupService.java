@@ -0,0 +1,299 @@
+package menu.q.backend.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import menu.q.backend.data.dto.SalesReportDto;
+import menu.q.backend.data.dto.SalesReportDto.HourSales;
+import menu.q.backend.data.dto.SalesReportDto.ItemSales;
+import menu.q.backend.data.dto.SalesReportDto.Totals;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.model.SalesRollup;
+import menu.q.backend.model.SalesRollupId;
+import menu.q.backend.repository.ArchivedOrderRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.SalesRollupRepository;
+
+/**
+ * Contadores de vendas por restaurante, item e hora (quantidade, receita e pedidos).
+ *
+ * Criar um pedido soma, cancelar ou remover um pedido não cancelado subtrai. Os deltas entram na memória
+ * só depois do commit e vão para a tabela sales_rollups em lotes, a cada app.rollups.flush-interval.
+ * O relatório junta a tabela com o que ainda não foi gravado. Deltas em memória se perdem numa
+ * queda do processo; rebuild(restaurantId) recalcula o restaurante a partir dos pedidos.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+    // Sem pedidos arquivados, o rebuild recalcula tudo
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final SalesRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean backfillOnStartup;
+
+    private final ConcurrentHashMap<SalesRollupId, Delta> pending = new ConcurrentHashMap<>();
+    // Flush e rebuild não se cruzam: o rebuild descarta os deltas pendentes do restaurante
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("sales-rollup-flush").factory());
+
+    public SalesRollupService(SalesRollupRepository rollupRepository, OrderRepository orderRepository,
+                              ArchivedOrderRepository archivedOrderRepository, PlatformTransactionManager transactionManager,
+                              @Value("${app.rollups.flush-interval:5s}") Duration flushInterval,
+                              @Value("${app.rollups.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.rollupRepository = rollupRepository;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.backfillOnStartup = backfillOnStartup;
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra o pedido (sign = 1) ou o desconta (sign = -1). Chamado dentro da transação que grava a mudança:
+     * os deltas só valem se ela fizer commit.
+     */
+    public void recordAfterCommit(Order order, int sign) {
+        Map<SalesRollupId, Delta> deltas = deltasOf(order, sign);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deltas.forEach(this::addPending);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach(SalesRollupService.this::addPending);
+            }
+        });
+    }
+
+    /**
+     * Grava os deltas pendentes numa transação e retorna quantos contadores mudaram.
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            Map<SalesRollupId, Delta> batch = new HashMap<>();
+            for (SalesRollupId key : pending.keySet()) {
+                Delta delta = pending.remove(key);
+                if (delta != null) {
+                    batch.put(key, delta);
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                tx.executeWithoutResult(status -> apply(batch));
+            } catch (RuntimeException e) {
+                // Volta para a fila; o próximo flush tenta de novo
+                batch.forEach(this::addPending);
+                throw e;
+            }
+            return batch.size();
+        }
+    }
+
+    /**
+     * Vendas do período [from, to), por hora e por item, sem consultar orders/order_items.
+     */
+    public SalesReportDto report(Long restaurantId, LocalDateTime from, LocalDateTime to) {
+        List<SalesRollup> rows = readOnlyTx.execute(status -> rollupRepository.findByRestaurantIdAndBucketBetween(restaurantId, from, to));
+        Map<SalesRollupId, Delta> merged = new HashMap<>();
+        for (SalesRollup row : rows) {
+            merged.put(row.getId(), new Delta(row.getItemName(), row.getQuantity(), row.getRevenue(), row.getOrders()));
+        }
+        pending.forEach((key, delta) -> {
+            if (key.getRestaurantId().equals(restaurantId) && !key.getBucket().isBefore(from) && key.getBucket().isBefore(to)) {
+                merged.merge(key, delta, Delta::plus);
+            }
+        });
+
+        TreeMap<LocalDateTime, Delta> hours = new TreeMap<>();
+        Map<Long, Delta> items = new HashMap<>();
+        merged.forEach((key, delta) -> {
+            if (key.getItemId() == SalesRollupId.ORDER_TOTALS) {
+                hours.merge(key.getBucket(), delta, Delta::plus);
+            } else {
+                items.merge(key.getItemId(), delta, Delta::plus);
+            }
+        });
+
+        List<HourSales> hourSales = new ArrayList<>();
+        long quantity = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        long orders = 0;
+        for (Map.Entry<LocalDateTime, Delta> hour : hours.entrySet()) {
+            Delta delta = hour.getValue();
+            if (delta.orders() == 0 && delta.quantity() == 0) {
+                continue; // Hora em que tudo foi cancelado
+            }
+            hourSales.add(new HourSales(hour.getKey(), delta.quantity(), delta.revenue(), delta.orders()));
+            quantity += delta.quantity();
+            revenue = revenue.add(delta.revenue());
+            orders += delta.orders();
+        }
+        List<ItemSales> itemSales = items.entrySet().stream()
+                .filter(item -> item.getValue().quantity() != 0)
+                .map(item -> new ItemSales(item.getKey(), item.getValue().name(), item.getValue().quantity(),
+                        item.getValue().revenue(), item.getValue().orders()))
+                .sorted(Comparator.comparing(ItemSales::revenue).reversed())
+                .toList();
+        return new SalesReportDto(restaurantId, from, to, new Totals(quantity, revenue, orders), hourSales, itemSales);
+    }
+
+    /**
+     * Recalcula os contadores do restaurante a partir dos pedidos (backfill ou correção).
+     * Horas já arquivadas não estão mais em orders: os contadores delas ficam como estão.
+     * Pedidos gravados durante o recálculo podem ser contados duas vezes; rodar fora do horário de pico.
+     */
+    public int rebuild(Long restaurantId) {
+        synchronized (flushLock) {
+            LocalDateTime since = archivedOrderRepository.findLatestCreatedAt(restaurantId)
+                    .map(latest -> latest.truncatedTo(ChronoUnit.HOURS).plusHours(1))
+                    .orElse(BEGINNING);
+            pending.keySet().removeIf(key -> key.getRestaurantId().equals(restaurantId) && !key.getBucket().isBefore(since));
+            return tx.execute(status -> {
+                rollupRepository.deleteByRestaurantIdSince(restaurantId, since);
+                Map<SalesRollupId, SalesRollup> rows = new LinkedHashMap<>();
+                for (Object[] hour : orderRepository.sumSalesByHour(restaurantId, OrderStatus.CANCELLED, since)) {
+                    SalesRollupId id = new SalesRollupId(restaurantId, SalesRollupId.ORDER_TOTALS, bucket(hour[0], hour[1]));
+                    rows.computeIfAbsent(id, SalesRollup::new).add(null, 0, (BigDecimal) hour[2], ((Number) hour[3]).longValue());
+                }
+                for (Object[] item : orderRepository.sumSalesByItemAndHour(restaurantId, OrderStatus.CANCELLED, since)) {
+                    LocalDateTime bucket = bucket(item[2], item[3]);
+                    long quantity = ((Number) item[4]).longValue();
+                    rows.computeIfAbsent(new SalesRollupId(restaurantId, (Long) item[0], bucket), SalesRollup::new)
+                            .add((String) item[1], quantity, (BigDecimal) item[5], ((Number) item[6]).longValue());
+                    // A quantidade total da hora é a soma das linhas
+                    rows.computeIfAbsent(new SalesRollupId(restaurantId, SalesRollupId.ORDER_TOTALS, bucket), SalesRollup::new)
+                            .add(null, quantity, BigDecimal.ZERO, 0);
+                }
+                rollupRepository.saveAll(rows.values());
+                return rows.size();
+            });
+        }
+    }
+
+    /**
+     * Recalcula todos os restaurantes com pedidos e retorna quantos contadores foram gravados.
+     */
+    public int rebuildAll() {
+        int rows = 0;
+        for (Long restaurantId : orderRepository.findRestaurantIdsWithOrders()) {
+            rows += rebuild(restaurantId);
+        }
+        return rows;
+    }
+
+    // Tabela vazia com pedidos existentes: primeira subida com os contadores, preenche em segundo plano
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup && rollupRepository.count() == 0 && orderRepository.count() > 0) {
+            Thread.ofPlatform().daemon().name("sales-rollup-backfill").start(() -> {
+                int rows = rebuildAll();
+                log.info("Contadores de vendas reconstruídos: {} linhas", rows);
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        scheduledFlush();
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar contadores de vendas, nova tentativa no próximo ciclo: {}", e.getMessage());
+        }
+    }
+
+    private void addPending(SalesRollupId key, Delta delta) {
+        pending.merge(key, delta, Delta::plus);
+    }
+
+    private void apply(Map<SalesRollupId, Delta> batch) {
+        List<Long> restaurantIds = batch.keySet().stream().map(SalesRollupId::getRestaurantId).distinct().toList();
+        List<LocalDateTime> buckets = batch.keySet().stream().map(SalesRollupId::getBucket).distinct().toList();
+        Map<SalesRollupId, SalesRollup> rows = rollupRepository.findByRestaurantIdInAndBucketIn(restaurantIds, buckets).stream()
+                .collect(Collectors.toMap(SalesRollup::getId, Function.identity()));
+        batch.forEach((key, delta) -> rows.computeIfAbsent(key, SalesRollup::new)
+                .add(delta.name(), delta.quantity(), delta.revenue(), delta.orders()));
+        rollupRepository.saveAll(batch.keySet().stream().map(rows::get).toList());
+    }
+
+    private static Map<SalesRollupId, Delta> deltasOf(Order order, int sign) {
+        Long restaurantId = order.getRestaurant().getId();
+        LocalDateTime bucket = order.getCreatedAt().truncatedTo(ChronoUnit.HOURS);
+        Map<SalesRollupId, Delta> deltas = new HashMap<>();
+        long quantity = 0;
+        Map<Long, List<OrderItem>> lines = order.getItems().stream().collect(Collectors.groupingBy(OrderItem::getItemId));
+        for (Map.Entry<Long, List<OrderItem>> line : lines.entrySet()) {
+            long itemQuantity = 0;
+            BigDecimal itemRevenue = BigDecimal.ZERO;
+            for (OrderItem oi : line.getValue()) {
+                itemQuantity += oi.getQuantity();
+                itemRevenue = itemRevenue.add(oi.getPrice().multiply(BigDecimal.valueOf(oi.getQuantity())));
+            }
+            quantity += itemQuantity;
+            deltas.put(new SalesRollupId(restaurantId, line.getKey(), bucket),
+                    new Delta(line.getValue().get(0).getName(), sign * itemQuantity, itemRevenue.multiply(BigDecimal.valueOf(sign)), sign));
+        }
+        deltas.put(new SalesRollupId(restaurantId, SalesRollupId.ORDER_TOTALS, bucket),
+                new Delta(null, sign * quantity, order.getTotal().multiply(BigDecimal.valueOf(sign)), sign));
+        return deltas;
+    }
+
+    private static LocalDateTime bucket(Object date, Object hour) {
+        return ((LocalDate) date).atTime(((Number) hour).intValue(), 0);
+    }
+
+    /**
+     * Variação de um contador. Imutável: somado com merge no mapa de pendentes.
+     */
+    record Delta(String name, long quantity, BigDecimal revenue, long orders) {
+        Delta plus(Delta other) {
+            return new Delta(other.name != null ? other.name : name, quantity + other.quantity,
+                    revenue.add(other.revenue), orders + other.orders);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package menu.q.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.util.TextNormalizer;
+
+/**
+ * Índice invertido em memória para busca de itens e restaurantes.
+ * Termos são normalizados sem acento e sem caixa e casam como prefixo (o exato pontua mais),
+ * o que atende a digitação incremental. O índice é carregado na inicialização e atualizado
+ * pelas escritas de ItemService e RestaurantService; as feitas em outros nós chegam pelo
+ * CacheInvalidationListener, que chama refreshItem e refreshRestaurant.
+ */
+@Service
+public class SearchIndexService {
+
+    // Peso de cada campo no ranking; termo exato vale o dobro de um prefixo
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ItemRepository itemRepository;
+    private final RestaurantRepository restaurantRepository;
+
+    // Trocados por inteiro no rebuild; escritas avulsas vão direto para o índice atual
+    private volatile TokenIndex itemIndex = new TokenIndex();
+    private volatile TokenIndex restaurantIndex = new TokenIndex();
+    private final ConcurrentHashMap<Long, ItemDto> items = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, RestaurantMatch> restaurants = new ConcurrentHashMap<>();
+
+    public SearchIndexService(ItemRepository itemRepository, RestaurantRepository restaurantRepository) {
+        this.itemRepository = itemRepository;
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    public static record RestaurantMatch(Long id, String name) {}
+
+    /**
+     * Recarrega o índice inteiro a partir do banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        indexItems(itemRepository.findAllDto());
+        List<TokenIndex.Doc> docs = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        for (Object[] row : restaurantRepository.findAllIdAndName()) {
+            RestaurantMatch match = new RestaurantMatch((Long) row[0], (String) row[1]);
+            restaurants.put(match.id(), match);
+            docs.add(restaurantDoc(match));
+            ids.add(match.id());
+        }
+        restaurantIndex = TokenIndex.build(docs);
+        // Como nos itens: restaurantes apagados desde a última carga saem do mapa
+        restaurants.keySet().retainAll(ids);
+    }
+
+    /**
+     * Substitui o índice de itens pelos informados, montando tudo de uma vez.
+     */
+    public synchronized void indexItems(List<ItemDto> dtos) {
+        List<TokenIndex.Doc> docs = new ArrayList<>(dtos.size());
+        for (ItemDto dto : dtos) {
+            items.put(dto.getId(), dto);
+            docs.add(itemDoc(dto));
+        }
+        itemIndex = TokenIndex.build(docs);
+        items.keySet().retainAll(dtos.stream().map(ItemDto::getId).collect(Collectors.toSet()));
+    }
+
+    public void indexItem(Item item) {
+        Long userId = item.getUser() != null ? item.getUser().getId() : null;
+        Long restaurantId = item.getRestaurant() != null ? item.getRestaurant().getId() : null;
+        indexItem(new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getPrice(),
+                item.getCategory(), item.getImage(), userId, restaurantId, item.getFeatured()));
+    }
+
+    public synchronized void indexItem(ItemDto dto) {
+        items.put(dto.getId(), dto);
+        itemIndex.put(itemDoc(dto));
+    }
+
+    public synchronized void removeItem(Long itemId) {
+        itemIndex.remove(itemId);
+        items.remove(itemId);
+    }
+
+    public void indexRestaurant(Restaurant restaurant) {
+        indexRestaurant(new RestaurantMatch(restaurant.getId(), restaurant.getName()));
+    }
+
+    private synchronized void indexRestaurant(RestaurantMatch match) {
+        restaurants.put(match.id(), match);
+        restaurantIndex.put(restaurantDoc(match));
+    }
+
+    public synchronized void removeRestaurant(Long restaurantId) {
+        restaurantIndex.remove(restaurantId);
+        restaurants.remove(restaurantId);
+    }
+
+    /**
+     * Relê o item do banco e o reindexa, ou o tira do índice se não existe mais. Para escritas feitas em outro nó.
+     */
+    public void refreshItem(Long itemId) {
+        itemRepository.findDtoById(itemId).ifPresentOrElse(this::indexItem, () -> removeItem(itemId));
+    }
+
+    /**
+     * Mesmo que refreshItem, para um restaurante.
+     */
+    public void refreshRestaurant(Long restaurantId) {
+        restaurantRepository.findNameById(restaurantId).ifPresentOrElse(
+                name -> indexRestaurant(new RestaurantMatch(restaurantId, name)), () -> removeRestaurant(restaurantId));
+    }
+
+    /**
+     * Busca itens pelo nome, descrição e categoria, ordenados por relevância.
+     * @param restaurantId opcional; restringe a busca ao cardápio de um restaurante
+     */
+    public List<ItemDto> searchItems(String query, Long restaurantId, int limit) {
+        long group = restaurantId != null ? restaurantId : TokenIndex.NO_GROUP;
+        List<ItemDto> result = new ArrayList<>();
+        for (long id : itemIndex.search(query, limit, group)) {
+            ItemDto dto = items.get(id);
+            if (dto != null) {
+                result.add(copyOf(dto));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Busca restaurantes pelo nome, ordenados por relevância.
+     */
+    public List<RestaurantMatch> searchRestaurants(String query, int limit) {
+        List<RestaurantMatch> result = new ArrayList<>();
+        for (long id : restaurantIndex.search(query, limit, TokenIndex.NO_GROUP)) {
+            RestaurantMatch match = restaurants.get(id);
+            if (match != null) {
+                result.add(match);
+            }
+        }
+        return result;
+    }
+
+    private static TokenIndex.Doc itemDoc(ItemDto dto) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, dto.getDescription(), DESCRIPTION_WEIGHT);
+        addTokens(weights, dto.getCategory(), CATEGORY_WEIGHT);
+        addTokens(weights, dto.getName(), NAME_WEIGHT);
+        long group = dto.getRestaurantId() != null ? dto.getRestaurantId() : TokenIndex.NO_GROUP;
+        return new TokenIndex.Doc(dto.getId(), group, length(dto.getName()), weights);
+    }
+
+    private static TokenIndex.Doc restaurantDoc(RestaurantMatch match) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, match.name(), NAME_WEIGHT);
+        return new TokenIndex.Doc(match.id(), TokenIndex.NO_GROUP, length(match.name()), weights);
+    }
+
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            weights.merge(token, weight, Math::max);
+        }
+    }
+
+    // Desempate do ranking: nomes mais curtos primeiro
+    private static int length(String name) {
+        return name != null ? name.length() : Integer.MAX_VALUE;
+    }
+
+    // DTOs devolvidos recebem links HATEOAS; a cópia mantém o índice intacto
+    private static ItemDto copyOf(ItemDto dto) {
+        return new ItemDto(dto.getId(), dto.getName(), dto.getDescription(), dto.getPrice(), dto.getCategory(),
+                dto.getImage(), dto.getUserId(), dto.getRestaurantId(), dto.getFeatured());
+    }
+}
@@ -0,0 +1,95 @@
+package menu.q.backend.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityNotFoundException;
+import menu.q.backend.data.dto.TableBillDto;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.TableSession;
+import menu.q.backend.repository.TableSessionRepository;
+
+/**
+ * Contas das mesas. O primeiro pedido de uma mesa abre a conta e os seguintes somam nela; o pagamento fecha.
+ * A conta atual é uma leitura pela chave (restaurante, mesa), com total e linhas já prontos.
+ */
+@Service
+public class TableSessionService {
+
+    private static final int MAX_CLOSE_ATTEMPTS = 5;
+
+    private final TableSessionRepository tableSessionRepository;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+
+    public TableSessionService(TableSessionRepository tableSessionRepository, PlatformTransactionManager transactionManager) {
+        this.tableSessionRepository = tableSessionRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Soma o pedido na conta aberta da mesa, abrindo uma se preciso. Chamado na transação que cria o pedido,
+     * antes de gravá-lo. Pedidos simultâneos na mesma mesa esbarram na versão da conta, ou na chave única
+     * quando ambos abririam a conta; o pedido perdedor é refeito (ver OrderService.createOrder).
+     */
+    public void addOrder(Order order) {
+        Integer tableNumber = order.getTableNumber();
+        if (tableNumber == null) {
+            return; // Delivery ou retirada: sem mesa, sem conta
+        }
+        Long restaurantId = order.getRestaurant().getId();
+        TableSession session = tableSessionRepository.findOpen(restaurantId, tableNumber).orElse(null);
+        if (session == null) {
+            // Conta nova já vai com o pedido no INSERT, sem um UPDATE logo em seguida
+            session = new TableSession(restaurantId, tableNumber);
+            session.apply(order, 1);
+            session = tableSessionRepository.save(session);
+        } else {
+            session.apply(order, 1);
+        }
+        order.setTableSessionId(session.getId());
+    }
+
+    /**
+     * Retira da conta um pedido cancelado ou removido. Contas já fechadas não mudam.
+     */
+    public void removeOrder(Order order) {
+        if (order.getTableSessionId() == null) {
+            return;
+        }
+        tableSessionRepository.findWithLinesById(order.getTableSessionId())
+                .filter(TableSession::isOpen)
+                .ifPresent(session -> session.apply(order, -1));
+    }
+
+    public TableBillDto currentBill(Long restaurantId, Integer tableNumber) {
+        return readOnlyTx.execute(status -> tableSessionRepository.findOpen(restaurantId, tableNumber)
+                .map(TableBillDto::from)
+                .orElseThrow(() -> new EntityNotFoundException("Mesa " + tableNumber + " sem conta aberta")));
+    }
+
+    /**
+     * Fecha a conta (pagamento) e retorna os valores finais. O próximo pedido da mesa abre outra.
+     * Se um pedido entrar na conta durante o fechamento, a conta é relida e fechada com ele.
+     */
+    public TableBillDto close(Long restaurantId, Integer tableNumber) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> {
+                    TableSession session = tableSessionRepository.findOpen(restaurantId, tableNumber)
+                            .orElseThrow(() -> new EntityNotFoundException("Mesa " + tableNumber + " sem conta aberta"));
+                    session.close();
+                    return TableBillDto.from(session);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_CLOSE_ATTEMPTS) {
+                    throw new IllegalStateException("Conta alterada por outra requisição, tente novamente", e);
+                }
+            }
+        }
+    }
+}
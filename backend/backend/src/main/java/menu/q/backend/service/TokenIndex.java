@@ -0,0 +1,442 @@
+package menu.q.backend.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import menu.q.backend.util.TextNormalizer;
+
+/**
+ * Índice invertido usado pelo SearchIndexService.
+ * Cada documento recebe um ordinal inteiro; as listas de ocorrência (posting lists) são arrays ordenados
+ * de ordinais, trocados por cópia a cada escrita. Assim as leituras não bloqueiam e a pontuação de uma
+ * consulta é feita em arrays primitivos, sem boxing.
+ */
+final class TokenIndex {
+
+    /** Grupo usado quando a busca não é restrita (ex.: restaurante de um item). */
+    static final long NO_GROUP = Long.MIN_VALUE;
+
+    // Consultas com mais termos que isso consideram só os primeiros
+    private static final int MAX_TERMS = 8;
+
+    private final ConcurrentSkipListMap<String, Posting> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Integer> ordinals = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Scratch> scratches = new ConcurrentLinkedQueue<>();
+
+    // Termos de cada ordinal; só acessado pelas escritas, que são serializadas
+    private String[][] tokensByOrd = new String[16][];
+    private volatile Docs docs = new Docs(16);
+    private int nextOrd;
+
+    /**
+     * Documento a ser indexado: termos normalizados e seus pesos.
+     */
+    record Doc(long id, long group, int tieBreak, Map<String, Integer> weights) {}
+
+    /**
+     * Monta um índice inteiro de uma vez, sem o custo de copiar as listas a cada documento.
+     */
+    static TokenIndex build(List<Doc> documents) {
+        TokenIndex index = new TokenIndex();
+        Map<String, PostingBuilder> builders = new HashMap<>();
+        for (Doc doc : documents) {
+            if (index.ordinals.containsKey(doc.id())) {
+                continue;
+            }
+            int ord = index.assign(doc);
+            doc.weights().forEach((token, weight) ->
+                    builders.computeIfAbsent(token, t -> new PostingBuilder()).add(ord, weight));
+        }
+        builders.forEach((token, builder) -> index.postings.put(token, builder.build()));
+        return index;
+    }
+
+    synchronized void put(Doc doc) {
+        Integer existing = ordinals.get(doc.id());
+        if (existing == null) {
+            int ord = assign(doc);
+            doc.weights().forEach((token, weight) -> postings.compute(token, (t, p) -> Posting.with(p, ord, weight)));
+            return;
+        }
+        int ord = existing;
+        for (String token : tokensByOrd[ord]) {
+            if (!doc.weights().containsKey(token)) {
+                postings.computeIfPresent(token, (t, p) -> p.without(ord));
+            }
+        }
+        doc.weights().forEach((token, weight) -> postings.compute(token, (t, p) -> Posting.with(p, ord, weight)));
+        tokensByOrd[ord] = doc.weights().keySet().toArray(String[]::new);
+        Docs current = docs;
+        current.groups[ord] = doc.group();
+        current.tieBreaks[ord] = doc.tieBreak();
+    }
+
+    synchronized void remove(long id) {
+        Integer ord = ordinals.remove(id);
+        if (ord == null) {
+            return;
+        }
+        for (String token : tokensByOrd[ord]) {
+            postings.computeIfPresent(token, (t, p) -> p.without(ord));
+        }
+        tokensByOrd[ord] = null;
+    }
+
+    int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * Busca os ids mais relevantes. Todos os termos precisam casar (AND), sempre como prefixo;
+     * o termo exato vale o dobro. Empates: menor tieBreak, depois menor id.
+     * @param group NO_GROUP para não filtrar
+     */
+    long[] search(String query, int limit, long group) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+        if (terms.size() > MAX_TERMS) {
+            terms = terms.subList(0, MAX_TERMS);
+        }
+        Posting[][] matches = new Posting[terms.size()][];
+        int[][] factors = new int[terms.size()][];
+        for (int k = 0; k < terms.size(); k++) {
+            String term = terms.get(k);
+            Map<String, Posting> range = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+            if (range.isEmpty()) {
+                return new long[0];
+            }
+            matches[k] = new Posting[range.size()];
+            factors[k] = new int[range.size()];
+            int i = 0;
+            for (Map.Entry<String, Posting> entry : range.entrySet()) {
+                if (i == matches[k].length) {
+                    break;
+                }
+                matches[k][i] = entry.getValue();
+                factors[k][i] = entry.getKey().length() == term.length() ? 2 : 1;
+                i++;
+            }
+        }
+
+        // Lido depois das listas: a tabela vista cobre todos os ordinais que elas contêm
+        Docs table = docs;
+        Scratch s = borrow(table.ids.length);
+        try {
+            return rank(s, table, matches, factors, limit, group);
+        } finally {
+            scratches.offer(s);
+        }
+    }
+
+    private static long[] rank(Scratch s, Docs table, Posting[][] matches, int[][] factors, int limit, long group) {
+        int gen = s.nextGeneration();
+        int[] acc = s.acc;
+        int capacity = Math.min(acc.length / Scratch.SLOTS, table.ids.length);
+        int termCount = matches.length;
+        int[] candidates = s.candidates;
+        int candidateCount = 0;
+
+        for (int k = 0; k < termCount; k++) {
+            for (int p = 0; p < matches[k].length; p++) {
+                Posting posting = matches[k][p];
+                if (posting == null) {
+                    continue;
+                }
+                int factor = factors[k][p];
+                int[] ords = posting.ords;
+                byte[] weights = posting.weights;
+                for (int i = 0; i < ords.length; i++) {
+                    int ord = ords[i];
+                    if (ord >= capacity) {
+                        continue;
+                    }
+                    int w = weights[i] * factor;
+                    int at = ord * Scratch.SLOTS;
+                    if (acc[at] != gen) {
+                        if (k != 0) {
+                            continue;
+                        }
+                        acc[at] = gen;
+                        acc[at + Scratch.MATCHED] = 1;
+                        acc[at + Scratch.TOTAL] = w;
+                        acc[at + Scratch.LAST] = w;
+                        if (termCount == 1) {
+                            candidates[candidateCount++] = ord;
+                        }
+                    } else if (acc[at + Scratch.MATCHED] == k) {
+                        // Primeiro casamento deste termo
+                        acc[at + Scratch.MATCHED] = k + 1;
+                        acc[at + Scratch.TOTAL] += w;
+                        acc[at + Scratch.LAST] = w;
+                        if (k + 1 == termCount) {
+                            candidates[candidateCount++] = ord;
+                        }
+                    } else if (acc[at + Scratch.MATCHED] == k + 1 && w > acc[at + Scratch.LAST]) {
+                        // Outro termo do índice casou o mesmo prefixo: vale o melhor peso
+                        acc[at + Scratch.TOTAL] += w - acc[at + Scratch.LAST];
+                        acc[at + Scratch.LAST] = w;
+                    }
+                }
+            }
+        }
+
+        // Candidatos casaram todos os termos; as pontuações já estão completas
+        TopK top = new TopK(limit, acc, table);
+        for (int i = 0; i < candidateCount; i++) {
+            int ord = candidates[i];
+            if (group == NO_GROUP || table.groups[ord] == group) {
+                top.offer(ord);
+            }
+        }
+        return top.sortedIds();
+    }
+
+    private int assign(Doc doc) {
+        int ord = nextOrd++;
+        Docs current = docs;
+        if (ord >= current.ids.length) {
+            current = current.grow(Math.max(16, current.ids.length * 2));
+            tokensByOrd = Arrays.copyOf(tokensByOrd, current.ids.length);
+        }
+        current.ids[ord] = doc.id();
+        current.groups[ord] = doc.group();
+        current.tieBreaks[ord] = doc.tieBreak();
+        // Publica a tabela antes das listas que vão referenciar o ordinal
+        docs = current;
+        tokensByOrd[ord] = doc.weights().keySet().toArray(String[]::new);
+        ordinals.put(doc.id(), ord);
+        return ord;
+    }
+
+    private Scratch borrow(int capacity) {
+        Scratch s = scratches.poll();
+        while (s != null && s.acc.length < capacity * Scratch.SLOTS) {
+            // Descarta buffers menores que o índice atual
+            s = scratches.poll();
+        }
+        return s != null ? s : new Scratch(capacity);
+    }
+
+    /**
+     * Lista imutável de ordinais em ordem crescente e o peso de cada um.
+     */
+    private static final class Posting {
+        final int[] ords;
+        final byte[] weights;
+
+        Posting(int[] ords, byte[] weights) {
+            this.ords = ords;
+            this.weights = weights;
+        }
+
+        static Posting with(Posting current, int ord, int weight) {
+            if (current == null) {
+                return new Posting(new int[] {ord}, new byte[] {(byte) weight});
+            }
+            int at = Arrays.binarySearch(current.ords, ord);
+            if (at >= 0) {
+                byte[] weights = current.weights.clone();
+                weights[at] = (byte) weight;
+                return new Posting(current.ords, weights);
+            }
+            int insert = -at - 1;
+            int size = current.ords.length;
+            int[] ords = new int[size + 1];
+            byte[] weights = new byte[size + 1];
+            System.arraycopy(current.ords, 0, ords, 0, insert);
+            System.arraycopy(current.weights, 0, weights, 0, insert);
+            ords[insert] = ord;
+            weights[insert] = (byte) weight;
+            System.arraycopy(current.ords, insert, ords, insert + 1, size - insert);
+            System.arraycopy(current.weights, insert, weights, insert + 1, size - insert);
+            return new Posting(ords, weights);
+        }
+
+        // Retorna null quando a lista fica vazia, o que remove o termo do mapa
+        Posting without(int ord) {
+            int at = Arrays.binarySearch(ords, ord);
+            if (at < 0) {
+                return this;
+            }
+            int size = ords.length;
+            if (size == 1) {
+                return null;
+            }
+            int[] newOrds = new int[size - 1];
+            byte[] newWeights = new byte[size - 1];
+            System.arraycopy(ords, 0, newOrds, 0, at);
+            System.arraycopy(weights, 0, newWeights, 0, at);
+            System.arraycopy(ords, at + 1, newOrds, at, size - at - 1);
+            System.arraycopy(weights, at + 1, newWeights, at, size - at - 1);
+            return new Posting(newOrds, newWeights);
+        }
+    }
+
+    private static final class PostingBuilder {
+        private int[] ords = new int[4];
+        private byte[] weights = new byte[4];
+        private int size;
+
+        void add(int ord, int weight) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ords[size] = ord;
+            weights[size] = (byte) weight;
+            size++;
+        }
+
+        Posting build() {
+            return new Posting(Arrays.copyOf(ords, size), Arrays.copyOf(weights, size));
+        }
+    }
+
+    /**
+     * Dados por ordinal usados no ranking e no filtro.
+     */
+    private static final class Docs {
+        final long[] ids;
+        final long[] groups;
+        final int[] tieBreaks;
+
+        Docs(int capacity) {
+            this.ids = new long[capacity];
+            this.groups = new long[capacity];
+            this.tieBreaks = new int[capacity];
+        }
+
+        private Docs(long[] ids, long[] groups, int[] tieBreaks) {
+            this.ids = ids;
+            this.groups = groups;
+            this.tieBreaks = tieBreaks;
+        }
+
+        Docs grow(int capacity) {
+            return new Docs(Arrays.copyOf(ids, capacity), Arrays.copyOf(groups, capacity), Arrays.copyOf(tieBreaks, capacity));
+        }
+    }
+
+    /**
+     * Acumuladores de uma consulta, reaproveitados entre consultas. Os campos de cada ordinal ficam
+     * lado a lado no mesmo array (uma linha de cache), e o carimbo de geração dispensa zerá-lo a cada uso.
+     */
+    private static final class Scratch {
+        static final int SLOTS = 4;
+        static final int MATCHED = 1;
+        static final int TOTAL = 2;
+        static final int LAST = 3;
+
+        final int[] acc;
+        final int[] candidates;
+        private int generation;
+
+        Scratch(int capacity) {
+            acc = new int[capacity * SLOTS];
+            candidates = new int[capacity];
+        }
+
+        int nextGeneration() {
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(acc, 0);
+                generation = 0;
+            }
+            return ++generation;
+        }
+    }
+
+    /**
+     * Heap mínimo de tamanho fixo com os melhores ordinais; a raiz é o pior deles.
+     */
+    private static final class TopK {
+        private final int[] heap;
+        private final int[] acc;
+        private final Docs table;
+        private int size;
+
+        TopK(int limit, int[] acc, Docs table) {
+            this.heap = new int[limit];
+            this.acc = acc;
+            this.table = table;
+        }
+
+        void offer(int ord) {
+            if (size < heap.length) {
+                heap[size] = ord;
+                siftUp(size++);
+            } else if (better(ord, heap[0])) {
+                heap[0] = ord;
+                siftDown(0);
+            }
+        }
+
+        long[] sortedIds() {
+            int[] ords = Arrays.copyOf(heap, size);
+            // No máximo "limit" elementos: ordenação por inserção basta
+            for (int i = 1; i < ords.length; i++) {
+                int ord = ords[i];
+                int j = i - 1;
+                while (j >= 0 && better(ord, ords[j])) {
+                    ords[j + 1] = ords[j];
+                    j--;
+                }
+                ords[j + 1] = ord;
+            }
+            long[] ids = new long[ords.length];
+            for (int i = 0; i < ords.length; i++) {
+                ids[i] = table.ids[ords[i]];
+            }
+            return ids;
+        }
+
+        private boolean better(int a, int b) {
+            int scoreA = acc[a * Scratch.SLOTS + Scratch.TOTAL];
+            int scoreB = acc[b * Scratch.SLOTS + Scratch.TOTAL];
+            if (scoreA != scoreB) {
+                return scoreA > scoreB;
+            }
+            if (table.tieBreaks[a] != table.tieBreaks[b]) {
+                return table.tieBreaks[a] < table.tieBreaks[b];
+            }
+            return table.ids[a] < table.ids[b];
+        }
+
+        private void siftUp(int i) {
+            int ord = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(heap[parent], ord)) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = ord;
+        }
+
+        private void siftDown(int i) {
+            int ord = heap[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && better(heap[child], heap[right])) {
+                    child = right;
+                }
+                if (!better(ord, heap[child])) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = ord;
+        }
+    }
+}
@@ -2,14 +2,16 @@ package menu.q.backend.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import menu.q.backend.config.CacheNames;
 import menu.q.backend.data.dto.UserDTO;
 import menu.q.backend.model.User;
 import menu.q.backend.repository.UserRepository;
+import menu.q.backend.util.CursorPage;
 import menu.q.backend.util.ImageValidator;
 
 @Service
@@ -58,7 +60,7 @@ public class UserService {
         // Validar avatar se fornecido
         if (userDto.getAvatar() != null && !userDto.getAvatar().trim().isEmpty()) {
             imageValidator.validateImage(userDto.getAvatar());
-            user.setAvatar(userDto.getAvatar());
+            user.setAvatar(imageValidator.toReference(userDto.getAvatar()));
         }
         
         user.setPassword(passwordEncoder.encode(userDto.getPassword()));
@@ -67,21 +69,16 @@ public class UserService {
     }
 
     public User getUserById(Long id) {
-        try {
-            // Garantindo que só 1 usuário seja retornado mesmo se o banco estiver sujo
-            List<User> users = userRepository.findAll().stream()
-                    .filter(u -> u.getId().equals(id))
-                    .toList();
-
-            if (users.size() > 1) {
-                // Pega o primeiro e ignora duplicados extras
-                return users.get(0);
-            }
-
-            return users.isEmpty() ? null : users.get(0);
-        } catch (Exception e) {
-            return null; // evita crash do endpoint
-        }
+        return userRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Resumo do usuário pela chave primária, no cache "userSummaries", ou null se não existe.
+     * A instância é compartilhada entre as requisições: quem recebe não deve alterá-la.
+     */
+    @Cacheable(cacheNames = CacheNames.USER_SUMMARIES, sync = true)
+    public UserDTO getUserSummary(Long id) {
+        return userRepository.findDtoById(id).orElse(null);
     }
 
     public Optional<User> findByUsername(String username) {
@@ -95,16 +92,23 @@ public class UserService {
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("User not found: " + username));
     }
 
-    public List<User> getAllUsers(String username) {
-        List<User> users = userRepository.findAll();
+    public CursorPage<UserDTO> getUsersPage(Long after, int limit) {
+        List<UserDTO> rows = userRepository.findDtoPage(after != null ? after : 0L, CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, UserDTO::getId);
+    }
 
-        if (username != null && !username.isEmpty()) {
-            return users.stream()
-                    .filter(user -> user.getUsername().toLowerCase().contains(username.toLowerCase()))
-                    .collect(Collectors.toList());
+    /**
+     * Usuários cujo nome começa com (ou, com contains, contém) o texto, em ordem de nome e paginados
+     * por cursor. O prefixo usa o índice único de username; contains percorre o índice até encher a página.
+     */
+    public CursorPage<UserDTO> searchUsers(String username, boolean contains, Long after, int limit) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("username não pode ser vazio");
         }
-
-        return users;
+        String escaped = username.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        String pattern = (contains ? "%" : "") + escaped + "%";
+        List<UserDTO> rows = userRepository.searchDtoPage(pattern, after, CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, UserDTO::getId);
     }
 
     public User updateUser(Long id, UserDTO userDto) {
@@ -118,13 +122,13 @@ public class UserService {
 
         if (userDto.getAvatar() != null && !userDto.getAvatar().trim().isEmpty()) {
             imageValidator.validateImage(userDto.getAvatar()); // Valida ID de imagem padrão
-            user.setAvatar(userDto.getAvatar());
         }
 
         if (userDto.getUsername() != null) user.setUsername(userDto.getUsername());
         if (userDto.getEmail() != null) user.setEmail(userDto.getEmail());
-        if (userDto.getAvatar() != null) user.setAvatar(userDto.getAvatar());
+        if (userDto.getAvatar() != null) user.setAvatar(imageValidator.toReference(userDto.getAvatar()));
 
+        // O CacheInvalidationListener descarta o usuário dos caches: tokens e GET /api/users/{id} veem a alteração na hora
         return userRepository.save(user);
     }
 }
@@ -0,0 +1,83 @@
+package menu.q.backend.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Página de uma listagem paginada por cursor (keyset sobre o id).
+ * O corpo da resposta continua sendo a lista; o cursor da próxima página vai no cabeçalho
+ * X-Next-Cursor e no Link rel="next", e fica ausente na última página.
+ * Listagens em ordem crescente recebem o cursor em "after"; as do mais novo para o mais antigo
+ * (pedidos), em "before".
+ */
+public record CursorPage<T>(List<T> items, Long nextCursor) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String AFTER = "after";
+    public static final String BEFORE = "before";
+
+    /**
+     * Normaliza o limit recebido na query string.
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit deve ser maior que zero");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Limite da consulta: uma linha a mais que a página, para saber se existe próxima.
+     */
+    public static Limit fetchLimit(int limit) {
+        return Limit.of(limit + 1);
+    }
+
+    /**
+     * Monta a página a partir de até limit + 1 linhas já ordenadas pela chave do cursor.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> keyOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> page = rows.subList(0, limit);
+        return new CursorPage<>(page, keyOf.apply(page.get(limit - 1)));
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    /**
+     * Resposta 200 com a lista no corpo e os cabeçalhos de paginação.
+     */
+    public ResponseEntity<List<T>> toResponse() {
+        return toResponse(AFTER);
+    }
+
+    /**
+     * Como toResponse(), com o cursor do Link rel="next" no parâmetro informado.
+     */
+    public ResponseEntity<List<T>> toResponse(String cursorParam) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam(cursorParam, nextCursor)
+                    .build()
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(items);
+    }
+}
@@ -1,6 +1,9 @@
 package menu.q.backend.util;
 
 import menu.q.backend.model.DefaultImage;
+import menu.q.backend.service.BlobStoreService;
+import menu.q.backend.service.ImageVariantService;
+import menu.q.backend.service.ImageVariantService.Variant;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.util.Base64;
@@ -10,10 +13,19 @@ import java.util.Set;
 public class ImageValidator {
 
     private static final long MAX_IMAGE_SIZE_BYTES = 5 * 1024 * 1024; // 5MB
+    private static final String BLOB_PATH = "/api/blobs/";
     private static final Set<String> ALLOWED_TYPES = Set.of("image/jpeg", "image/png", "image/webp", "image/jpg");
     
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
+
+    private final ImageVariantService imageVariantService;
+    private final BlobStoreService blobStoreService;
+
+    public ImageValidator(ImageVariantService imageVariantService, BlobStoreService blobStoreService) {
+        this.imageVariantService = imageVariantService;
+        this.blobStoreService = blobStoreService;
+    }
     
     /**
      * Valida uma imagem. Aceita IDs de imagens padrão, nomes de capa de restaurante, ou base64 (deprecated).
@@ -44,6 +56,15 @@ public class ImageValidator {
             return; // Foto de funcionário válida
         }
 
+        // Se for uma imagem enviada para /api/blobs (nome ou URL), precisa existir no blob store
+        String blobName = blobName(image);
+        if (blobName != null) {
+            if (blobStoreService.find(blobName).isEmpty()) {
+                throw new IllegalArgumentException("Imagem não encontrada: " + blobName);
+            }
+            return;
+        }
+
         // Se for um ID de imagem padrão antigo, apenas verificar se existe
         if (!image.contains("data:image/") && DefaultImage.exists(image)) {
             return; // ID válido
@@ -98,21 +119,27 @@ public class ImageValidator {
     }
 
     /**
-     * Converte imageId para URL ou retorna o base64 original
+     * Converte imageId para URL. Base64 é gravado no blob store e vira a URL do blob.
      */
     public String resolveImageUrl(String image) {
         if (image == null || image.isEmpty()) {
             return null;
         }
 
-        // Se for um nome de capa de restaurante, retornar o caminho para a pasta de capas
+        // Se for um nome de capa de restaurante, retornar a variante de tela cheia da capa
         if (image.matches("^cover_restaurant_[1-4]\\.jpg$")) {
-            return baseUrl + "/default-images/covers/" + image;
+            return variantUrl("covers", Variant.FULL, image);
         }
 
-        // Se for um arquivo de imagem de item (acai.jpg, bebidas.jpg, etc)
+        // Se for um arquivo de imagem de item (acai.jpg, bebidas.jpg, etc), a variante do card do cardápio
         if (image.matches("^(acai|bebidas|brasileira|doces|fitness|japonesa|lanche|pizza)\\.jpg$")) {
-            return baseUrl + "/default-images/items/" + image;
+            return variantUrl("items", Variant.CARD, image);
+        }
+
+        // Imagem do blob store: grava só a URL curta
+        String blobName = blobName(image);
+        if (blobName != null) {
+            return blobUrl(blobName);
         }
 
         // Se for um ID de imagem padrão, retornar a URL
@@ -122,8 +149,45 @@ public class ImageValidator {
                     .orElse(image); // Se não encontrar, retorna o valor original
         }
 
-        // Se for base64, retorna como está
-        return image;
+        // Se for base64, o conteúdo vai para o blob store e a linha guarda só a URL
+        return toReference(image);
+    }
+
+    /**
+     * Valor curto para gravar no banco: base64 vai para o blob store e vira a URL do blob;
+     * IDs e URLs ficam como estão.
+     */
+    public String toReference(String image) {
+        if (image == null || !image.startsWith("data:image/")) {
+            return image;
+        }
+        return blobUrl(blobStoreService.storeDataUri(image).name());
+    }
+
+    /**
+     * URL pública de um blob (ver BlobController).
+     */
+    public String blobUrl(String blobName) {
+        return baseUrl + BLOB_PATH + blobName;
+    }
+
+    // Nome do blob a partir do próprio nome ou de uma URL /api/blobs/{nome}; null se não for blob
+    private static String blobName(String image) {
+        String name = image.startsWith("http") && image.contains(BLOB_PATH)
+                ? image.substring(image.lastIndexOf(BLOB_PATH) + BLOB_PATH.length())
+                : image;
+        return BlobStoreService.isValidName(name) ? name : null;
+    }
+
+    /**
+     * URL versionada de uma variante redimensionada de imagem padrão (ver ImageVariantController).
+     * O hash do conteúdo na URL permite cache imutável; sem o arquivo original, cai na URL sem hash.
+     */
+    public String variantUrl(String folder, Variant variant, String image) {
+        String base = baseUrl + "/default-images/" + folder + "/" + variant.getWidth() + "/";
+        return imageVariantService.resolveFile(folder, image, variant)
+                .map(file -> base + file.hash() + "/" + image)
+                .orElse(base + image);
     }
 
     public static long getMaxImageSizeBytes() {
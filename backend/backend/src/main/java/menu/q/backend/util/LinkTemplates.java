@@ -0,0 +1,96 @@
+package menu.q.backend.util;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import java.util.List;
+
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import menu.q.backend.controller.ItemController;
+import menu.q.backend.controller.UserController;
+import menu.q.backend.data.dto.ItemDto;
+
+/**
+ * Links HATEOAS de itens e usuários a partir de templates resolvidos uma única vez na inicialização.
+ * Evita um linkTo(methodOn(...)) por DTO: por requisição só a URI base é calculada, e cada link
+ * é montado por concatenação de strings.
+ */
+@Component
+public class LinkTemplates {
+
+    private static final String ID_PLACEHOLDER = "{id}";
+    private static final Long SENTINEL_ID = 918273645L;
+
+    private final String itemPath;
+    private final String userPath;
+    private final String userItemsPath;
+
+    public LinkTemplates() {
+        // Sem requisição ativa o WebMvcLinkBuilder gera apenas o caminho; o id sentinela vira o placeholder
+        this.itemPath = template(linkTo(methodOn(ItemController.class).getItemById(SENTINEL_ID)).withSelfRel().getHref());
+        this.userPath = template(linkTo(methodOn(UserController.class).getUserById(SENTINEL_ID)).withSelfRel().getHref());
+        this.userItemsPath = template(linkTo(methodOn(ItemController.class).getItemsByUserId(SENTINEL_ID, null, null, null)).withSelfRel().getHref());
+    }
+
+    /**
+     * Adiciona self, user e user-items a um item.
+     */
+    public void addItemLinks(ItemDto dto) {
+        addItemLinks(dto, currentBaseUri());
+    }
+
+    /**
+     * Adiciona os links de item a uma lista inteira, calculando a URI base uma só vez.
+     */
+    public void addItemLinks(List<ItemDto> dtos) {
+        String base = currentBaseUri();
+        for (ItemDto dto : dtos) {
+            addItemLinks(dto, base);
+        }
+    }
+
+    /**
+     * Adiciona o link self de um usuário.
+     */
+    public void addUserLinks(RepresentationModel<?> model, Long userId) {
+        addUserLinks(model, userId, currentBaseUri());
+    }
+
+    public String currentBaseUri() {
+        return ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+    }
+
+    public void addItemLinks(ItemDto dto, String base) {
+        dto.add(Link.of(expand(base, itemPath, dto.getId()), IanaLinkRelations.SELF));
+        dto.add(Link.of(expand(base, userPath, dto.getUserId()), "user"));
+        dto.add(Link.of(expand(base, userItemsPath, dto.getUserId()), "user-items"));
+    }
+
+    public void addUserLinks(RepresentationModel<?> model, Long userId, String base) {
+        model.add(Link.of(expand(base, userPath, userId), IanaLinkRelations.SELF));
+    }
+
+    private static String template(String href) {
+        String sentinel = SENTINEL_ID.toString();
+        int at = href.indexOf(sentinel);
+        if (at < 0) {
+            throw new IllegalStateException("Não foi possível resolver o template de link: " + href);
+        }
+        return href.substring(0, at) + ID_PLACEHOLDER + href.substring(at + sentinel.length());
+    }
+
+    private static String expand(String base, String path, Long id) {
+        int at = path.indexOf(ID_PLACEHOLDER);
+        StringBuilder href = new StringBuilder(base.length() + path.length() + 8)
+                .append(base)
+                .append(path, 0, at);
+        // Id nulo mantém a variável no template, como o WebMvcLinkBuilder fazia
+        href.append(id != null ? id.toString() : ID_PLACEHOLDER);
+        return href.append(path, at + ID_PLACEHOLDER.length(), path.length()).toString();
+    }
+}
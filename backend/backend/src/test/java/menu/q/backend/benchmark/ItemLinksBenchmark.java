@@ -0,0 +1,97 @@
+package menu.q.backend.benchmark;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import menu.q.backend.controller.ItemController;
+import menu.q.backend.controller.UserController;
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.util.LinkTemplates;
+
+/**
+ * JMH: custo de adicionar os links HATEOAS a 1000 itens, linkTo(methodOn(...)) contra LinkTemplates.
+ * Rodar com: mvn test -Pbenchmark -Dtest=ItemLinksBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemLinksBenchmark {
+
+    private static final int DTOS = 1000;
+
+    private LinkTemplates linkTemplates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/restaurants/1/items");
+        request.setServerName("api.menu4you.com");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        linkTemplates = new LinkTemplates();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<ItemDto> linkBuilder() {
+        List<ItemDto> dtos = dtos();
+        for (ItemDto dto : dtos) {
+            dto.add(linkTo(methodOn(ItemController.class).getItemById(dto.getId())).withSelfRel());
+            dto.add(linkTo(methodOn(UserController.class).getUserById(dto.getUserId())).withRel("user"));
+            dto.add(linkTo(methodOn(ItemController.class).getItemsByUserId(dto.getUserId(), null, null, null)).withRel("user-items"));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<ItemDto> linkTemplates() {
+        List<ItemDto> dtos = dtos();
+        linkTemplates.addItemLinks(dtos);
+        return dtos;
+    }
+
+    private static List<ItemDto> dtos() {
+        List<ItemDto> dtos = new ArrayList<>(DTOS);
+        for (long i = 0; i < DTOS; i++) {
+            dtos.add(new ItemDto(i, "Item " + i, null, BigDecimal.ONE, "Lanches", null, i % 50, 1L, false));
+        }
+        return dtos;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ItemLinksBenchmark.class.getSimpleName())
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(org.openjdk.jmh.runner.options.TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(org.openjdk.jmh.runner.options.TimeValue.seconds(1))
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package menu.q.backend.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import menu.q.backend.model.User;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.security.JwtAuthenticationFilter;
+import menu.q.backend.security.JwtUtil;
+import menu.q.backend.security.PrincipalCache;
+
+/**
+ * JMH: custo do filtro JWT por requisição, com o principal vindo de um repositório simulado (sem banco), conferindo o token a cada vez
+ * (LRU de tokens desligado) contra o LRU de tokens conferidos.
+ * Rodar com: mvn test -Pbenchmark -Dtest=JwtFilterBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "menuq_benchmark_secret_key_long_enough_for_hs256";
+
+    private JwtAuthenticationFilter uncached;
+    private JwtAuthenticationFilter cached;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findUsernameById(anyLong())).thenReturn(Optional.of("bench"));
+        PrincipalCache principalCache = new PrincipalCache(userRepository);
+        UserDetailsService userDetailsService = username -> {
+            throw new IllegalStateException("Tokens do benchmark têm id");
+        };
+
+        JwtUtil verifyEveryTime = new JwtUtil(SECRET, 3_600_000, 0);
+        uncached = new JwtAuthenticationFilter(verifyEveryTime, userDetailsService, principalCache);
+        cached = new JwtAuthenticationFilter(new JwtUtil(SECRET, 3_600_000, 10_000), userDetailsService, principalCache);
+        token = verifyEveryTime.generateToken(new User(1L, "bench", "bench@menuq.com"));
+    }
+
+    @Benchmark
+    public Authentication verifyEveryRequest() throws Exception {
+        return filter(uncached);
+    }
+
+    @Benchmark
+    public Authentication verifiedTokenCache() throws Exception {
+        return filter(cached);
+    }
+
+    private Authentication filter(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        Authentication[] result = new Authentication[1];
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> result[0] = SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+        return result[0];
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build()).run();
+    }
+}
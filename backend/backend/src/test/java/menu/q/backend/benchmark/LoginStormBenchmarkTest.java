@@ -0,0 +1,126 @@
+package menu.q.backend.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+
+/**
+ * Latência do cardápio público com e sem uma rajada de logins (BCrypt com custo de produção).
+ * O hash roda no executor limitado, então as leituras do cardápio continuam com CPU.
+ * Rodar com: mvn test -Pbenchmark -Dtest=LoginStormBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.auth.bcrypt-strength=10",
+        "app.auth.hashing.threads=0",
+        "app.auth.hashing.queue=8"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoginStormBenchmarkTest {
+
+    private static final int READS = 2000;
+    private static final int STORM_CLIENTS = 32;
+
+    @LocalServerPort private int port;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Long restaurantId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "storm-owner", "storm@menuq.com", null, passwordEncoder.encode("segredo123")));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Rajada", "Cardápio");
+        restaurant.setOwner(owner);
+        restaurant.setTableCount(10);
+        restaurantId = restaurantRepository.save(restaurant).getId();
+    }
+
+    @Test
+    void menuLatencyDuringLoginStorm() throws Exception {
+        readLatencies(200); // Aquecimento
+        long[] baseline = readLatencies(READS);
+
+        AtomicBoolean storming = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService storm = Executors.newFixedThreadPool(STORM_CLIENTS);
+        for (int i = 0; i < STORM_CLIENTS; i++) {
+            storm.submit(() -> {
+                while (storming.get()) {
+                    int status = send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"storm-owner\",\"password\":\"segredo123\"}"))
+                            .build());
+                    if (status == 200) {
+                        accepted.incrementAndGet();
+                    } else {
+                        // 503: o cliente espera o Retry-After antes de tentar de novo
+                        rejected.incrementAndGet();
+                        Thread.sleep(1000);
+                    }
+                }
+                return null;
+            });
+        }
+        Thread.sleep(1000); // Deixa a fila de hash encher
+        long[] duringStorm = readLatencies(READS);
+        storming.set(false);
+        storm.shutdown();
+        storm.awaitTermination(30, TimeUnit.SECONDS);
+
+        System.out.printf("[benchmark] cardápio sem logins: p50 %.2f ms, p99 %.2f ms%n", p(baseline, 50), p(baseline, 99));
+        System.out.printf("[benchmark] cardápio com %d clientes fazendo login: p50 %.2f ms, p99 %.2f ms (logins: %d ok, %d recusados com 503)%n",
+                STORM_CLIENTS, p(duringStorm, 50), p(duringStorm, 99), accepted.get(), rejected.get());
+    }
+
+    private long[] readLatencies(int reads) {
+        long[] latencies = new long[reads];
+        for (int i = 0; i < reads; i++) {
+            long start = System.nanoTime();
+            send(HttpRequest.newBuilder(uri("/api/public/menu/" + restaurantId + "/table/" + (1 + i % 10))).GET().build());
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static double p(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1e6;
+    }
+}
@@ -0,0 +1,103 @@
+package menu.q.backend.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import jakarta.persistence.EntityNotFoundException;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.OrderService;
+import menu.q.backend.service.OrderService.OrderItemRequest;
+
+/**
+ * Pedidos de 20 linhas por segundo: caminho antigo (um findById por linha, sem transação
+ * envolvendo o pedido) contra o atual (findAllById + linhas em lote). Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderCreationBenchmarkTest {
+
+    private static final int LINES = 20;
+    private static final long DURATION_MS = 3000;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderService orderService;
+
+    private Long restaurantId;
+    private final List<OrderItemRequest> lines = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "order-bench", "order-bench@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Pedidos em Lote", "Benchmark");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        for (int i = 0; i < LINES; i++) {
+            Item item = itemRepository.save(new Item("Prato " + i, "Item " + i, BigDecimal.valueOf(10 + i), "Pratos", null, owner, restaurant));
+            lines.add(new OrderItemRequest(item.getId(), 1 + i % 3));
+        }
+    }
+
+    @Test
+    void ordersPerSecond() {
+        double before = throughput(() -> legacyCreateOrder(restaurantId, 1, lines));
+        double after = throughput(() -> orderService.createOrder(null, restaurantId, 1, "Benchmark", lines));
+        System.out.printf("[benchmark] pedidos de %d linhas: antes %.0f pedidos/s, depois %.0f pedidos/s (%.1fx)%n",
+                LINES, before, after, after / before);
+    }
+
+    // Reprodução do OrderService.createOrder anterior (sem as validações que não tocam o banco)
+    private Order legacyCreateOrder(Long restaurantId, Integer tableNumber, List<OrderItemRequest> itemsReq) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId).orElseThrow();
+        Order order = new Order();
+        order.setRestaurant(restaurant);
+        order.setTableNumber(tableNumber);
+        order.setGuestName("Benchmark");
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItemRequest ir : itemsReq) {
+            Item item = itemRepository.findById(ir.itemId()).orElseThrow(() -> new EntityNotFoundException("Item not found: " + ir.itemId()));
+            order.addItem(new OrderItem(item.getId(), item.getName(), item.getPrice(), ir.quantity()));
+            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(ir.quantity())));
+        }
+        order.setTotal(total);
+        order.setStatus(OrderStatus.PENDING);
+        return orderRepository.save(order);
+    }
+
+    private double throughput(Supplier<Order> create) {
+        // Aquecimento
+        for (int i = 0; i < 200; i++) {
+            create.get();
+        }
+        long start = System.nanoTime();
+        long deadline = start + DURATION_MS * 1_000_000;
+        long count = 0;
+        while (System.nanoTime() < deadline) {
+            create.get();
+            count++;
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+}
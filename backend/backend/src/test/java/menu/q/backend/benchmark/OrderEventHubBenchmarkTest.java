@@ -0,0 +1,66 @@
+package menu.q.backend.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import menu.q.backend.service.OrderEventHub;
+import menu.q.backend.service.OrderEventHub.OrderStatusEvent;
+
+/**
+ * Custo de milhares de painéis conectados e parados: threads de plataforma, heap por assinante
+ * e tempo para publicar um evento para todos. Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+class OrderEventHubBenchmarkTest {
+
+    private static final int SUBSCRIBERS = 5000;
+    private static final int RESTAURANTS = 50;
+
+    @Autowired private OrderEventHub orderEventHub;
+
+    @Test
+    void idleSubscribers() {
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long heapBefore = usedHeap();
+
+        List<SseEmitter> emitters = new ArrayList<>(SUBSCRIBERS);
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            emitters.add(orderEventHub.subscribeRestaurant(1_000_000L + i % RESTAURANTS, null));
+        }
+        long heapAfter = usedHeap();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        int events = 1000;
+        publish(events); // Aquecimento
+        long start = System.nanoTime();
+        publish(events);
+        double publishMicros = (System.nanoTime() - start) / 1e3 / events;
+
+        System.out.printf("[benchmark] %d assinantes parados: %+d threads de plataforma, ~%d bytes de heap por assinante, "
+                        + "publicação para %d assinantes em %.1f µs%n",
+                SUBSCRIBERS, threadsAfter - threadsBefore, (heapAfter - heapBefore) / SUBSCRIBERS,
+                SUBSCRIBERS / RESTAURANTS, publishMicros);
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    private void publish(int events) {
+        for (int i = 0; i < events; i++) {
+            long restaurantId = 1_000_000L + i % RESTAURANTS;
+            orderEventHub.publish(OrderEventHub.STATUS_CHANGED, restaurantId, (long) i, new OrderStatusEvent((long) i, "CONFIRMED"));
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,125 @@
+package menu.q.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import menu.q.backend.model.Employee;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.EmployeeRepository;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.MenuSnapshotService;
+
+/**
+ * Compara o caminho antigo do cardápio público (3 consultas + serialização por requisição)
+ * com o snapshot pré-serializado. Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PublicMenuBenchmarkTest {
+
+    private static final int ITEMS = 150;
+    private static final int EMPLOYEES = 8;
+    private static final long DURATION_MS = 3000;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private MenuSnapshotService menuSnapshotService;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Long restaurantId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "bench-owner", "bench@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Benchmark", "Cardápio grande");
+        restaurant.setOwner(owner);
+        restaurant.setTableCount(40);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        for (int i = 0; i < ITEMS; i++) {
+            itemRepository.save(new Item("Prato " + i, "Descrição do prato " + i, BigDecimal.valueOf(10 + i),
+                    "Brasileira", "http://localhost:8080/default-images/items/brasileira.jpg", owner, restaurant));
+        }
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employeeRepository.save(new Employee("Funcionário " + i, "Garçom", "employee_1", restaurant));
+        }
+    }
+
+    @Test
+    void snapshotVersusPerRequestQueries() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        IntFunction<byte[]> legacy = table -> tx.execute(status -> legacyMenu(table));
+        IntFunction<byte[]> snapshot = table -> menuSnapshotService.getSnapshot(restaurantId).render(table);
+
+        // Mesma resposta nos dois caminhos
+        JsonNode expected = objectMapper.readTree(legacy.apply(7));
+        JsonNode actual = objectMapper.readTree(snapshot.apply(7));
+        assertEquals(expected, actual);
+
+        double before = throughput(legacy);
+        double after = throughput(snapshot);
+        System.out.printf("[benchmark] cardápio público (%d itens): antes %.0f req/s, depois %.0f req/s (%.1fx)%n",
+                ITEMS, before, after, after / before);
+    }
+
+    // Reprodução do PublicMenuController anterior ao snapshot
+    private byte[] legacyMenu(int tableNumber) {
+        try {
+            Restaurant restaurant = restaurantRepository.findById(restaurantId).orElseThrow();
+            List<Item> items = itemRepository.findByRestaurantId(restaurantId);
+            List<Employee> employees = employeeRepository.findByRestaurantId(restaurantId);
+            return objectMapper.writeValueAsBytes(Map.of(
+                "restaurant", Map.of(
+                    "id", restaurant.getId(),
+                    "name", restaurant.getName(),
+                    "description", restaurant.getDescription() != null ? restaurant.getDescription() : "",
+                    "cover", restaurant.getCover() != null ? restaurant.getCover() : ""
+                ),
+                "tableNumber", tableNumber,
+                "items", items,
+                "employees", employees
+            ));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double throughput(IntFunction<byte[]> request) {
+        // Aquecimento
+        for (int i = 0; i < 200; i++) {
+            request.apply(1 + i % 40);
+        }
+        long start = System.nanoTime();
+        long deadline = start + DURATION_MS * 1_000_000;
+        long count = 0;
+        while (System.nanoTime() < deadline) {
+            request.apply(1 + (int) (count % 40));
+            count++;
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,63 @@
+package menu.q.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.service.SearchIndexService;
+
+/**
+ * Latência da busca em memória com 100 mil itens. Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class SearchIndexBenchmarkTest {
+
+    private static final int ITEMS = 100_000;
+    private static final int QUERIES = 20_000;
+
+    private static final String[] NAMES = {"Açaí", "Pizza", "Hambúrguer", "Suco", "Salada", "Sushi", "Temaki", "Picanha",
+            "Lasanha", "Brownie", "Pastel", "Coxinha", "Tapioca", "Moqueca", "Feijoada", "Esfiha", "Churros", "Brigadeiro"};
+    private static final String[] ADJECTIVES = {"especial", "tradicional", "da casa", "gourmet", "vegano", "duplo",
+            "grande", "mini", "crocante", "artesanal", "caseiro", "picante"};
+    private static final String[] CATEGORIES = {"Lanches", "Pizzas", "Bebidas", "Sobremesas", "Comida Japonesa", "Brasileira"};
+    private static final String[] QUERIES_TEXT = {"acai", "piz", "hamburguer duplo", "sushi", "sobrem", "cr", "picanha gourmet",
+            "suco de", "brigadeiro caseiro", "esf", "tapioca", "mo"};
+
+    @Test
+    void p99UnderOneMillisecondAt100kItems() {
+        SearchIndexService index = new SearchIndexService(null, null);
+        Random random = new Random(42);
+        List<ItemDto> items = new ArrayList<>(ITEMS);
+        for (long id = 1; id <= ITEMS; id++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + id;
+            String description = "Feito com " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NAMES[random.nextInt(NAMES.length)];
+            items.add(new ItemDto(id, name, description, BigDecimal.TEN, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    null, 1L, 1L + id % 500, false));
+        }
+        index.indexItems(items);
+
+        // Aquecimento
+        for (int i = 0; i < QUERIES; i++) {
+            index.searchItems(QUERIES_TEXT[i % QUERIES_TEXT.length], null, 20);
+        }
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            index.searchItems(QUERIES_TEXT[i % QUERIES_TEXT.length], i % 4 == 0 ? (long) (i % 500) : null, 20);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        double p50 = latencies[QUERIES / 2] / 1e6;
+        double p99 = latencies[(int) (QUERIES * 0.99)] / 1e6;
+        System.out.printf("[benchmark] busca com %d itens: p50 %.3f ms, p99 %.3f ms%n", ITEMS, p50, p99);
+        assertTrue(p99 < 1.0, "p99 de " + p99 + " ms");
+    }
+}
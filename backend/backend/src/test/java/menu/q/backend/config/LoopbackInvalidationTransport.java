@@ -0,0 +1,41 @@
+package menu.q.backend.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transporte dentro da JVM, só nos testes: entrega cada mudança, na hora e na thread de quem publicou, aos outros
+ * contextos da aplicação no mesmo processo (CacheInvalidationBusTest). Entre processos vale o "outbox".
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "loopback")
+public class LoopbackInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final List<LoopbackInvalidationTransport> NODES = new CopyOnWriteArrayList<>();
+
+    private volatile Consumer<EntityChange> handler;
+
+    @Override
+    public void publish(EntityChange change) {
+        for (LoopbackInvalidationTransport node : NODES) {
+            if (node != this) {
+                node.handler.accept(change);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChange> handler) {
+        this.handler = handler;
+        NODES.add(this);
+    }
+
+    @Override
+    public void close() {
+        NODES.remove(this);
+    }
+}
@@ -0,0 +1,118 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.BlobStoreService;
+import menu.q.backend.service.ImageBlobMigrationService;
+
+/**
+ * Upload/download pelo blob store e migração das imagens base64 antigas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class BlobStoreTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private BlobStoreService blobStoreService;
+    @Autowired private ImageBlobMigrationService migrationService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+
+    // Cabeçalho JPEG seguido de bytes diferentes a cada semente
+    private static byte[] jpeg(int seed) {
+        byte[] bytes = new byte[200];
+        Arrays.fill(bytes, (byte) seed);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        return bytes;
+    }
+
+    @Test
+    void uploadIsDeduplicatedAndServedImmutable() throws Exception {
+        byte[] image = jpeg(1);
+        String first = upload(image);
+        String second = upload(image);
+        assertEquals(first, second);
+
+        JsonNode body = objectMapper.readTree(first);
+        String id = body.get("id").asText();
+        assertTrue(id.endsWith(".jpg"), id);
+
+        byte[] downloaded = mockMvc.perform(get("/api/blobs/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(image, downloaded);
+    }
+
+    @Test
+    void rejectsNonImageUpload() throws Exception {
+        mockMvc.perform(post("/api/blobs").contentType(MediaType.APPLICATION_OCTET_STREAM).content("not an image"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/blobs/" + "0".repeat(64) + ".jpg"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void migratesInlineBase64ToBlobReferences() {
+        byte[] image = jpeg(2);
+        String dataUri = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(image);
+
+        User owner = userRepository.save(new User(null, "blob-owner", "blob-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Base64", "Legado");
+        restaurant.setOwner(owner);
+        restaurant.setCover(dataUri);
+        restaurant = restaurantRepository.save(restaurant);
+        Item item = itemRepository.save(new Item("Prato legado", "Base64", BigDecimal.TEN, "Pratos", dataUri, owner, restaurant));
+
+        // Outros testes podem ter deixado linhas em base64 no mesmo banco
+        assertTrue(migrationService.migrate() >= 2);
+        assertEquals(0, migrationService.migrate());
+
+        String itemImage = itemRepository.findImageById(item.getId());
+        String cover = restaurantRepository.findCoverById(restaurant.getId());
+        assertEquals(itemImage, cover);
+        String name = itemImage.substring(itemImage.lastIndexOf('/') + 1);
+        assertTrue(itemImage.startsWith("http://localhost:8080/api/blobs/"), itemImage);
+        assertTrue(blobStoreService.find(name).isPresent());
+    }
+
+    private String upload(byte[] image) throws Exception {
+        return mockMvc.perform(post("/api/blobs").contentType(MediaType.IMAGE_JPEG).content(image))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,182 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.config.CacheNames;
+import menu.q.backend.data.dto.EmployeeDto;
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.data.dto.RestaurantDto;
+import menu.q.backend.data.dto.UserDTO;
+import menu.q.backend.model.Employee;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.EmployeeRepository;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.ItemService;
+import menu.q.backend.service.RestaurantService;
+import menu.q.backend.service.UserService;
+
+/**
+ * Caches nomeados: leituras repetidas não vão ao banco, escritas em qualquer serviço invalidam pelas
+ * entidades, e cada cache respeita o limite de entradas e publica acertos, faltas e descartes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CacheLayerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private RestaurantService restaurantService;
+    @Autowired private ItemService itemService;
+    @Autowired private UserService userService;
+    @Autowired private CacheManager cacheManager;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long ownerId;
+    private Long restaurantId;
+    private Long itemId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "cache-owner", "cache-owner@menuq.com"));
+        ownerId = owner.getId();
+        Restaurant restaurant = new Restaurant(null, "Restaurante Cache", "Cardápio");
+        restaurant.setOwner(owner);
+        restaurant.setTableCount(5);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        itemId = itemRepository.save(new Item("Pastel", "De queijo", new BigDecimal("8.00"), "Lanches", null, owner, restaurant)).getId();
+        employeeRepository.save(new Employee("Ana", "Garçonete", null, restaurant));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void restaurantByOwnerFollowsRestaurantAndOwnerWrites() throws Exception {
+        mockMvc.perform(get("/api/restaurants/owner/{id}", ownerId)).andExpect(jsonPath("$.name").value("Restaurante Cache"));
+        statistics.clear();
+        mockMvc.perform(get("/api/restaurants/owner/{id}", ownerId)).andExpect(status().isOk());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        RestaurantDto rename = new RestaurantDto();
+        rename.setName("Restaurante Renomeado");
+        restaurantService.updateRestaurant(restaurantId, rename);
+        mockMvc.perform(get("/api/restaurants/owner/{id}", ownerId)).andExpect(jsonPath("$.name").value("Restaurante Renomeado"));
+
+        // O dono vai embutido no restaurante: alterar o usuário também invalida
+        UserDTO update = new UserDTO();
+        update.setUsername("cache-owner-renamed");
+        userService.updateUser(ownerId, update);
+        mockMvc.perform(get("/api/restaurants/owner/{id}", ownerId)).andExpect(jsonPath("$.owner.username").value("cache-owner-renamed"));
+    }
+
+    @Test
+    void ownershipChangeEvictsPreviousAndNewOwner() throws Exception {
+        User previous = userRepository.save(new User(null, "cache-previous-owner", "cache-previous-owner@menuq.com"));
+        User next = userRepository.save(new User(null, "cache-next-owner", "cache-next-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Transferido", "Cardápio");
+        restaurant.setOwner(previous);
+        Long id = restaurantRepository.save(restaurant).getId();
+        mockMvc.perform(get("/api/restaurants/owner/{id}", previous.getId())).andExpect(jsonPath("$.id").value(id));
+        // Sem restaurante: a resposta 404 não fica em cache
+        mockMvc.perform(get("/api/restaurants/owner/{id}", next.getId())).andExpect(status().isNotFound());
+
+        Restaurant transferred = restaurantRepository.findById(id).orElseThrow();
+        transferred.setOwner(next);
+        restaurantRepository.save(transferred);
+
+        mockMvc.perform(get("/api/restaurants/owner/{id}", previous.getId())).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/restaurants/owner/{id}", next.getId()))
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.owner.username").value("cache-next-owner"));
+    }
+
+    @Test
+    void employeeAndItemWritesInvalidateListsAndMenu() throws Exception {
+        mockMvc.perform(get("/api/restaurants/{id}/employees", restaurantId)).andExpect(jsonPath("$.length()").value(1));
+        statistics.clear();
+        mockMvc.perform(get("/api/restaurants/{id}/employees", restaurantId)).andExpect(status().isOk());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Funcionário gravado pelo controller, que não conhece nenhum cache
+        EmployeeDto employee = new EmployeeDto();
+        employee.setName("Bruno");
+        employee.setRole("Cozinheiro");
+        employee.setRestaurantId(restaurantId);
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/restaurants/{id}/employees", restaurantId)).andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/public/menu/{id}/table/1", restaurantId)).andExpect(jsonPath("$.employees.length()").value(2));
+
+        ItemDto price = new ItemDto();
+        price.setPrice(new BigDecimal("9.50"));
+        itemService.updateItem(itemId, price);
+        mockMvc.perform(get("/api/public/menu/{id}/table/1", restaurantId)).andExpect(jsonPath("$.items[0].price").value(9.5));
+    }
+
+    @Test
+    void cachesAreBoundedAndReportStatistics() {
+        Cache<Object, Object> employees = nativeCache(CacheNames.EMPLOYEES_BY_RESTAURANT);
+        CacheStats before = employees.stats();
+        double hitsBefore = meterRegistry.get("cache.gets")
+                .tags("cache", CacheNames.EMPLOYEES_BY_RESTAURANT, "result", "hit").functionCounter().count();
+
+        // Restaurantes inexistentes: cada id é uma entrada (lista vazia) até o limite de app.cache.employeesByRestaurant.max-entries
+        for (long id = 1; id <= 300; id++) {
+            restaurantService.getEmployeesByRestaurant(-id);
+        }
+        restaurantService.getEmployeesByRestaurant(-300L);
+        employees.cleanUp();
+
+        CacheStats stats = employees.stats().minus(before);
+        assertTrue(employees.estimatedSize() <= 100, "entradas: " + employees.estimatedSize());
+        assertTrue(stats.evictionCount() >= 200, "descartes: " + stats.evictionCount());
+        assertEquals(300, stats.missCount());
+        assertEquals(1, stats.hitCount());
+        assertEquals(hitsBefore + 1, meterRegistry.get("cache.gets")
+                .tags("cache", CacheNames.EMPLOYEES_BY_RESTAURANT, "result", "hit").functionCounter().count());
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
@@ -0,0 +1,137 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.util.CursorPage;
+
+/**
+ * Percorre as listagens paginadas seguindo o cursor até o fim.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CursorPaginationTest {
+
+    private static final int ORDERS = 25;
+    private static final int ITEMS = 23;
+    private static final int PAGE = 10;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Long restaurantId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "page-owner", "page-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Paginado", "Cursor");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+
+        for (int i = 0; i < ITEMS; i++) {
+            itemRepository.save(new Item("Prato " + i, "Item " + i, BigDecimal.TEN, "Pratos", null, owner, restaurant));
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setRestaurant(restaurant);
+            order.setTableNumber(1);
+            order.addItem(new OrderItem(1L, "Prato", BigDecimal.TEN, 1));
+            order.addItem(new OrderItem(2L, "Suco", BigDecimal.ONE, 2));
+            orderRepository.save(order);
+        }
+    }
+
+    @Test
+    void ordersAreListedNewestFirstAcrossPages() throws Exception {
+        List<Long> ids = walk("/orders/restaurant/" + restaurantId, CursorPage.BEFORE, 3);
+
+        assertEquals(ORDERS, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) > ids.get(i), "ordem decrescente: " + ids);
+        }
+    }
+
+    @Test
+    void restaurantItemsAreListedByIdAcrossPages() throws Exception {
+        List<Long> ids = walk("/api/restaurants/" + restaurantId + "/items", CursorPage.AFTER, 2);
+
+        assertEquals(ITEMS, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i), "ordem crescente: " + ids);
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveLimit() throws Exception {
+        mockMvc.perform(get("/orders/restaurant/" + restaurantId).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Segue o cabeçalho X-Next-Cursor e confere o número de consultas de cada página
+    private List<Long> walk(String url, String cursorParam, long maxStatementsPerPage) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            var request = get(url).param("limit", String.valueOf(PAGE));
+            if (cursor != null) {
+                request.param(cursorParam, cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            long statements = statistics.getPrepareStatementCount();
+            assertTrue(statements <= maxStatementsPerPage, url + " executou " + statements + " consultas SQL");
+
+            JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+            assertTrue(body.size() <= PAGE);
+            body.forEach(node -> ids.add(node.get("id").asLong()));
+            cursor = result.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals((ids.size() + PAGE - 1) / PAGE, pages);
+        assertNull(cursor);
+        return ids;
+    }
+}
@@ -0,0 +1,225 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.IdempotencyRecordRepository;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.IdempotencyService;
+import menu.q.backend.service.IdempotencyService.Result;
+import menu.q.backend.service.IdempotencyService.StoredResponse;
+
+/**
+ * Repetições de POST /orders com a mesma Idempotency-Key não criam outro pedido.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IdempotencyTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private IdempotencyRecordRepository recordRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Long restaurantId;
+    private Long itemId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "idem-owner", "idem-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Idempotente", "Retry");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        itemId = itemRepository.save(new Item("Empada", "Palmito", BigDecimal.TEN, "Salgados", null, owner, restaurant)).getId();
+    }
+
+    @Test
+    void retryReplaysOriginalResponseWithoutTouchingTheDatabase() throws Exception {
+        String body = orderBody(2);
+        long before = orderRepository.count();
+
+        String first = mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "false"))
+                .andReturn().getResponse().getContentAsString();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        String retry = mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(first, retry);
+        assertEquals(before + 1, orderRepository.count());
+
+        // Mesma chave com outro pedido é erro do cliente
+        mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(orderBody(3)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void keysAreScopedToTheCaller() throws Exception {
+        String body = orderBody(1);
+        long before = orderRepository.count();
+
+        // A mesma chave vinda de outro usuário é outro pedido, não a resposta do primeiro
+        for (String username : List.of("idem-ana", "idem-bruno")) {
+            mockMvc.perform(post("/orders").with(user(username)).header(IdempotencyService.HEADER, "shared-key")
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "false"));
+        }
+        mockMvc.perform(post("/orders").with(user("idem-ana")).header(IdempotencyService.HEADER, "shared-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"));
+
+        assertEquals(before + 2, orderRepository.count());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        IdempotencyService service = service(100, false);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Result>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return service.execute("orders", "same", bytes("pedido"), () -> {
+                    executions.incrementAndGet();
+                    sleep(200);
+                    return new StoredResponse(201, bytes("criado"));
+                });
+            }));
+        }
+        start.countDown();
+        int replayed = 0;
+        for (Future<Result> result : results) {
+            assertEquals("criado", new String(result.get().response().body(), StandardCharsets.UTF_8));
+            replayed += result.get().replayed() ? 1 : 0;
+        }
+        pool.shutdown();
+        assertEquals(1, executions.get());
+        assertEquals(7, replayed);
+    }
+
+    @Test
+    void storeIsBoundedAndFailuresAreNotRemembered() {
+        IdempotencyService service = service(3, false);
+        for (int i = 0; i < 10; i++) {
+            service.execute("orders", "k" + i, bytes("pedido"), () -> new StoredResponse(201, bytes("ok")));
+        }
+        assertEquals(3, service.size());
+
+        AtomicInteger executions = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.execute("orders", "falha", bytes("pedido"), () -> {
+                    executions.incrementAndGet();
+                    throw new IllegalStateException("banco fora");
+                });
+            } catch (IllegalStateException expected) {
+                // A segunda tentativa executa de novo
+            }
+        }
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void sharedStoreReplaysAcrossInstances() {
+        // Duas instâncias com memórias separadas e a mesma tabela idempotency_keys
+        IdempotencyService nodeA = service(100, true);
+        IdempotencyService nodeB = service(100, true);
+        AtomicInteger executions = new AtomicInteger();
+
+        Result first = nodeA.execute("orders", "multi-node", bytes("pedido"), () -> {
+            executions.incrementAndGet();
+            return new StoredResponse(201, bytes("pedido 42"));
+        });
+        Result retry = nodeB.execute("orders", "multi-node", bytes("pedido"), () -> {
+            executions.incrementAndGet();
+            return new StoredResponse(201, bytes("pedido 43"));
+        });
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals("pedido 42", new String(retry.response().body(), StandardCharsets.UTF_8));
+        assertEquals(1, executions.get());
+        assertTrue(recordRepository.existsById("orders:multi-node"));
+    }
+
+    private IdempotencyService service(int maxEntries, boolean shared) {
+        return new IdempotencyService(recordRepository, transactionManager, Duration.ofMinutes(5), maxEntries, Duration.ofSeconds(5), shared);
+    }
+
+    private String orderBody(int quantity) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("restaurantId", restaurantId, "tableNumber", 1,
+                "items", List.of(Map.of("itemId", itemId, "quantity", quantity))));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.ImageBlobMigrationService;
+import menu.q.backend.util.CursorPage;
+
+/**
+ * Listagens de usuários e restaurantes não carregam imagens em base64: compara bytes da resposta
+ * e alocação de heap com a leitura das entidades completas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ImageColumnsTest {
+
+    private static final int USERS = 30;
+    private static final int AVATAR_BYTES = 75_000;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ImageBlobMigrationService migrationService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < USERS; i++) {
+            byte[] image = new byte[AVATAR_BYTES];
+            Arrays.fill(image, (byte) i);
+            image[0] = (byte) 0xFF;
+            image[1] = (byte) 0xD8;
+            image[2] = (byte) 0xFF;
+            // Gravado direto no repositório, como os avatares base64 anteriores ao blob store
+            User user = new User(null, "inline-" + i, "inline-" + i + "@menuq.com");
+            user.setAvatar("data:image/jpeg;base64," + Base64.getEncoder().encodeToString(image));
+            user = userRepository.save(user);
+            Restaurant restaurant = new Restaurant(null, "Restaurante Inline " + i, "Avatar grande");
+            restaurant.setOwner(user);
+            restaurantRepository.save(restaurant);
+        }
+    }
+
+    @Test
+    void listsCarryReferencesInsteadOfInlineImages() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // Aquecimento: a primeira requisição carrega classes e caches do MVC
+        fetch("/api/restaurants");
+        tx.execute(status -> serialize(restaurantRepository.findAll()));
+
+        long[] legacyBytes = new long[1];
+        long legacyAlloc = allocated(() -> legacyBytes[0] = tx.execute(status -> serialize(restaurantRepository.findAll())).length);
+
+        long[] listBytes = new long[1];
+        long listAlloc = allocated(() -> listBytes[0] = fetch("/api/restaurants").length());
+        System.out.printf("[medição] GET /api/restaurants: %d -> %d bytes, %d -> %d bytes alocados%n",
+                legacyBytes[0], listBytes[0], legacyAlloc, listAlloc);
+        assertTrue(listBytes[0] * 10 < legacyBytes[0]);
+        assertTrue(listAlloc * 4 < legacyAlloc, "alocou " + listAlloc + " bytes contra " + legacyAlloc);
+
+        assertFalse(fetch("/api/users").contains("data:image"));
+
+        // Depois da migração as listagens trazem a URL do blob
+        migrationService.migrate();
+        String users = fetch("/api/users");
+        assertFalse(users.contains("data:image"));
+        assertTrue(users.contains("/api/blobs/"));
+        assertTrue(fetch("/api/restaurants").contains("/api/blobs/"));
+    }
+
+    private String fetch(String url) {
+        try {
+            return mockMvc.perform(get(url).param("limit", String.valueOf(CursorPage.MAX_LIMIT)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] serialize(List<?> rows) {
+        try {
+            return objectMapper.writeValueAsBytes(rows);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Bytes alocados pela thread atual durante a execução (o MockMvc roda na mesma thread)
+    private static long allocated(Runnable action) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        action.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
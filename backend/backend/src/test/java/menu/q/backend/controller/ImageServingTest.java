@@ -0,0 +1,100 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import menu.q.backend.service.ImageVariantService;
+import menu.q.backend.service.ImageVariantService.Variant;
+import menu.q.backend.service.ImageVariantService.VariantFile;
+import menu.q.backend.util.ImageValidator;
+
+/**
+ * Variantes servidas pela URL versionada: cache imutável, ETag forte, 304 e Range.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageServingTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ImageValidator imageValidator;
+    @Autowired private ImageVariantService imageVariantService;
+
+    private VariantFile file;
+    private String path;
+
+    @BeforeEach
+    void resolve() {
+        file = imageVariantService.resolveFile("items", "pizza.jpg", Variant.CARD).orElseThrow();
+        String url = imageValidator.resolveImageUrl("pizza.jpg");
+        path = url.substring(url.indexOf("/default-images/"));
+    }
+
+    @Test
+    void hashedUrlIsImmutable() throws Exception {
+        assertEquals("/default-images/items/480/" + file.hash() + "/pizza.jpg", path);
+
+        byte[] body = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + file.hash() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(Files.readAllBytes(file.path()), body);
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws Exception {
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, "\"" + file.hash() + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void servesSingleRange() throws Exception {
+        MvcResult result = mockMvc.perform(get(path).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/" + file.length()))
+                .andReturn();
+        byte[] expected = Arrays.copyOfRange(Files.readAllBytes(file.path()), 100, 200);
+        assertArrayEquals(expected, result.getResponse().getContentAsByteArray());
+
+        // If-Range de outra versão: arquivo inteiro
+        mockMvc.perform(get(path).header(HttpHeaders.RANGE, "bytes=100-199").header(HttpHeaders.IF_RANGE, "\"outro\""))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(path).header(HttpHeaders.RANGE, "bytes=" + file.length() + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + file.length()));
+    }
+
+    @Test
+    void staleHashRedirectsToCurrentVersion() throws Exception {
+        String location = mockMvc.perform(get("/default-images/items/480/0000000000000000/pizza.jpg"))
+                .andExpect(status().isFound())
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        assertTrue(location.endsWith(path), location);
+    }
+
+    @Test
+    void unknownImageIsNotFound() throws Exception {
+        mockMvc.perform(get("/default-images/items/480/" + file.hash() + "/sushi.jpg"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/default-images/items/333/pizza.jpg"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,109 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.SearchIndexService;
+
+/**
+ * Garante que as listagens de itens não fazem uma consulta por item (N+1).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemControllerQueryCountTest {
+
+    private static final int ITEMS = 40;
+    private static final long MAX_STATEMENTS = 2;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private SearchIndexService searchIndexService;
+
+    private Long restaurantId;
+    private Long ownerId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "qc-owner", "qc-owner@menuq.com"));
+        ownerId = owner.getId();
+        Restaurant restaurant = new Restaurant(null, "Restaurante QC", "N+1");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+
+        // Usuários distintos para que associações LAZY não sejam resolvidas pelo contexto de persistência
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            authors.add(userRepository.save(new User(null, "qc-author-" + i, "qc-author-" + i + "@menuq.com")));
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            User author = i % 2 == 0 ? owner : authors.get(i % authors.size());
+            Item item = new Item("Combo " + i, "Item " + i, BigDecimal.TEN, "Lanches", null, author, restaurant);
+            item.setFeatured(i % 3 == 0);
+            itemRepository.save(item);
+        }
+        // Itens gravados direto no repositório não passam pelo ItemService
+        searchIndexService.rebuild();
+    }
+
+    @Test
+    void restaurantItemsUseConstantQueries() throws Exception {
+        assertStatements("/api/restaurants/" + restaurantId + "/items", ITEMS);
+    }
+
+    @Test
+    void featuredItemsUseConstantQueries() throws Exception {
+        assertStatements("/api/restaurants/" + restaurantId + "/items/featured", (ITEMS + 2) / 3);
+    }
+
+    @Test
+    void searchUsesConstantQueries() throws Exception {
+        assertStatements("/api/items/search?name=combo", ITEMS);
+    }
+
+    @Test
+    void userItemsUseConstantQueries() throws Exception {
+        assertStatements("/api/users/" + ownerId + "/items", ITEMS / 2);
+    }
+
+    private void assertStatements(String url, int expectedSize) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expectedSize));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS, url + " executou " + statements + " consultas SQL");
+    }
+}
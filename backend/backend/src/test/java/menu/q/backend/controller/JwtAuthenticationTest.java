@@ -0,0 +1,138 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.data.dto.UserDTO;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.security.AuthenticatedUser;
+import menu.q.backend.security.JwtAuthenticationFilter;
+import menu.q.backend.security.JwtUtil;
+import menu.q.backend.security.PrincipalCache;
+import menu.q.backend.service.UserService;
+
+/**
+ * Tokens com id e papéis autenticam sem consultar o usuário a cada requisição.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtAuthenticationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserService userService;
+    @Autowired private PrincipalCache principalCache;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private JwtAuthenticationFilter jwtAuthenticationFilter;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void cachedPrincipalSkipsUserLookup() throws Exception {
+        JsonNode auth = register("jwt-cache");
+        long userId = auth.get("userId").asLong();
+        String token = auth.get("token").asText();
+
+        long first = statements(userId, token);
+        long second = statements(userId, token);
+        // A primeira requisição carrega o usuário do token; a segunda só executa o próprio endpoint
+        assertEquals(first - 1, second);
+
+        // Alteração do usuário invalida a entrada: a próxima requisição recarrega
+        UserDTO update = new UserDTO();
+        update.setUsername("jwt-cache-renamed");
+        userService.updateUser(userId, update);
+        assertEquals(first, statements(userId, token));
+        assertEquals(second, statements(userId, token));
+        Authentication authentication = authenticate(token);
+        assertEquals(new AuthenticatedUser(userId, "jwt-cache-renamed"), authentication.getPrincipal());
+        assertEquals(List.of(JwtUtil.ROLE_USER), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void removedUserStopsAuthenticating() throws Exception {
+        JsonNode auth = register("jwt-removed");
+        long userId = auth.get("userId").asLong();
+        String token = auth.get("token").asText();
+        assertEquals(new AuthenticatedUser(userId, "jwt-removed"), authenticate(token).getPrincipal());
+
+        userRepository.deleteById(userId);
+        principalCache.invalidate(userId);
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    void tokenWithoutUserIdStillAuthenticates() throws Exception {
+        register("jwt-legacy");
+        // Token como os emitidos antes das claims de id e papéis: só o nome no subject
+        String legacy = jwtUtil.generateToken(new User(null, "jwt-legacy", "jwt-legacy@menuq.com"));
+        assertNull(jwtUtil.verify(legacy).userId());
+
+        Authentication authentication = authenticate(legacy);
+        assertEquals("jwt-legacy", ((UserDetails) authentication.getPrincipal()).getUsername());
+    }
+
+    private JsonNode register(String username) throws Exception {
+        UserDTO dto = new UserDTO();
+        dto.setUsername(username);
+        dto.setEmail(username + "@menuq.com");
+        dto.setPassword("segredo123");
+        String body = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    // Autenticação que o filtro deixa no contexto para o resto da cadeia, ou null
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        AtomicReference<Authentication> result = new AtomicReference<>();
+        try {
+            jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(),
+                    (req, res) -> result.set(SecurityContextHolder.getContext().getAuthentication()));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return result.get();
+    }
+
+    private long statements(long userId, String token) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // Página de um usuário: uma consulta sem cache, então a diferença entre chamadas é só a do principal
+        mockMvc.perform(get("/api/users").param("after", Long.toString(userId - 1)).param("limit", "1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,154 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ArchivedOrderRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.OrderArchiveService;
+import menu.q.backend.service.OrderService;
+import menu.q.backend.service.SalesRollupService;
+
+/**
+ * Pedidos antigos saem de orders em lotes e continuam acessíveis pelo histórico, pela exportação
+ * e pelos contadores de vendas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderArchiveTest {
+
+    private static final int OLD_ORDERS = 5;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private ArchivedOrderRepository archivedOrderRepository;
+    @Autowired private OrderArchiveService orderArchiveService;
+    @Autowired private OrderService orderService;
+    @Autowired private SalesRollupService salesRollupService;
+
+    private User buyer;
+    private Restaurant restaurant;
+    private final List<Long> oldIds = new ArrayList<>();
+    private Long recentId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "archive-owner", "archive-owner@menuq.com"));
+        buyer = userRepository.save(new User(null, "archive-buyer", "archive-buyer@menuq.com"));
+        restaurant = new Restaurant(null, "Restaurante Arquivo", "Histórico");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+
+        LocalDateTime old = LocalDateTime.now().minusDays(400).withHour(12);
+        for (int i = 0; i < OLD_ORDERS; i++) {
+            oldIds.add(saveOrder(old.plusMinutes(i), i + 1).getId());
+        }
+        recentId = saveOrder(LocalDateTime.now(), 7).getId();
+    }
+
+    @Test
+    void oldOrdersMoveToTheArchiveAndStayReadable() throws Exception {
+        salesRollupService.rebuild(restaurant.getId());
+        LocalDateTime from = LocalDateTime.now().minusDays(401);
+        LocalDateTime to = LocalDateTime.now().plusHours(1);
+        var before = salesRollupService.report(restaurant.getId(), from, to);
+
+        // Corte em 300 dias: só os pedidos antigos deste teste (os outros testes criam pedidos recentes)
+        int archived = orderArchiveService.archiveBefore(LocalDateTime.now().minusDays(300));
+        assertEquals(OLD_ORDERS, archived);
+        for (Long id : oldIds) {
+            assertFalse(orderRepository.existsById(id));
+            assertTrue(archivedOrderRepository.existsById(id));
+        }
+        assertTrue(orderRepository.existsById(recentId));
+
+        // Listagem normal só com o recente; histórico paginado com os arquivados, mais novos primeiro
+        mockMvc.perform(get("/orders/restaurant/{id}", restaurant.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        List<Long> history = new ArrayList<>();
+        Long cursor = null;
+        do {
+            var page = mockMvc.perform(get("/orders/user/{id}/history", buyer.getId())
+                            .param("limit", "2")
+                            .param("before", cursor != null ? cursor.toString() : ""))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            objectMapper.readTree(page.getContentAsString()).forEach(order -> history.add(order.get("id").asLong()));
+            String next = page.getHeader("X-Next-Cursor");
+            cursor = next != null ? Long.valueOf(next) : null;
+        } while (cursor != null);
+        assertEquals(oldIds.reversed(), history);
+
+        // Pedido arquivado continua acessível pelo id, com os itens
+        Long oldest = oldIds.get(0);
+        mockMvc.perform(get("/orders/{id}", oldest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Prato"))
+                .andExpect(jsonPath("$.items[0].quantity").value(1));
+        // e não muda mais de status
+        assertThrows(RuntimeException.class, () -> orderService.changeStatus(oldest, OrderStatus.CONFIRMED));
+
+        // Exportação: recentes de orders, arquivados no fim
+        MvcResult started = mockMvc.perform(get("/orders/restaurant/{id}/export", restaurant.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        JsonNode exported = objectMapper.readTree(mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(OLD_ORDERS + 1, exported.size());
+        assertEquals(recentId, exported.get(0).get("id").asLong());
+
+        // Os contadores das horas arquivadas sobrevivem a um rebuild
+        salesRollupService.rebuild(restaurant.getId());
+        assertEquals(before.totals(), salesRollupService.report(restaurant.getId(), from, to).totals());
+    }
+
+    private Order saveOrder(LocalDateTime createdAt, int quantity) {
+        Order order = new Order();
+        order.setRestaurant(restaurant);
+        order.setBuyer(buyer);
+        order.setCreatedAt(createdAt);
+        order.addItem(new OrderItem(1L, "Prato", BigDecimal.TEN, quantity));
+        order.setTotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(quantity)));
+        return orderRepository.save(order);
+    }
+}
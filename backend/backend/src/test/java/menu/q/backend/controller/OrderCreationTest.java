@@ -0,0 +1,146 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+
+/**
+ * Um pedido de 20 linhas custa um número fixo de comandos SQL, independente do número de linhas.
+ * Com mesa, a conta da mesa soma um número exato de comandos ao mesmo pedido.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderCreationTest {
+
+    private static final int LINES = 20;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Long restaurantId;
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "order-owner", "order-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Pedidos", "Lote");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        for (int i = 0; i < LINES; i++) {
+            itemIds.add(itemRepository.save(new Item("Prato " + i, "Item " + i, BigDecimal.valueOf(1 + i), "Pratos", null, owner, restaurant)).getId());
+        }
+    }
+
+    @Test
+    void twentyLineOrderUsesConstantStatements() throws Exception {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        BigDecimal expectedTotal = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            lines.add(Map.of("itemId", itemIds.get(i), "quantity", 2));
+            expectedTotal = expectedTotal.add(BigDecimal.valueOf(1 + i).multiply(BigDecimal.valueOf(2)));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JsonNode order = createOrder(Map.of("restaurantId", restaurantId, "items", lines));
+
+        // Restaurante, itens do cardápio, INSERT do pedido e um lote com as linhas
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 4, "criação do pedido executou " + statements + " comandos SQL");
+
+        assertEquals(LINES, order.get("items").size());
+        assertEquals(0, expectedTotal.compareTo(new BigDecimal(order.get("total").asText())));
+        long previous = 0;
+        for (JsonNode line : order.get("items")) {
+            long id = line.get("id").asLong();
+            assertTrue(id > previous && id < (1L << 53), "id da linha fora de ordem ou acima de 2^53: " + id);
+            previous = id;
+        }
+        assertEquals(LINES, orderRepository.findWithItemsByIdIn(List.of(order.get("id").asLong())).get(0).getItems().size());
+    }
+
+    @Test
+    void tableOrderAddsAFixedNumberOfBillStatements() throws Exception {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            lines.add(Map.of("itemId", itemIds.get(i), "quantity", 1));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        createOrder(Map.of("restaurantId", restaurantId, "items", lines));
+
+        // Mesmo pedido sem mesa como base: a diferença é só o custo da conta da mesa
+        statistics.clear();
+        createOrder(Map.of("restaurantId", restaurantId, "items", lines));
+        long withoutTable = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        createOrder(Map.of("restaurantId", restaurantId, "tableNumber", 3, "items", lines));
+        long openingBill = statistics.getPrepareStatementCount() - withoutTable;
+
+        statistics.clear();
+        createOrder(Map.of("restaurantId", restaurantId, "tableNumber", 3, "items", lines));
+        long addingToBill = statistics.getPrepareStatementCount() - withoutTable;
+
+        // Conta nova: busca da conta aberta, INSERT da conta e um lote com as linhas
+        assertEquals(3, openingBill);
+        // Conta existente: busca da conta com as linhas, UPDATE da conta e dois lotes de UPDATE das linhas
+        // (sem hibernate.order_updates, o UPDATE da conta sai no meio das linhas e parte o lote)
+        assertEquals(4, addingToBill);
+    }
+
+    private JsonNode createOrder(Map<String, Object> request) throws Exception {
+        String response = mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("order");
+    }
+
+    @Test
+    void unknownItemRollsBackTheWholeOrder() throws Exception {
+        long before = orderRepository.count();
+        String body = objectMapper.writeValueAsString(Map.of("restaurantId", restaurantId, "tableNumber", 1,
+                "items", List.of(Map.of("itemId", itemIds.get(0), "quantity", 1), Map.of("itemId", 999_999, "quantity", 1))));
+
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+        assertEquals(before, orderRepository.count());
+    }
+}
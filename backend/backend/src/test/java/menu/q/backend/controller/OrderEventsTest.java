@@ -0,0 +1,146 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.OrderEventHub;
+import menu.q.backend.service.OrderEventHub.OrderStatusEvent;
+
+/**
+ * Painel e convidado recebem os pedidos por SSE, com retomada pelo Last-Event-ID.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderEventsTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderEventHub orderEventHub;
+
+    private Long restaurantId;
+    private Long itemId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "events-owner", "events-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Eventos", "SSE");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        itemId = itemRepository.save(new Item("Pastel", "Carne", BigDecimal.TEN, "Salgados", null, owner, restaurant)).getId();
+    }
+
+    @Test
+    void dashboardReceivesNewOrdersAndResumesFromLastEventId() throws Exception {
+        MockHttpServletResponse stream = open(get("/orders/restaurant/{id}/events", restaurantId));
+
+        JsonNode first = createOrder();
+        String firstId = first.get("order").get("id").asText();
+        String received = await(stream, body -> body.contains("\"id\":" + firstId));
+        assertTrue(received.contains("event:" + OrderEventHub.ORDER_CREATED));
+        Matcher matcher = EVENT_ID.matcher(received);
+        assertTrue(matcher.find());
+        long lastEventId = Long.parseLong(matcher.group(1));
+
+        // Conexão caiu: o pedido criado nesse meio tempo chega na reconexão, o anterior não se repete
+        JsonNode second = createOrder();
+        String secondId = second.get("order").get("id").asText();
+        MockHttpServletResponse resumed = open(get("/orders/restaurant/{id}/events", restaurantId)
+                .header("Last-Event-ID", lastEventId));
+        String replay = await(resumed, body -> body.contains("\"id\":" + secondId));
+        assertFalse(replay.contains("\"id\":" + firstId + ","));
+
+        // Id anterior ao boot (ou que já saiu do histórico): o cliente é avisado para recarregar
+        MockHttpServletResponse stale = open(get("/orders/restaurant/{id}/events", restaurantId)
+                .header("Last-Event-ID", 1));
+        await(stale, body -> body.contains("event:" + OrderEventHub.RESET));
+    }
+
+    @Test
+    void guestFollowsOwnOrderWithTrackingToken() throws Exception {
+        JsonNode created = createOrder();
+        long orderId = created.get("order").get("id").asLong();
+        String token = created.get("trackingToken").asText();
+
+        MockHttpServletResponse stream = open(get("/api/public/orders/{id}/events", orderId).param("token", token));
+        await(stream, body -> body.contains("\"status\":\"PENDING\""));
+
+        // Eventos de outros pedidos do restaurante não chegam ao convidado
+        createOrder();
+        orderEventHub.publish(OrderEventHub.STATUS_CHANGED, restaurantId, orderId, new OrderStatusEvent(orderId, "CONFIRMED"));
+        String body = await(stream, content -> content.contains("\"status\":\"CONFIRMED\""));
+        assertFalse(body.contains(OrderEventHub.ORDER_CREATED));
+
+        mockMvc.perform(get("/api/public/orders/{id}/events", orderId).param("token", "invalido"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode createOrder() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("restaurantId", restaurantId, "tableNumber", 1,
+                "items", List.of(Map.of("itemId", itemId, "quantity", 1))));
+        String response = mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private MockHttpServletResponse open(MockHttpServletRequestBuilder builder) throws Exception {
+        return mockMvc.perform(builder.accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    // O envio acontece em virtual threads: espera o conteúdo chegar na resposta
+    private static String await(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String body = response.getContentAsString();
+            if (condition.test(body)) {
+                return body;
+            }
+            Thread.sleep(20);
+        }
+        return fail("evento esperado não chegou: " + response.getContentAsString());
+    }
+}
@@ -0,0 +1,110 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.util.CursorPage;
+
+/**
+ * A exportação em stream deve devolver exatamente os mesmos pedidos da listagem paginada.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderExportTest {
+
+    private static final int ORDERS = 30;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Long restaurantId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "export-owner", "export-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Exportação", "Stream");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setRestaurant(restaurant);
+            order.setTableNumber(1 + i % 4);
+            order.setGuestName("Cliente " + i);
+            // Um pedido sem itens também precisa sair na exportação
+            for (int j = 0; j < i % 4; j++) {
+                order.addItem(new OrderItem((long) j, "Item " + j, BigDecimal.valueOf(5 + j), 1 + j));
+            }
+            order.setTotal(BigDecimal.valueOf(10L * i));
+            orderRepository.save(order);
+        }
+    }
+
+    @Test
+    void exportMatchesPagedListing() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MvcResult started = mockMvc.perform(get("/orders/restaurant/" + restaurantId + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Checagem do restaurante + uma única consulta para todas as linhas + uma para os arquivados
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 3, "exportação executou " + statements + " consultas SQL");
+
+        String listed = mockMvc.perform(get("/orders/restaurant/" + restaurantId)
+                        .param("limit", String.valueOf(CursorPage.MAX_LIMIT)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode exportedJson = objectMapper.readTree(exported);
+        assertEquals(ORDERS, exportedJson.size());
+        assertEquals(objectMapper.readTree(listed), exportedJson);
+    }
+
+    @Test
+    void unknownRestaurantIsRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/orders/restaurant/999999/export"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,215 @@
+package menu.q.backend.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderOutboxEvent;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.OrderOutboxRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.OrderEventHub;
+import menu.q.backend.service.OrderOutboxCleanupService;
+import menu.q.backend.service.OrderService;
+import menu.q.backend.service.OrderService.OrderItemRequest;
+
+/**
+ * Mudanças de status seguem a máquina de estados, não se perdem sob concorrência
+ * e deixam exatamente uma linha no outbox cada.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderStatusTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderOutboxRepository outboxRepository;
+    @Autowired private OrderService orderService;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private OrderOutboxCleanupService outboxCleanupService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Long restaurantId;
+    private Long itemId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "status-owner", "status-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Status", "Transições");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        itemId = itemRepository.save(new Item("Coxinha", "Frango", BigDecimal.ONE, "Salgados", null, owner, restaurant)).getId();
+    }
+
+    @Test
+    void transitionsFollowTheStateMachineAndFillTheOutbox() throws Exception {
+        Long orderId = newOrder();
+
+        changeStatus(orderId, "CONFIRMED").andExpect(status().isOk()).andExpect(jsonPath("$.status").value("CONFIRMED"));
+        changeStatus(orderId, "COMPLETED").andExpect(status().isOk()).andExpect(jsonPath("$.version").value(2));
+        changeStatus(orderId, "PENDING").andExpect(status().isBadRequest());
+        changeStatus(orderId, "CANCELLED").andExpect(status().isBadRequest());
+        assertEquals(2, outboxRepository.countByOrderId(orderId));
+
+        mockMvc.perform(get("/orders/restaurant/{id}/changes", restaurantId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.orderId == " + orderId + ")].toStatus").value(contains("CONFIRMED", "COMPLETED")));
+    }
+
+    @Test
+    void changesStopBeforeAnUncommittedEarlierRow() throws Exception {
+        Long slowOrder = newOrder();
+        Long fastOrder = newOrder();
+        Long cursor = outboxRepository.findAll().stream().map(OrderOutboxEvent::getId).max(Long::compare).orElse(0L);
+
+        // Uma transação grava a linha do outbox e demora a confirmar; outra, com id maior, confirma antes
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService slow = Executors.newSingleThreadExecutor();
+        Future<?> slowTx = slow.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxRepository.saveAndFlush(new OrderOutboxEvent(slowOrder, restaurantId, OrderEventHub.STATUS_CHANGED,
+                    OrderStatus.PENDING, OrderStatus.CONFIRMED, 1L));
+            inserted.countDown();
+            try {
+                commit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            inserted.await(10, TimeUnit.SECONDS);
+            orderService.changeStatus(fastOrder, OrderStatus.CONFIRMED);
+
+            // A mudança confirmada fica retida: entregá-la faria o consumidor pular a anterior
+            mockMvc.perform(get("/orders/restaurant/{id}/changes", restaurantId).param("after", cursor.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", empty()));
+        } finally {
+            commit.countDown();
+            slowTx.get();
+            slow.shutdown();
+        }
+
+        mockMvc.perform(get("/orders/restaurant/{id}/changes", restaurantId).param("after", cursor.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].orderId").value(contains(slowOrder.intValue(), fastOrder.intValue())));
+    }
+
+    @Test
+    void outboxRowsPastTheRetentionArePurged() {
+        // Restaurante à parte e linhas já antigas: não entram no feed nem na espera por buracos dos outros testes
+        Long expired = outboxRepository.save(new OrderOutboxEvent(-1L, -1L, OrderEventHub.STATUS_CHANGED,
+                OrderStatus.PENDING, OrderStatus.CONFIRMED, 1L)).getId();
+        Long recent = outboxRepository.save(new OrderOutboxEvent(-2L, -1L, OrderEventHub.STATUS_CHANGED,
+                OrderStatus.PENDING, OrderStatus.CONFIRMED, 1L)).getId();
+        jdbcTemplate.update("UPDATE order_outbox SET created_at = DATEADD('DAY', -8, CURRENT_TIMESTAMP) WHERE id = ?", expired);
+        jdbcTemplate.update("UPDATE order_outbox SET created_at = DATEADD('DAY', -1, CURRENT_TIMESTAMP) WHERE id = ?", recent);
+
+        assertTrue(outboxCleanupService.purgeExpired() >= 1);
+        assertFalse(outboxRepository.existsById(expired));
+        assertTrue(outboxRepository.existsById(recent));
+    }
+
+    @Test
+    void concurrentTransitionsRetryInsteadOfLosingUpdates() throws Exception {
+        Long orderId = newOrder();
+
+        // Todos pedem CONFIRMED ao mesmo tempo: um grava, os outros refazem e veem que já está confirmado
+        List<Boolean> confirmed = race(orderId, i -> OrderStatus.CONFIRMED);
+        assertEquals(THREADS, confirmed.stream().filter(ok -> ok).count());
+        assertEquals(1, outboxRepository.countByOrderId(orderId));
+
+        // Concluir e cancelar ao mesmo tempo: só uma das mudanças finais vence
+        List<Boolean> finished = race(orderId, i -> i % 2 == 0 ? OrderStatus.COMPLETED : OrderStatus.CANCELLED);
+        Order order = orderService.getById(orderId);
+        long winners = 0;
+        for (int i = 0; i < THREADS; i++) {
+            OrderStatus target = i % 2 == 0 ? OrderStatus.COMPLETED : OrderStatus.CANCELLED;
+            if (finished.get(i)) {
+                assertEquals(order.getStatus(), target);
+                winners++;
+            }
+        }
+        assertEquals(THREADS / 2, winners);
+        assertEquals(2, outboxRepository.countByOrderId(orderId));
+        assertEquals(2, order.getVersion());
+    }
+
+    private List<Boolean> race(Long orderId, IntFunction<OrderStatus> targetOf) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            OrderStatus target = targetOf.apply(i);
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.changeStatus(orderId, target);
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        List<Boolean> results = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            results.add(future.get());
+        }
+        pool.shutdown();
+        return results;
+    }
+
+    private Long newOrder() {
+        return orderService.createOrder(null, restaurantId, 1, "Mesa 1", List.of(new OrderItemRequest(itemId, 1))).getId();
+    }
+
+    private ResultActions changeStatus(Long orderId, String status) throws Exception {
+        return mockMvc.perform(patch("/orders/{id}/status", orderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"" + status + "\"}"));
+    }
+}
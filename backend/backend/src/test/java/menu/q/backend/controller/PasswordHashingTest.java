@@ -0,0 +1,105 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import menu.q.backend.exception.ServiceBusyException;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.security.BoundedPasswordEncoder;
+
+/**
+ * BCrypt do login no executor de hash: regrava hashes de outro custo e recusa com 503 quando a fila está cheia.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordHashingTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BoundedPasswordEncoder passwordEncoder;
+
+    @Test
+    void loginRehashesPasswordsWithAnotherCost() throws Exception {
+        // Hash gravado com custo 5; os testes configuram app.auth.bcrypt-strength=4
+        userRepository.save(new User(null, "hash-rehash", "hash-rehash@menuq.com", null,
+                new BCryptPasswordEncoder(5).encode("segredo123")));
+
+        login("hash-rehash", "segredo123").andExpect(status().isOk());
+
+        String stored = userRepository.findByUsername("hash-rehash").orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$04$"), stored);
+        assertTrue(passwordEncoder.matches("segredo123", stored));
+
+        login("hash-rehash", "errada").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void fullQueueIsRejectedRightAway() throws Exception {
+        userRepository.save(new User(null, "hash-busy", "hash-busy@menuq.com", null, passwordEncoder.encode("segredo123")));
+
+        // Ocupa as 2 threads dos testes; com elas paradas, completa a fila (4) até o executor recusar
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> blockers = new ArrayList<>();
+        Supplier<Boolean> blocker = () -> {
+            running.countDown();
+            try {
+                return release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        blockers.add(passwordEncoder.submit(blocker));
+        blockers.add(passwordEncoder.submit(blocker));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        try {
+            while (true) {
+                blockers.add(passwordEncoder.submit(blocker));
+            }
+        } catch (ServiceBusyException expected) {
+            // Fila cheia
+        }
+        try {
+            assertEquals(6, blockers.size());
+            login("hash-busy", "segredo123")
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+        } finally {
+            release.countDown();
+        }
+        CompletableFuture.allOf(blockers.toArray(CompletableFuture[]::new)).join();
+
+        // Com a fila livre o login volta a funcionar
+        login("hash-busy", "segredo123").andExpect(status().isOk());
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("username", username, "password", password))));
+    }
+}
@@ -0,0 +1,150 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderItem;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.OrderRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.OrderService;
+import menu.q.backend.service.OrderService.OrderItemRequest;
+import menu.q.backend.service.SalesRollupService;
+
+/**
+ * Contadores de vendas acompanham criação e cancelamento de pedidos, o relatório não consulta os pedidos
+ * e o rebuild chega nos mesmos números.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SalesRollupTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderService orderService;
+    @Autowired private SalesRollupService salesRollupService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Restaurant restaurant;
+    private Item burger;
+    private Item soda;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "sales-owner", "sales-owner@menuq.com"));
+        restaurant = new Restaurant(null, "Restaurante Vendas", "Painel");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        burger = itemRepository.save(new Item("Hambúrguer", "Artesanal", new BigDecimal("30.00"), "Lanches", null, owner, restaurant));
+        soda = itemRepository.save(new Item("Refrigerante", "Lata", new BigDecimal("6.00"), "Bebidas", null, owner, restaurant));
+    }
+
+    @Test
+    void countersFollowOrdersAndMatchRebuild() throws Exception {
+        Long restaurantId = restaurant.getId();
+        orderService.createOrder(null, restaurantId, 1, "A", List.of(new OrderItemRequest(burger.getId(), 2), new OrderItemRequest(soda.getId(), 2)));
+        orderService.createOrder(null, restaurantId, 2, "B", List.of(new OrderItemRequest(burger.getId(), 1)));
+        Order cancelled = orderService.createOrder(null, restaurantId, 3, "C", List.of(new OrderItemRequest(soda.getId(), 5)));
+        orderService.changeStatus(cancelled.getId(), OrderStatus.CANCELLED);
+
+        // Antes do flush: o relatório já soma os deltas pendentes
+        JsonNode pending = sales(restaurantId);
+        assertTotals(pending, 5, "102.00", 2);
+
+        salesRollupService.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JsonNode flushed = sales(restaurantId);
+        assertTotals(flushed, 5, "102.00", 2);
+        assertEquals("Hambúrguer", flushed.get("items").get(0).get("name").asText());
+        assertEquals(3, flushed.get("items").get(0).get("quantity").asLong());
+        assertEquals(2, flushed.get("items").get(0).get("orders").asLong());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(Arrays.stream(statistics.getQueries()).noneMatch(query -> query.contains("Order")), Arrays.toString(statistics.getQueries()));
+
+        // Backfill: o rebuild recalcula pelos pedidos e chega no mesmo relatório
+        mockMvc.perform(post("/api/analytics/restaurants/{id}/sales/rebuild", restaurantId)).andExpect(status().isOk());
+        assertEquals(flushed.get("totals"), sales(restaurantId).get("totals"));
+        assertEquals(flushed.get("items"), sales(restaurantId).get("items"));
+    }
+
+    @Test
+    void rebuildBucketsOlderOrdersByHour() throws Exception {
+        User owner = userRepository.save(new User(null, "sales-history", "sales-history@menuq.com"));
+        Restaurant history = new Restaurant(null, "Restaurante Histórico", "Backfill");
+        history.setOwner(owner);
+        history = restaurantRepository.save(history);
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1).withHour(10).withMinute(30);
+        saveOrder(history, yesterday, 2);
+        saveOrder(history, yesterday.plusMinutes(20), 1);
+        saveOrder(history, yesterday.plusHours(2), 4);
+
+        salesRollupService.rebuild(history.getId());
+        JsonNode report = sales(history.getId());
+        assertTotals(report, 7, "70.00", 3);
+        JsonNode hours = report.get("hours");
+        assertEquals(2, hours.size());
+        assertEquals(yesterday.withMinute(0).withSecond(0).withNano(0), LocalDateTime.parse(hours.get(0).get("hour").asText()));
+        assertEquals(3, hours.get(0).get("quantity").asLong());
+        assertEquals(2, hours.get(0).get("orders").asLong());
+    }
+
+    private void saveOrder(Restaurant target, LocalDateTime createdAt, int quantity) {
+        Order order = new Order();
+        order.setRestaurant(target);
+        order.setCreatedAt(createdAt);
+        order.addItem(new OrderItem(burger.getId(), "Hambúrguer", BigDecimal.TEN, quantity));
+        order.setTotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(quantity)));
+        orderRepository.save(order);
+    }
+
+    private JsonNode sales(Long restaurantId) throws Exception {
+        String body = mockMvc.perform(get("/api/analytics/restaurants/{id}/sales", restaurantId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body);
+    }
+
+    private static void assertTotals(JsonNode report, long quantity, String revenue, long orders) {
+        JsonNode totals = report.get("totals");
+        assertEquals(quantity, totals.get("quantity").asLong());
+        assertEquals(0, new BigDecimal(revenue).compareTo(totals.get("revenue").decimalValue()));
+        assertEquals(orders, totals.get("orders").asLong());
+    }
+}
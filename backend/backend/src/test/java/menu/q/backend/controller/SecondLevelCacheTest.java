@@ -0,0 +1,191 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.model.Employee;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.EmployeeRepository;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.ItemService;
+
+/**
+ * Cache de segundo nível: entidades lidas por id e a consulta de destaques voltam sem SQL enquanto não há escrita,
+ * e os acertos aparecem nas estatísticas do Hibernate e no actuator. A coleção Restaurant.items fica fora do
+ * cache e os preços dos pedidos não saem dele.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SecondLevelCacheTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private ItemService itemService;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private TransactionTemplate tx;
+    private Long restaurantId;
+    private Long featuredId;
+    private Long plainId;
+    private Long employeeId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "l2-owner", "l2-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante L2", "Cardápio");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        Item featured = new Item("Feijoada", "Completa", new BigDecimal("45.00"), "Pratos", null, owner, restaurant);
+        featured.setFeatured(true);
+        featuredId = itemRepository.save(featured).getId();
+        plainId = itemRepository.save(new Item("Arroz", "Branco", new BigDecimal("10.00"), "Pratos", null, owner, restaurant)).getId();
+        employeeId = employeeRepository.save(new Employee("Carla", "Caixa", null, restaurant)).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void entitiesLoadedByIdComeFromTheCache() {
+        // Primeira leitura de cada uma pode ir ao banco e popula o cache
+        restaurantRepository.findById(restaurantId).orElseThrow();
+        itemRepository.findById(featuredId).orElseThrow();
+        employeeRepository.findById(employeeId).orElseThrow();
+        statistics.clear();
+
+        // Cada findById abre outra sessão: sem o cache de segundo nível, seriam três SELECTs (e o dono do restaurante)
+        assertEquals("Restaurante L2", restaurantRepository.findById(restaurantId).orElseThrow().getName());
+        assertEquals("l2-owner", restaurantRepository.findById(restaurantId).orElseThrow().getOwner().getUsername());
+        assertEquals("Feijoada", itemRepository.findById(featuredId).orElseThrow().getName());
+        assertEquals("Carla", employeeRepository.findById(employeeId).orElseThrow().getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCacheMissCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 4, "acertos: " + statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void restaurantItemsCollectionSeesNewAndDeletedItems() {
+        assertEquals(2, itemCount());
+
+        // Item criado e apagado por aqui mesmo: a coleção relida acompanha
+        Restaurant restaurant = restaurantRepository.findById(restaurantId).orElseThrow();
+        Long extraId = itemRepository.save(new Item("Farofa", "Da casa", new BigDecimal("8.00"), "Pratos", null,
+                restaurant.getOwner(), restaurant)).getId();
+        assertEquals(3, itemCount());
+
+        itemRepository.deleteById(extraId);
+        assertEquals(2, itemCount());
+    }
+
+    private int itemCount() {
+        return tx.execute(status -> restaurantRepository.findById(restaurantId).orElseThrow().getItems().size());
+    }
+
+    @Test
+    void featuredQueryIsCachedUntilItemsChange() {
+        assertEquals(List.of(featuredId), itemRepository.findFeaturedByRestaurantId(restaurantId).stream().map(Item::getId).toList());
+        statistics.clear();
+
+        assertEquals(List.of(featuredId), itemRepository.findFeaturedByRestaurantId(restaurantId).stream().map(Item::getId).toList());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // Escrita na tabela items: o resultado guardado deixa de valer
+        ItemDto featured = new ItemDto();
+        featured.setFeatured(true);
+        itemService.updateItem(plainId, featured);
+        statistics.clear();
+        assertEquals(2, itemRepository.findFeaturedByRestaurantId(restaurantId).size());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+
+        featured.setFeatured(false);
+        itemService.updateItem(plainId, featured);
+    }
+
+    @Test
+    void ordersPriceMenuItemsFromTheDatabase() throws Exception {
+        restaurantRepository.findById(restaurantId).orElseThrow();
+        itemRepository.findById(featuredId).orElseThrow();
+        itemRepository.findById(plainId).orElseThrow();
+        // Preço alterado por outra réplica: o cache deste nó ainda tem 45.00 até a invalidação chegar
+        jdbcTemplate.update("UPDATE items SET price = ? WHERE id = ?", new BigDecimal("47.00"), featuredId);
+        statistics.clear();
+
+        String body = objectMapper.writeValueAsString(Map.of("restaurantId", restaurantId, "items",
+                List.of(Map.of("itemId", featuredId, "quantity", 1), Map.of("itemId", plainId, "quantity", 2))));
+        String response = mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode order = objectMapper.readTree(response).get("order");
+
+        // Cobrado pelo preço do banco; o restaurante continua vindo do cache
+        assertEquals(0, new BigDecimal("67.00").compareTo(new BigDecimal(order.get("total").asText())));
+        assertEquals(2, statistics.getEntityStatistics(Item.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getDomainDataRegionStatistics(Item.class.getName()).getHitCount());
+        assertEquals(0, statistics.getEntityStatistics(Restaurant.class.getName()).getLoadCount());
+
+        ItemDto price = new ItemDto();
+        price.setPrice(new BigDecimal("45.00"));
+        itemService.updateItem(featuredId, price);
+    }
+
+    @Test
+    void hitRatesArePublishedAsMetrics() {
+        double before = meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", Item.class.getName(), "result", "hit").functionCounter().count();
+        itemRepository.findById(featuredId).orElseThrow();
+        itemRepository.findById(featuredId).orElseThrow();
+
+        double after = meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", Item.class.getName(), "result", "hit").functionCounter().count();
+        assertTrue(after >= before + 1, "acertos antes " + before + ", depois " + after);
+        meterRegistry.get("hibernate.query.cache.requests").tags("result", "miss").functionCounter();
+    }
+}
@@ -0,0 +1,142 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.data.dto.TableBillDto;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.OrderService;
+import menu.q.backend.service.OrderService.OrderItemRequest;
+import menu.q.backend.service.TableSessionService;
+
+/**
+ * A conta da mesa acompanha os pedidos (criação e cancelamento) e é lida sem somar os pedidos.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TableSessionTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderService orderService;
+    @Autowired private TableSessionService tableSessionService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Long restaurantId;
+    private Long beerId;
+    private Long friesId;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User(null, "table-owner", "table-owner@menuq.com"));
+        Restaurant restaurant = new Restaurant(null, "Restaurante Mesas", "Conta");
+        restaurant.setOwner(owner);
+        restaurant = restaurantRepository.save(restaurant);
+        restaurantId = restaurant.getId();
+        beerId = itemRepository.save(new Item("Chope", "300ml", new BigDecimal("12.00"), "Bebidas", null, owner, restaurant)).getId();
+        friesId = itemRepository.save(new Item("Fritas", "Porção", new BigDecimal("25.00"), "Porções", null, owner, restaurant)).getId();
+    }
+
+    @Test
+    void billFollowsOrdersAndClosesAtPayment() throws Exception {
+        order(1, new OrderItemRequest(beerId, 2), new OrderItemRequest(friesId, 1));
+        order(1, new OrderItemRequest(beerId, 3));
+        Order cancelled = order(1, new OrderItemRequest(friesId, 2));
+        orderService.changeStatus(cancelled.getId(), OrderStatus.CANCELLED);
+        order(null, new OrderItemRequest(friesId, 4)); // Retirada: fora de qualquer conta
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/orders/restaurant/{id}/tables/{table}/bill", restaurantId, 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(85.0))
+                .andExpect(jsonPath("$.orderCount").value(2))
+                .andExpect(jsonPath("$.lines.length()").value(2))
+                .andExpect(jsonPath("$.lines[0].name").value("Chope"))
+                .andExpect(jsonPath("$.lines[0].quantity").value(5))
+                .andExpect(jsonPath("$.lines[0].amount").value(60.0))
+                .andExpect(jsonPath("$.lines[1].quantity").value(1));
+        // Uma consulta, qualquer que seja o número de pedidos da mesa
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(post("/orders/restaurant/{id}/tables/{table}/close", restaurantId, 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(85.0))
+                .andExpect(jsonPath("$.closedAt").exists());
+        mockMvc.perform(get("/orders/restaurant/{id}/tables/{table}/bill", restaurantId, 1))
+                .andExpect(status().isBadRequest());
+
+        // Depois do pagamento, o próximo pedido abre outra conta
+        Order next = order(1, new OrderItemRequest(beerId, 1));
+        TableBillDto bill = tableSessionService.currentBill(restaurantId, 1);
+        assertEquals(next.getTableSessionId(), bill.sessionId());
+        assertNotEquals(cancelled.getTableSessionId(), bill.sessionId());
+        assertEquals(0, new BigDecimal("12.00").compareTo(bill.total()));
+    }
+
+    @Test
+    void concurrentFirstOrdersShareOneSession() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return order(2, new OrderItemRequest(beerId, 1));
+            }));
+        }
+        start.countDown();
+        List<Long> sessions = new ArrayList<>();
+        for (Future<Order> future : futures) {
+            sessions.add(future.get().getTableSessionId());
+        }
+        pool.shutdown();
+
+        TableBillDto bill = tableSessionService.currentBill(restaurantId, 2);
+        assertEquals(threads, bill.orderCount());
+        assertEquals(threads, bill.lines().get(0).quantity());
+        assertEquals(1, sessions.stream().distinct().count());
+        assertNull(orderService.createOrder(null, restaurantId, null, "Balcão", List.of(new OrderItemRequest(beerId, 1))).getTableSessionId());
+    }
+
+    private Order order(Integer table, OrderItemRequest... items) {
+        return orderService.createOrder(null, restaurantId, table, "Mesa", List.of(items));
+    }
+}
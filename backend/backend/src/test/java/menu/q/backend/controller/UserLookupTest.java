@@ -0,0 +1,145 @@
+package menu.q.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import menu.q.backend.data.dto.UserDTO;
+import menu.q.backend.service.UserService;
+import menu.q.backend.util.CursorPage;
+
+/**
+ * Com 100 mil usuários, GET /api/users/{id} e a busca por nome são uma consulta indexada (ou nenhuma,
+ * com o resumo em cache), sem carregar a tabela.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserLookupTest {
+
+    private static final int USERS = 100_000;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserService userService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+        // Um INSERT ... SELECT sobre SYSTEM_RANGE do H2 (coluna "X"): 100 mil linhas sem 100 mil comandos
+        jdbcTemplate.update("INSERT INTO users (username, email) "
+                + "SELECT CONCAT('bulk-', LPAD(CAST(\"X\" AS VARCHAR), 6, '0')), CONCAT('bulk-', \"X\", '@menuq.com') "
+                + "FROM SYSTEM_RANGE(1, ?)", USERS);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'bulk-%'");
+    }
+
+    @Test
+    void getByIdIsOnePrimaryKeyLookupThenCached() throws Exception {
+        Long id = idOf("bulk-054321");
+
+        statistics.clear();
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("bulk-054321"))
+                .andExpect(jsonPath("$._links.self.href").exists());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/users/{id}", id)).andExpect(jsonPath("$.username").value("bulk-054321"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Alteração invalida o resumo em cache
+        UserDTO update = new UserDTO();
+        update.setEmail("renomeado-54321@menuq.com");
+        userService.updateUser(id, update);
+        mockMvc.perform(get("/api/users/{id}", id)).andExpect(jsonPath("$.email").value("renomeado-54321@menuq.com"));
+
+        mockMvc.perform(get("/api/users/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getByIdBlanksInlineAvatarsLikeTheList() throws Exception {
+        Long id = idOf("bulk-012345");
+        // Avatar base64 ainda não migrado: fica fora da resposta, como na listagem
+        jdbcTemplate.update("UPDATE users SET avatar = ? WHERE id = ?", "data:image/png;base64,iVBORw0KGgo=", id);
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("bulk-012345"))
+                .andExpect(jsonPath("$.avatar").doesNotExist());
+    }
+
+    @Test
+    void prefixSearchPagesInNameOrder() throws Exception {
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            statistics.clear();
+            MockHttpServletResponse response = mockMvc.perform(get("/api/users")
+                            .param("username", "bulk-0999")
+                            .param("limit", "40")
+                            .param("after", after))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            assertEquals(1, statistics.getPrepareStatementCount());
+            for (JsonNode user : objectMapper.readTree(response.getContentAsString())) {
+                names.add(user.get("username").asText());
+            }
+            after = response.getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        } while (after != null);
+
+        List<String> expected = IntStream.rangeClosed(99_900, 99_999).mapToObj(i -> String.format("bulk-%06d", i)).toList();
+        assertEquals(expected, names);
+    }
+
+    @Test
+    void containsSearchAndEscaping() throws Exception {
+        long expected = IntStream.rangeClosed(1, USERS).filter(i -> String.format("%06d", i).contains("9999")).count();
+        CursorPage<UserDTO> page = userService.searchUsers("9999", true, null, CursorPage.MAX_LIMIT);
+        assertEquals(expected, page.items().size());
+        assertNull(page.nextCursor());
+        assertEquals("bulk-009999", page.items().get(0).getUsername());
+
+        // Curingas do LIKE digitados na busca são literais
+        assertEquals(0, userService.searchUsers("bulk_", false, null, 10).items().size());
+        assertEquals(0, userService.searchUsers("%", true, null, 10).items().size());
+    }
+
+    private Long idOf(String username) {
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+}
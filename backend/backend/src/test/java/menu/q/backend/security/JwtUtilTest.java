@@ -0,0 +1,57 @@
+package menu.q.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import menu.q.backend.model.User;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "menuq_test_secret_key_long_enough_for_the_hs256_algorithm";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+
+    @Test
+    void verifyReadsClaimsOnceAndReusesTheResult() {
+        String token = jwtUtil.generateToken(new User(42L, "maria", "maria@menuq.com"));
+
+        VerifiedToken verified = jwtUtil.verify(token);
+        assertEquals("maria", verified.username());
+        assertEquals(42L, verified.userId());
+        assertEquals(List.of(JwtUtil.ROLE_USER), verified.authorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(verified, jwtUtil.verify(token));
+    }
+
+    @Test
+    void rejectsTamperedExpiredAndForeignTokens() {
+        String token = jwtUtil.generateToken(new User(42L, "maria", "maria@menuq.com"));
+        jwtUtil.verify(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+
+        String expired = new JwtUtil(SECRET, -1_000, 100).generateToken(new User(42L, "maria", "maria@menuq.com"));
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(expired));
+
+        String foreign = new JwtUtil(SECRET.replace('t', 'x'), 60_000, 100).generateToken(new User(42L, "maria", "maria@menuq.com"));
+        assertThrows(JwtException.class, () -> jwtUtil.verify(foreign));
+    }
+
+    @Test
+    void cacheIsBounded() {
+        JwtUtil uncached = new JwtUtil(SECRET, 60_000, 0);
+        String token = uncached.generateToken(new User(7L, "joao", "joao@menuq.com"));
+        VerifiedToken first = uncached.verify(token);
+        VerifiedToken second = uncached.verify(token);
+        assertEquals(first, second);
+        assertNotSame(first, second);
+    }
+}
@@ -0,0 +1,74 @@
+package menu.q.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RateLimitFilterTest {
+
+    private final ClientAddressResolver clientAddress = new ClientAddressResolver(List.of("10.0.0.0/8"));
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(1000, Duration.ofMinutes(5));
+    private final RateLimitFilter filter = new RateLimitFilter(store, clientAddress, true, 5, 2, 3);
+
+    @Test
+    void policiesHaveSeparateBuckets() throws Exception {
+        assertEquals(200, send("POST", "/api/auth/login", "203.0.113.1", null).getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "203.0.113.1", null).getStatus());
+        MockHttpServletResponse limited = send("POST", "/api/auth/login", "203.0.113.1", null);
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader("Retry-After"));
+
+        // Login esgotado não consome a cota de pedidos nem a de leitura
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send("POST", "/orders", "203.0.113.1", null).getStatus());
+        }
+        assertEquals(429, send("POST", "/orders", "203.0.113.1", null).getStatus());
+        assertEquals(200, send("GET", "/orders/1", "203.0.113.1", null).getStatus());
+        // Outro cliente tem os próprios buckets
+        assertEquals(200, send("POST", "/api/auth/login", "203.0.113.2", null).getStatus());
+    }
+
+    @Test
+    void forwardedForIsOnlyTrustedFromKnownProxies() {
+        // Conexão direta: o cabeçalho é do próprio cliente e é ignorado
+        assertEquals("203.0.113.7", clientAddress.resolve(request("GET", "/", "203.0.113.7", "198.51.100.1")));
+        // Via proxy confiável: o primeiro endereço não confiável da direita para a esquerda
+        assertEquals("198.51.100.9", clientAddress.resolve(request("GET", "/", "10.0.0.2", "1.2.3.4, 198.51.100.9, 10.0.0.5")));
+        // Só proxies no caminho: o mais à esquerda
+        assertEquals("10.0.0.9", clientAddress.resolve(request("GET", "/", "10.0.0.2", "10.0.0.9")));
+        assertEquals("lixo", clientAddress.resolve(request("GET", "/", "10.0.0.2", "lixo")));
+    }
+
+    @Test
+    void storeIsBounded() throws Exception {
+        InMemoryRateLimitStore small = new InMemoryRateLimitStore(3, Duration.ofMinutes(5));
+        RateLimitFilter limited = new RateLimitFilter(small, new ClientAddressResolver(List.of()), true, 5, 2, 3);
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            limited.doFilter(request("GET", "/api/items", "203.0.113." + i, null), response, (req, res) -> {});
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(3L, small.size());
+    }
+
+    private MockHttpServletResponse send(String method, String path, String remoteAddr, String forwardedFor) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path, remoteAddr, forwardedFor), response, (req, res) -> {});
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
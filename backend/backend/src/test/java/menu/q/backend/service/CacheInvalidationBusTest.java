@@ -0,0 +1,180 @@
+package menu.q.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import menu.q.backend.BackendApplication;
+import menu.q.backend.config.CacheNames;
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.data.dto.RestaurantDto;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Order;
+import menu.q.backend.model.OrderStatus;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.security.JwtUtil;
+import menu.q.backend.security.OrderTrackingTokens;
+
+/**
+ * Duas instâncias da aplicação na mesma JVM, sobre o mesmo banco: uma escrita num nó descarta os caches do outro
+ * pelo transporte configurado, sem esperar a validade das entradas. Pedidos criados ou alterados num nó chegam
+ * aos assinantes SSE do outro pelo mesmo transporte.
+ */
+class CacheInvalidationBusTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"outbox", "loopback"})
+    void writeOnOneNodeInvalidatesTheOther(String transport) throws Exception {
+        String url = "jdbc:h2:mem:menuq-bus-" + transport + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        // O primeiro nó cria o esquema; o segundo usa o que já existe
+        try (ConfigurableApplicationContext a = start(transport, url, "create-drop");
+             ConfigurableApplicationContext b = start(transport, url, "none")) {
+            // Dados gravados pelo próprio nó B: as invalidações deles só vão para o A
+            User owner = b.getBean(UserRepository.class).save(new User(null, "bus-owner", "bus-owner@menuq.com"));
+            Restaurant restaurant = new Restaurant(null, "Restaurante Bus", "Cardápio");
+            restaurant.setOwner(owner);
+            restaurant.setTableCount(3);
+            Long restaurantId = b.getBean(RestaurantRepository.class).save(restaurant).getId();
+            Long itemId = b.getBean(ItemRepository.class)
+                    .save(new Item("Coxinha", "De frango", new BigDecimal("8.00"), "Lanches", null, owner, restaurant)).getId();
+
+            // O nó B guarda o restaurante do dono e o cardápio
+            RestaurantService restaurantsOnB = b.getBean(RestaurantService.class);
+            MenuSnapshotService menusOnB = b.getBean(MenuSnapshotService.class);
+            assertEquals("Restaurante Bus", restaurantsOnB.getRestaurantByOwner(owner.getId()).name());
+            assertEquals(0, new BigDecimal("8.00").compareTo(price(menusOnB, restaurantId)));
+            assertNotNull(b.getBean(CacheManager.class).getCache(CacheNames.RESTAURANT_BY_OWNER).get(owner.getId()));
+            // E as entidades no cache de segundo nível
+            RestaurantRepository restaurantRepositoryOnB = b.getBean(RestaurantRepository.class);
+            ItemRepository itemRepositoryOnB = b.getBean(ItemRepository.class);
+            assertEquals("Restaurante Bus", restaurantRepositoryOnB.findById(restaurantId).orElseThrow().getName());
+            assertEquals(0, new BigDecimal("8.00").compareTo(itemRepositoryOnB.findById(itemId).orElseThrow().getPrice()));
+
+            // Escritas no nó A
+            RestaurantDto rename = new RestaurantDto();
+            rename.setName("Restaurante Renomeado");
+            a.getBean(RestaurantService.class).updateRestaurant(restaurantId, rename);
+            ItemDto newPrice = new ItemDto();
+            newPrice.setPrice(new BigDecimal("9.50"));
+            newPrice.setCategory("Salgados");
+            a.getBean(ItemService.class).updateItem(itemId, newPrice);
+
+            await(() -> "Restaurante Renomeado".equals(restaurantsOnB.getRestaurantByOwner(owner.getId()).name()));
+            await(() -> new BigDecimal("9.50").compareTo(price(menusOnB, restaurantId)) == 0);
+            await(() -> "Restaurante Renomeado".equals(restaurantRepositoryOnB.findById(restaurantId).orElseThrow().getName()));
+            await(() -> new BigDecimal("9.50").compareTo(itemRepositoryOnB.findById(itemId).orElseThrow().getPrice()) == 0);
+
+            // O índice de busca do nó B também acompanha, inclusive a remoção
+            SearchIndexService searchOnB = b.getBean(SearchIndexService.class);
+            await(() -> searchOnB.searchRestaurants("renomeado", 10).stream().anyMatch(match -> match.id().equals(restaurantId)));
+            await(() -> searchOnB.searchItems("salgados", restaurantId, 10).stream().anyMatch(item -> item.getId().equals(itemId)));
+            a.getBean(ItemService.class).deleteItem(itemId);
+            await(() -> searchOnB.searchItems("coxinha", restaurantId, 10).isEmpty());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"outbox", "loopback"})
+    void orderEventsReachSubscribersOnTheOtherNode(String transport) throws Exception {
+        String url = "jdbc:h2:mem:menuq-bus-orders-" + transport + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        try (ConfigurableApplicationContext a = start(transport, url, "create-drop");
+             ConfigurableApplicationContext b = start(transport, url, "none")) {
+            User owner = a.getBean(UserRepository.class).save(new User(null, "bus-orders-owner", "bus-orders-owner@menuq.com"));
+            Restaurant restaurant = new Restaurant(null, "Restaurante Pedidos", "Cardápio");
+            restaurant.setOwner(owner);
+            Long restaurantId = a.getBean(RestaurantRepository.class).save(restaurant).getId();
+            Long itemId = a.getBean(ItemRepository.class)
+                    .save(new Item("Pastel", "De queijo", new BigDecimal("7.00"), "Lanches", null, owner, restaurant)).getId();
+
+            // Painel conectado ao nó B
+            StringBuffer dashboard = stream(b, "/orders/restaurant/" + restaurantId + "/events", b.getBean(JwtUtil.class).generateToken(owner));
+            await(() -> b.getBean(OrderEventHub.class).hasSubscribers(restaurantId));
+
+            // Pedido criado no nó A
+            Order order = a.getBean(OrderService.class).createOrder(null, restaurantId, null, "Ana",
+                    List.of(new OrderService.OrderItemRequest(itemId, 2)));
+            await(() -> dashboard.indexOf("event:" + OrderEventHub.ORDER_CREATED) >= 0 && dashboard.indexOf("\"id\":" + order.getId()) >= 0);
+
+            // Convidado acompanhando o pedido pelo nó B; o status muda no nó A
+            String token = b.getBean(OrderTrackingTokens.class).issue(order.getId());
+            StringBuffer guest = stream(b, "/api/public/orders/" + order.getId() + "/events?token=" + token, null);
+            await(() -> guest.indexOf("\"status\":\"PENDING\"") >= 0);
+            a.getBean(OrderService.class).changeStatus(order.getId(), OrderStatus.CONFIRMED);
+            await(() -> guest.indexOf("\"status\":\"CONFIRMED\"") >= 0);
+            await(() -> dashboard.indexOf("event:" + OrderEventHub.STATUS_CHANGED) >= 0);
+        }
+    }
+
+    // Lê o stream SSE do nó numa virtual thread, acumulando as linhas recebidas
+    private static StringBuffer stream(ConfigurableApplicationContext node, String path, String jwt) {
+        StringBuffer received = new StringBuffer();
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + node.getEnvironment().getProperty("local.server.port") + path))
+                .header("Accept", "text/event-stream");
+        if (jwt != null) {
+            request.header("Authorization", "Bearer " + jwt);
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        Thread.ofVirtual().start(() -> {
+            try {
+                HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+                response.body().forEach(line -> received.append(line).append('\n'));
+            } catch (Exception e) {
+                received.append("erro: ").append(e);
+            }
+        });
+        return received;
+    }
+
+    private static ConfigurableApplicationContext start(String transport, String url, String ddl) {
+        return new SpringApplicationBuilder(BackendApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--app.cache.invalidation.transport=" + transport,
+                "--app.cache.invalidation.poll-interval=50ms",
+                // Tokens de acompanhamento emitidos por um nó valem no outro
+                "--app.orders.tracking-secret=menuq-bus-test-tracking-secret");
+    }
+
+    private BigDecimal price(MenuSnapshotService menus, Long restaurantId) {
+        try {
+            return objectMapper.readTree(menus.getSnapshot(restaurantId).render(1)).at("/items/0/price").decimalValue();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "o outro nó não viu a escrita em " + TIMEOUT_MILLIS + " ms");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package menu.q.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import menu.q.backend.service.ImageVariantService.Variant;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path root;
+
+    private ImageVariantService service;
+    private Path source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path items = Files.createDirectories(root.resolve("default-images/items"));
+        source = items.resolve("pizza.jpg");
+        BufferedImage image = new BufferedImage(2400, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, 1200, 1200);
+        g.dispose();
+        ImageIO.write(image, "jpg", source.toFile());
+
+        service = new ImageVariantService(root.resolve("default-images").toString(), root.resolve("cache").toString(), false);
+    }
+
+    @Test
+    void downscalesKeepingAspectRatio() throws Exception {
+        Path card = service.resolve("items", "pizza.jpg", Variant.CARD).orElseThrow();
+
+        BufferedImage variant = ImageIO.read(card.toFile());
+        assertEquals(480, variant.getWidth());
+        assertEquals(240, variant.getHeight());
+        assertTrue(Files.size(card) < Files.size(source));
+    }
+
+    @Test
+    void reusesVariantUntilSourceChanges() throws Exception {
+        Path thumb = service.resolve("items", "pizza.jpg", Variant.THUMB).orElseThrow();
+        FileTime generatedAt = FileTime.fromMillis(System.currentTimeMillis() - 600_000);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(generatedAt.toMillis() - 60_000));
+        Files.setLastModifiedTime(thumb, generatedAt);
+
+        service.resolve("items", "pizza.jpg", Variant.THUMB);
+        assertEquals(generatedAt, Files.getLastModifiedTime(thumb));
+
+        // Original mais novo que a variante: é gerada de novo
+        Files.setLastModifiedTime(source, FileTime.fromMillis(generatedAt.toMillis() + 60_000));
+        service.resolve("items", "pizza.jpg", Variant.THUMB);
+        assertTrue(Files.getLastModifiedTime(thumb).compareTo(generatedAt) > 0);
+    }
+
+    @Test
+    void rejectsUnknownFilesAndTraversal() {
+        assertTrue(service.resolve("items", "sushi.jpg", Variant.CARD).isEmpty());
+        assertTrue(service.resolve("items", "../items/pizza.jpg", Variant.CARD).isEmpty());
+        assertTrue(service.resolve("uploads", "pizza.jpg", Variant.CARD).isEmpty());
+    }
+}
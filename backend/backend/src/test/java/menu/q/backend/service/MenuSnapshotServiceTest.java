@@ -0,0 +1,117 @@
+package menu.q.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityNotFoundException;
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.data.dto.RestaurantDto;
+import menu.q.backend.model.Employee;
+import menu.q.backend.model.Item;
+import menu.q.backend.model.Restaurant;
+import menu.q.backend.model.User;
+import menu.q.backend.repository.EmployeeRepository;
+import menu.q.backend.repository.ItemRepository;
+import menu.q.backend.repository.RestaurantRepository;
+import menu.q.backend.repository.UserRepository;
+import menu.q.backend.service.MenuSnapshotService.MenuSnapshot;
+
+/**
+ * Snapshot do cardápio público: conteúdo do JSON, reaproveitamento entre leituras e descarte depois
+ * das escritas em itens, funcionários e no restaurante.
+ */
+@SpringBootTest
+class MenuSnapshotServiceTest {
+
+    private static int sequence;
+
+    @Autowired private MenuSnapshotService menuSnapshotService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RestaurantRepository restaurantRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private ItemService itemService;
+    @Autowired private RestaurantService restaurantService;
+    @Autowired private ObjectMapper objectMapper;
+
+    private Restaurant restaurant;
+    private Long itemId;
+
+    @BeforeEach
+    void seed() {
+        int n = ++sequence;
+        User owner = userRepository.save(new User(null, "snapshot-owner-" + n, "snapshot-owner-" + n + "@menuq.com"));
+        restaurant = new Restaurant(null, "Restaurante Snapshot", "Cardápio do dia");
+        restaurant.setOwner(owner);
+        restaurant.setTableCount(4);
+        restaurant = restaurantRepository.save(restaurant);
+        itemId = itemRepository.save(new Item("Moqueca", "De peixe", new BigDecimal("52.00"), "Pratos", null, owner, restaurant)).getId();
+        employeeRepository.save(new Employee("Rita", "Garçonete", null, restaurant));
+    }
+
+    @Test
+    void rendersRestaurantItemsEmployeesAndTable() throws Exception {
+        MenuSnapshot snapshot = menuSnapshotService.getSnapshot(restaurant.getId());
+        JsonNode menu = objectMapper.readTree(snapshot.render(3));
+
+        assertEquals(4, snapshot.getTableCount());
+        assertEquals(restaurant.getId(), menu.at("/restaurant/id").asLong());
+        assertEquals("Restaurante Snapshot", menu.at("/restaurant/name").asText());
+        assertEquals("Cardápio do dia", menu.at("/restaurant/description").asText());
+        assertEquals("", menu.at("/restaurant/cover").asText());
+        assertEquals(1, menu.get("items").size());
+        assertEquals("Moqueca", menu.at("/items/0/name").asText());
+        assertEquals(0, new BigDecimal("52.00").compareTo(menu.at("/items/0/price").decimalValue()));
+        assertEquals("Rita", menu.at("/employees/0/name").asText());
+        assertEquals(3, menu.get("tableNumber").asInt());
+        // Só o número da mesa muda entre renderizações
+        assertEquals(7, objectMapper.readTree(snapshot.render(7)).get("tableNumber").asInt());
+    }
+
+    @Test
+    void snapshotIsReusedUntilAWrite() throws Exception {
+        MenuSnapshot first = menuSnapshotService.getSnapshot(restaurant.getId());
+        assertSame(first, menuSnapshotService.getSnapshot(restaurant.getId()));
+
+        ItemDto price = new ItemDto();
+        price.setPrice(new BigDecimal("55.00"));
+        itemService.updateItem(itemId, price);
+        MenuSnapshot afterItem = menuSnapshotService.getSnapshot(restaurant.getId());
+        assertNotSame(first, afterItem);
+        assertEquals(0, new BigDecimal("55.00").compareTo(menu(afterItem).at("/items/0/price").decimalValue()));
+
+        RestaurantDto rename = new RestaurantDto();
+        rename.setName("Restaurante Renomeado");
+        restaurantService.updateRestaurant(restaurant.getId(), rename);
+        MenuSnapshot afterRestaurant = menuSnapshotService.getSnapshot(restaurant.getId());
+        assertNotSame(afterItem, afterRestaurant);
+        assertEquals("Restaurante Renomeado", menu(afterRestaurant).at("/restaurant/name").asText());
+
+        employeeRepository.save(new Employee("Tiago", "Cozinheiro", null, restaurant));
+        assertEquals(2, menu(menuSnapshotService.getSnapshot(restaurant.getId())).get("employees").size());
+
+        itemService.deleteItem(itemId);
+        assertEquals(0, menu(menuSnapshotService.getSnapshot(restaurant.getId())).get("items").size());
+    }
+
+    @Test
+    void unknownRestaurantIsNotFound() {
+        assertThrows(EntityNotFoundException.class, () -> menuSnapshotService.getSnapshot(-1L));
+    }
+
+    private JsonNode menu(MenuSnapshot snapshot) throws Exception {
+        return objectMapper.readTree(snapshot.render(1));
+    }
+}
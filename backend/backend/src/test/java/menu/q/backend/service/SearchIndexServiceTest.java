@@ -0,0 +1,73 @@
+package menu.q.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import menu.q.backend.data.dto.ItemDto;
+
+class SearchIndexServiceTest {
+
+    private SearchIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndexService(null, null);
+        index.indexItem(item(1L, "Açaí na tigela", "Com granola e banana", "Açaí", 10L));
+        index.indexItem(item(2L, "Suco de laranja", "Natural, sem açúcar", "Bebidas", 10L));
+        index.indexItem(item(3L, "Pizza de calabresa", "Molho de tomate e cebola", "Pizzas", 20L));
+        index.indexItem(item(4L, "Brownie", "Sobremesa com calda de açaí", "Sobremesas", 20L));
+    }
+
+    @Test
+    void ignoresAccentsAndCase() {
+        assertEquals(List.of(1L, 4L), ids(index.searchItems("ACAI", null, 10)));
+        assertEquals(List.of(2L), ids(index.searchItems("acucar", null, 10)));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        List<Long> ids = ids(index.searchItems("açaí", null, 10));
+        assertEquals(1L, ids.get(0));
+    }
+
+    @Test
+    void lastTermIsPrefix() {
+        assertEquals(List.of(3L), ids(index.searchItems("pizza cala", null, 10)));
+        assertEquals(List.of(3L), ids(index.searchItems("piz", null, 10)));
+    }
+
+    @Test
+    void filtersByRestaurant() {
+        assertEquals(List.of(4L), ids(index.searchItems("acai", 20L, 10)));
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisible() {
+        index.indexItem(item(3L, "Pizza margherita", "Manjericão", "Pizzas", 20L));
+        assertTrue(index.searchItems("calabresa", null, 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.searchItems("manjericao", null, 10)));
+
+        index.removeItem(3L);
+        assertTrue(index.searchItems("pizza", null, 10).isEmpty());
+    }
+
+    @Test
+    void returnedDtosDoNotShareLinksWithIndex() {
+        index.searchItems("brownie", null, 10).get(0).add(org.springframework.hateoas.Link.of("/x"));
+        assertTrue(index.searchItems("brownie", null, 10).get(0).getLinks().isEmpty());
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+
+    private static ItemDto item(Long id, String name, String description, String category, Long restaurantId) {
+        return new ItemDto(id, name, description, BigDecimal.TEN, category, null, 1L, restaurantId, false);
+    }
+}
@@ -0,0 +1,81 @@
+package menu.q.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Links;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import menu.q.backend.controller.ItemController;
+import menu.q.backend.controller.UserController;
+import menu.q.backend.data.dto.ItemDto;
+import menu.q.backend.data.dto.UserDTO;
+
+/**
+ * Os links montados por template devem ser idênticos aos do linkTo(methodOn(...)).
+ */
+class LinkTemplatesTest {
+
+    private final LinkTemplates linkTemplates = new LinkTemplates();
+
+    @BeforeEach
+    void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/menu/api/items/search");
+        request.setScheme("https");
+        request.setServerName("api.menu4you.com");
+        request.setServerPort(8443);
+        request.setContextPath("/menu");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void itemLinksMatchLinkBuilder() {
+        ItemDto expected = item(42L, 7L);
+        expected.add(linkTo(methodOn(ItemController.class).getItemById(expected.getId())).withSelfRel());
+        expected.add(linkTo(methodOn(UserController.class).getUserById(expected.getUserId())).withRel("user"));
+        expected.add(linkTo(methodOn(ItemController.class).getItemsByUserId(expected.getUserId(), null, null, null)).withRel("user-items"));
+
+        ItemDto actual = item(42L, 7L);
+        linkTemplates.addItemLinks(actual);
+
+        assertEquals(describe(expected.getLinks()), describe(actual.getLinks()));
+    }
+
+    @Test
+    void userLinksMatchLinkBuilder() {
+        UserDTO dto = new UserDTO(7L, "ana", "ana@menuq.com");
+        EntityModel<UserDTO> expected = EntityModel.of(dto);
+        expected.add(linkTo(methodOn(UserController.class).getUserById(dto.getId())).withSelfRel());
+
+        EntityModel<UserDTO> actual = EntityModel.of(dto);
+        linkTemplates.addUserLinks(actual, dto.getId());
+
+        assertEquals(describe(expected.getLinks()), describe(actual.getLinks()));
+    }
+
+    // Links não implementa equals; compara o que é serializado no JSON
+    private static List<String> describe(Links links) {
+        return links.stream()
+                .map(link -> link.getRel().value() + " " + link.getHref() + " " + link.isTemplated())
+                .toList();
+    }
+
+    private static ItemDto item(Long id, Long userId) {
+        return new ItemDto(id, "Açaí", "Tigela", BigDecimal.TEN, "Açaí", null, userId, 1L, false);
+    }
+}
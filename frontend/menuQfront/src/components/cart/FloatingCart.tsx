@@ -1,10 +1,17 @@
-import { useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { useLocation } from 'react-router-dom';
 import styles from './FloatingCart.module.css';
 import { useCart } from '../../contexts/CartContext';
 import { useAuth } from '../../contexts/AuthContext';
 import { useNotification } from '../../contexts/NotificationContext';
 import { useUI } from '../../contexts/UIContext';
+import * as api from '../../services/api';
+
+const STATUS_LABELS: Record<string, string> = {
+  CONFIRMED: 'confirmado pela cozinha',
+  COMPLETED: 'pronto',
+  CANCELLED: 'cancelado',
+};
 
 export default function FloatingCart() {
   const { items, total, updateQty, removeItem, checkout } = useCart();
@@ -15,6 +22,9 @@ export default function FloatingCart() {
   const itemCount = items.reduce((s, i) => s + i.quantity, 0);
   const { isSidebarOpen } = useUI();
   const { show } = useNotification();
+  const stopTracking = useRef<(() => void) | null>(null);
+
+  useEffect(() => () => stopTracking.current?.(), []);
 
   // Verificar se está em uma página de mesa
   const isOnMesaPage = location.pathname.includes('/menu/') && location.pathname.includes('/mesa/');
@@ -36,12 +46,28 @@ export default function FloatingCart() {
     setOpen(true);
   };
 
+  // Avisa o cliente quando o status do pedido muda (SSE), até ele ser concluído ou cancelado
+  const follow = (orderId: number, token: string) => {
+    stopTracking.current?.();
+    let last = 'PENDING';
+    stopTracking.current = api.trackOrder(orderId, token, status => {
+      if (status === last) return;
+      last = status;
+      show(`Pedido #${orderId} ${STATUS_LABELS[status] ?? status}`, status === 'CANCELLED' ? 'warning' : 'info');
+      if (status === 'COMPLETED' || status === 'CANCELLED') {
+        stopTracking.current?.();
+        stopTracking.current = null;
+      }
+    });
+  };
+
   const doCheckout = async () => {
     try {
       const guestName = localStorage.getItem('guest_info') || undefined;
-      await checkout(isLoggedIn && userId ? Number(userId) : null, guestName);
+      const res = await checkout(isLoggedIn && userId ? Number(userId) : null, guestName);
       show('Pedido enviado com sucesso!', 'info');
       setOpen(false);
+      if (res?.order?.id && res?.trackingToken) follow(res.order.id, res.trackingToken);
     } catch (e) {
       show('Erro ao finalizar pedido: ' + String(e), 'error');
     }
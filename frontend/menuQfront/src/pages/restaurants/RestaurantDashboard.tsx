@@ -33,6 +33,9 @@ export default function RestaurantDashboard() {
   
   // orders state
   const [orders, setOrders] = useState<any[]>([]);
+  // Cursor da página de pedidos mais antigos (null: não há mais)
+  const [olderOrdersCursor, setOlderOrdersCursor] = useState<string | null>(null);
+  const [loadingOlderOrders, setLoadingOlderOrders] = useState(false);
   
   // employee state
   const [empName, setEmpName] = useState('');
@@ -87,7 +90,7 @@ export default function RestaurantDashboard() {
   useEffect(() => {
     // reset add-item form when restaurant selection changes
     resetItemForm();
-    if (!selected) { setItems([]); setEmployees([]); setOrders([]); return; }
+    if (!selected) { setItems([]); setEmployees([]); setOrders([]); setOlderOrdersCursor(null); return; }
     let mounted = true;
     api.getItemsByRestaurant(selected).then(res => { 
       if (!mounted) return; 
@@ -107,16 +110,44 @@ export default function RestaurantDashboard() {
       setEmployees(list);
     }).catch(console.error);
 
-    // Carregar pedidos do restaurante
-    api.getOrdersByRestaurant(selected).then(res => {
+    // Carregar a primeira página de pedidos; depois, pedidos novos e mudanças de status chegam por SSE
+    // e os mais antigos só quando pedidos em "Carregar pedidos anteriores"
+    const loadOrders = () => api.getOrdersByRestaurant(selected).then(page => {
       if (!mounted) return;
-      const list = Array.isArray(res) ? res : (res?._embedded?.orders || []);
-      setOrders(list);
+      setOrders(page.items);
+      setOlderOrdersCursor(page.nextCursor);
     }).catch(console.error);
+    loadOrders();
 
-    return () => { mounted = false; };
+    const unsubscribe = api.subscribeRestaurantOrders(selected, (type, data) => {
+      if (!mounted) return;
+      if (type === 'order-created') {
+        setOrders(prev => prev.some(o => o.id === data.id) ? prev : [data, ...prev]);
+      } else if (type === 'status-changed') {
+        setOrders(prev => prev.map(o => o.id === data.orderId ? { ...o, status: data.status } : o));
+      } else if (type === 'reset') {
+        loadOrders();
+      }
+    });
+
+    return () => { mounted = false; unsubscribe(); };
   }, [selected]);
 
+  const loadOlderOrders = async () => {
+    if (!selected || !olderOrdersCursor) return;
+    setLoadingOlderOrders(true);
+    try {
+      const page = await api.getOrdersByRestaurant(selected, olderOrdersCursor);
+      setOrders(prev => [...prev, ...page.items.filter((o: any) => !prev.some(p => p.id === o.id))]);
+      setOlderOrdersCursor(page.nextCursor);
+    } catch (e) {
+      console.error(e);
+      show('Erro ao carregar pedidos anteriores', 'error');
+    } finally {
+      setLoadingOlderOrders(false);
+    }
+  };
+
   const resetItemForm = () => {
     setItemName(''); setItemDesc(''); setItemPrice(''); setItemCategory('');
     setEditingItemId(null);
@@ -215,11 +246,7 @@ export default function RestaurantDashboard() {
 
       await api.createOrder(payload);
       show(`✅ Pedido simulado criado! Mesa ${randomTable} - ${randomQty}x ${randomItem.name}`, 'info');
-      
-      // Recarregar pedidos após criar
-      const updatedOrders = await api.getOrdersByRestaurant(selected);
-      const list = Array.isArray(updatedOrders) ? updatedOrders : (updatedOrders?._embedded?.orders || []);
-      setOrders(list);
+      // O pedido aparece na lista pelo evento order-created
     } catch (e) {
       console.error(e);
       show('Erro ao simular pedido', 'error');
@@ -533,6 +560,13 @@ export default function RestaurantDashboard() {
                     ))}
                 </div>
               )}
+              {olderOrdersCursor && (
+                <div style={{ textAlign: 'center', marginTop: '1rem' }}>
+                  <button className={styles.btnSecondary} onClick={loadOlderOrders} disabled={loadingOlderOrders}>
+                    {loadingOlderOrders ? 'Carregando...' : 'Carregar pedidos anteriores'}
+                  </button>
+                </div>
+              )}
             </div>
 
             {/* Seção do Cardápio */}
@@ -35,7 +35,10 @@ async function fetchWithRetry(input: RequestInfo, init?: RequestInit, retries =
 }
 
 async function fetchJson(url: string, options?: RequestInit) {
-  const res = await fetchWithRetry(url, options);
+  return readJson(await fetchWithRetry(url, options));
+}
+
+async function readJson(res: Response) {
   if (!res.ok) {
     let body = '';
     try { body = await res.text(); } catch {}
@@ -49,6 +52,31 @@ async function fetchJson(url: string, options?: RequestInit) {
   return text ? JSON.parse(text) : undefined;
 }
 
+// Listagens paginadas por cursor: o backend devolve no máximo `limit` linhas e indica a próxima
+// página no cabeçalho X-Next-Cursor (ausente na última).
+// Pedidos vêm do mais novo para o mais antigo e usam `before` como cursor; as demais listagens, `after`.
+const PAGE_LIMIT = 200;
+const ORDERS_PAGE_LIMIT = 50;
+
+async function fetchPage(url: string, cursorParam: 'after' | 'before', cursor?: string | null, limit = PAGE_LIMIT) {
+  const sep = url.includes('?') ? '&' : '?';
+  const res = await fetchWithRetry(`${url}${sep}limit=${limit}${cursor ? `&${cursorParam}=${encodeURIComponent(cursor)}` : ''}`);
+  const page = await readJson(res);
+  return { items: Array.isArray(page) ? page : [], nextCursor: res.headers.get('X-Next-Cursor') as string | null };
+}
+
+// Segue o cursor até a última página e devolve a lista completa
+async function fetchAllPages(url: string) {
+  const all: any[] = [];
+  let cursor: string | null = null;
+  do {
+    const page = await fetchPage(url, 'after', cursor);
+    all.push(...page.items);
+    cursor = page.nextCursor;
+  } while (cursor);
+  return all;
+}
+
 function readLocal(key: string) {
   try { return JSON.parse(localStorage.getItem(key) || '[]'); } catch { return []; }
 }
@@ -170,7 +198,7 @@ function deleteEmployeeLocal(id: number) {
 // --- API CALLS ---
 
 export async function fetchUsers() {
-  return fetchJson(`${API_URL}/api/users`);
+  return fetchAllPages(`${API_URL}/api/users`);
 }
 
 export async function fetchUserById(id: number) {
@@ -185,16 +213,93 @@ export async function createUser(payload: { username: string; email: string; })
   });
 }
 
+// crypto.randomUUID só existe em contexto seguro (HTTPS ou localhost); pelo IP da rede local o
+// cardápio abre em HTTP, então a chave é montada com getRandomValues (UUID v4)
+function idempotencyKey(): string {
+  if (typeof crypto.randomUUID === 'function') return crypto.randomUUID();
+  const bytes = crypto.getRandomValues(new Uint8Array(16));
+  bytes[6] = (bytes[6] & 0x0f) | 0x40;
+  bytes[8] = (bytes[8] & 0x3f) | 0x80;
+  const hex = Array.from(bytes, b => b.toString(16).padStart(2, '0')).join('');
+  return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+}
+
 export async function createOrder(payload: any) {
+  // Mesma chave em todas as tentativas do fetchWithRetry: o backend não duplica o pedido
   return fetchJson(`${API_URL}/orders`, {
     method: 'POST',
-    headers: { 'Content-Type': 'application/json' },
+    headers: { 'Content-Type': 'application/json', 'Idempotency-Key': idempotencyKey() },
     body: JSON.stringify(payload),
   });
 }
 
-export async function getOrdersByRestaurant(restaurantId: number) {
-  return fetchJson(`${API_URL}/orders/restaurant/${restaurantId}`);
+// Uma página de pedidos, do mais novo para o mais antigo: o painel carrega a primeira e pede as anteriores
+// com o nextCursor devolvido só quando o usuário quiser. Pedidos novos chegam por SSE
+export async function getOrdersByRestaurant(restaurantId: number, before?: string | null) {
+  return fetchPage(`${API_URL}/orders/restaurant/${restaurantId}`, 'before', before, ORDERS_PAGE_LIMIT);
+}
+
+// Pedidos novos e mudanças de status do restaurante por Server-Sent Events, no lugar de recarregar a listagem.
+// O EventSource não envia o cabeçalho Authorization, então o stream é lido com fetch. Ao cair, reconecta
+// com Last-Event-ID (o backend reenvia o que foi perdido) e espera mais a cada falha seguida.
+// "reset" significa que o histórico não cobre a queda: recarregue a listagem.
+export function subscribeRestaurantOrders(restaurantId: number, onEvent: (type: string, data: any) => void) {
+  const controller = new AbortController();
+  let lastEventId: string | null = null;
+  let delay = 1000;
+
+  const dispatch = (block: string) => {
+    let type = 'message';
+    let data = '';
+    for (const line of block.split('\n')) {
+      if (line.startsWith('id:')) lastEventId = line.slice(3).trim();
+      else if (line.startsWith('event:')) type = line.slice(6).trim();
+      else if (line.startsWith('data:')) data += line.slice(5);
+    }
+    // Linhas de comentário (heartbeat) não têm dados
+    if (data) onEvent(type, JSON.parse(data));
+  };
+
+  (async () => {
+    while (!controller.signal.aborted) {
+      try {
+        const headers = new Headers({ Accept: 'text/event-stream' });
+        const token = localStorage.getItem('token');
+        if (token) headers.set('Authorization', `Bearer ${token}`);
+        if (lastEventId) headers.set('Last-Event-ID', lastEventId);
+        const res = await fetch(`${API_URL}/orders/restaurant/${restaurantId}/events`,
+          { headers, credentials: 'include', signal: controller.signal });
+        if (!res.ok || !res.body) throw new Error(`HTTP ${res.status}`);
+        delay = 1000;
+        const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += value.replace(/\r/g, '');
+          let end;
+          while ((end = buffer.indexOf('\n\n')) >= 0) {
+            dispatch(buffer.slice(0, end));
+            buffer = buffer.slice(end + 2);
+          }
+        }
+      } catch {
+        if (controller.signal.aborted) return;
+      }
+      await new Promise(r => setTimeout(r, delay));
+      delay = Math.min(delay * 2, 30000);
+    }
+  })();
+
+  return () => controller.abort();
+}
+
+// Status do pedido do convidado, sem login (trackingToken devolvido na criação do pedido).
+// O primeiro evento traz o status atual; o EventSource reconecta sozinho com Last-Event-ID.
+export function trackOrder(orderId: number, token: string, onStatus: (status: string) => void) {
+  const source = new EventSource(`${API_URL}/api/public/orders/${orderId}/events?token=${encodeURIComponent(token)}`);
+  source.addEventListener('status-changed', e => onStatus(JSON.parse((e as MessageEvent).data).status));
+  return () => source.close();
 }
 
 export async function deleteOrder(orderId: number) {
@@ -216,7 +321,7 @@ export async function getRestaurantById(id: number) {
 }
 
 export async function getRestaurants() {
-  return await fetchJson(`${API_URL}/api/restaurants`);
+  return await fetchAllPages(`${API_URL}/api/restaurants`);
 }
 
 export async function getRestaurantByOwner(ownerId: number) {
@@ -299,11 +404,11 @@ export async function searchItems(name: string) {
 }
 
 export async function getItemsByRestaurant(restaurantId: number) {
-  return await fetchJson(`${API_URL}/api/restaurants/${restaurantId}/items`);
+  return await fetchAllPages(`${API_URL}/api/restaurants/${restaurantId}/items`);
 }
 
 export async function getFeaturedItemsByRestaurant(restaurantId: number) {
-  return await fetchJson(`${API_URL}/api/restaurants/${restaurantId}/items/featured`);
+  return await fetchAllPages(`${API_URL}/api/restaurants/${restaurantId}/items/featured`);
 }
 
 export async function uploadFile(file: File) {
@@ -322,6 +427,8 @@ export default {
   createUser,
   createOrder,
   getOrdersByRestaurant,
+  subscribeRestaurantOrders,
+  trackOrder,
   deleteOrder,
   createRating,
   getRestaurants,